@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.configuration.actuator;
+
+import com.michelin.suricate.services.js.services.JsCircuitBreakerService;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Circuit breakers actuator endpoint.
+ * Expose the state of the circuit breakers of the remote hosts called by the widgets.
+ */
+@Component
+@Endpoint(id = "circuitbreakers")
+public class CircuitBreakersEndpoint {
+    @Autowired
+    private JsCircuitBreakerService jsCircuitBreakerService;
+
+    /**
+     * Get the state of the circuit breakers.
+     *
+     * @return The state of the circuit breakers by host
+     */
+    @ReadOperation
+    public Map<String, JsCircuitBreakerService.CircuitBreakerState> circuitBreakers() {
+        return jsCircuitBreakerService.getCircuitBreakers();
+    }
+}
@@ -134,8 +134,9 @@ public class WebConfig implements WebMvcConfigurer {
                     .requestMatchers(CorsUtils::isPreFlightRequest).permitAll()
                     // Make other MVC requests served by the DispatcherServlet
                     .requestMatchers(mvcMatcherBuilder.pattern(HttpMethod.OPTIONS, "/**")).permitAll()
-                    // Actuator
-                    .requestMatchers(mvcMatcherBuilder.pattern("/actuator/**")).permitAll()
+                    // Actuator, the endpoints other than health expose the internal state of the application
+                    .requestMatchers(mvcMatcherBuilder.pattern("/actuator/health/**")).permitAll()
+                    .requestMatchers(mvcMatcherBuilder.pattern("/actuator/**")).hasRole("ADMIN")
                     // Swagger
                     .requestMatchers(mvcMatcherBuilder.pattern("/swagger-ui/**")).permitAll()
                     .requestMatchers(mvcMatcherBuilder.pattern("/swagger-ui.html")).permitAll()
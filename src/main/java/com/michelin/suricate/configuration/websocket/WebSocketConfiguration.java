@@ -17,6 +17,7 @@
 package com.michelin.suricate.configuration.websocket;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -40,4 +41,15 @@ public class WebSocketConfiguration implements WebSocketMessageBrokerConfigurer
             .setAllowedOriginPatterns("*")
             .withSockJS();
     }
+
+    /**
+     * Message broker configuration.
+     * The messages sent by the clients to the application destinations are handled by the message mappings.
+     *
+     * @param registry The message broker registry
+     */
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.setApplicationDestinationPrefixes("/app");
+    }
 }
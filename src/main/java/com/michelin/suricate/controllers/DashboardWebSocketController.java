@@ -0,0 +1,53 @@
+/*
+ *
+ *  * Copyright 2012-2021 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package com.michelin.suricate.controllers;
+
+import com.michelin.suricate.services.websocket.DashboardWebSocketService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Dashboard websocket controller.
+ */
+@Controller
+public class DashboardWebSocketController {
+    @Autowired
+    private DashboardWebSocketService dashboardWebSocketService;
+
+    /**
+     * Receive the grid displayed by a connected screen.
+     * Sent by the screens when they connect to a dashboard and at each grid rotation.
+     *
+     * @param projectToken   The project token
+     * @param screenCode     The screen code
+     * @param gridId         The displayed grid ID
+     * @param headerAccessor The message headers
+     */
+    @MessageMapping("/project/{projectToken}/screen/{screenCode}/grid")
+    public void displayGrid(@DestinationVariable("projectToken") String projectToken,
+                            @DestinationVariable("screenCode") String screenCode,
+                            @Payload Long gridId,
+                            SimpMessageHeaderAccessor headerAccessor) {
+        dashboardWebSocketService.updateDisplayedGrid(headerAccessor.getSessionId(), projectToken, screenCode, gridId);
+    }
+}
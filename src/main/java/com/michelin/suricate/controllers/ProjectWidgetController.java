@@ -21,6 +21,7 @@ package com.michelin.suricate.controllers;
 import static com.michelin.suricate.utils.exceptions.constants.ErrorMessage.USER_NOT_ALLOWED_PROJECT;
 
 import com.michelin.suricate.model.dto.api.error.ApiErrorDto;
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetRefreshIntervalResponseDto;
 import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetRequestDto;
 import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
 import com.michelin.suricate.model.entities.Project;
@@ -30,6 +31,7 @@ import com.michelin.suricate.model.enums.ApiErrorEnum;
 import com.michelin.suricate.security.LocalUser;
 import com.michelin.suricate.services.api.ProjectService;
 import com.michelin.suricate.services.api.ProjectWidgetService;
+import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.mapper.ProjectWidgetMapper;
 import com.michelin.suricate.utils.exceptions.ApiException;
 import com.michelin.suricate.utils.exceptions.GridNotFoundException;
@@ -77,6 +79,9 @@ public class ProjectWidgetController {
     @Autowired
     private ProjectService projectService;
 
+    @Autowired
+    private JsExecutionScheduler jsExecutionScheduler;
+
     /**
      * Get a project widget.
      *
@@ -146,6 +151,57 @@ public class ProjectWidgetController {
             .body(projectWidgetMapper.toProjectWidgetsDtos(allWidgets));
     }
 
+    /**
+     * Get the current refresh intervals of the project widgets of a project.
+     *
+     * @param projectToken The project token
+     * @return The refresh intervals
+     */
+    @Operation(summary = "Get the current refresh intervals of the projectWidgets of a project")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "OK"),
+        @ApiResponse(responseCode = "401", description = "Authentication error, token expired or invalid", content = {
+            @Content(schema = @Schema(implementation = ApiErrorDto.class))}),
+        @ApiResponse(responseCode = "403", description = "You don't have permission to access to this resource",
+            content = {@Content(schema = @Schema(implementation = ApiErrorDto.class))}),
+        @ApiResponse(responseCode = "404", description = "Project not found", content = {
+            @Content(schema = @Schema(implementation = ApiErrorDto.class))})
+    })
+    @GetMapping(value = "/v1/projectWidgets/{projectToken}/refreshIntervals")
+    @PermitAll
+    public ResponseEntity<List<ProjectWidgetRefreshIntervalResponseDto>> getRefreshIntervalsByProject(
+        @Parameter(name = "projectToken", description = "The project token", required = true)
+        @PathVariable("projectToken") String projectToken) {
+        Optional<Project> projectOptional = projectService.getOneByToken(projectToken);
+        if (projectOptional.isEmpty()) {
+            throw new ObjectNotFoundException(Project.class, projectToken);
+        }
+
+        List<ProjectWidgetRefreshIntervalResponseDto> refreshIntervals = projectOptional.get().getGrids()
+            .stream()
+            .map(ProjectGrid::getWidgets)
+            .flatMap(Collection::stream)
+            .filter(projectWidget -> projectWidget.getWidget() != null && projectWidget.getWidget().getDelay() != null)
+            .map(projectWidget -> {
+                ProjectWidgetRefreshIntervalResponseDto refreshInterval = new ProjectWidgetRefreshIntervalResponseDto();
+                refreshInterval.setProjectWidgetId(projectWidget.getId());
+                refreshInterval.setDelay(projectWidget.getWidget().getDelay());
+                refreshInterval.setRefreshInterval(jsExecutionScheduler
+                    .getRefreshInterval(projectWidget.getId(), projectWidget.getWidget().getDelay()));
+                return refreshInterval;
+            })
+            .toList();
+
+        if (refreshIntervals.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        return ResponseEntity
+            .ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(refreshIntervals);
+    }
+
     /**
      * Edit a project widget for a project.
      *
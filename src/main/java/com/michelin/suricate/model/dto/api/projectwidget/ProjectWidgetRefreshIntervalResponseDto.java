@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.model.dto.api.projectwidget;
+
+import com.michelin.suricate.model.dto.api.AbstractDto;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Project widget refresh interval response DTO.
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+@Schema(description = "Refresh interval of a project widget")
+public class ProjectWidgetRefreshIntervalResponseDto extends AbstractDto {
+    @Schema(description = "The project widget id", example = "1")
+    private Long projectWidgetId;
+
+    @Schema(description = "The delay declared by the widget, in seconds", example = "30")
+    private Long delay;
+
+    @Schema(description = "The current refresh interval, in seconds", example = "120")
+    private Long refreshInterval;
+}
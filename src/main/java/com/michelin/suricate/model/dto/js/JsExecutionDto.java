@@ -36,38 +36,46 @@ import lombok.ToString;
 public class JsExecutionDto extends AbstractDto {
     private String properties;
     private String script;
+    private String widgetTechnicalName;
     private String previousData;
     private Long projectId;
+    private Long projectGridId;
     private Long projectWidgetId;
     private Long delay;
     private WidgetStateEnum widgetState;
     private boolean alreadySuccess;
+    private Date lastSuccessDate;
     private Long timeout;
 
     /**
      * Constructor.
      *
-     * @param properties   The project widget backend config
-     * @param script       The widget js script
-     * @param previousData The data of the last execution
-     * @param projectId    The project id
-     * @param technicalId  The project widget id
-     * @param delay        The delay before the next run
-     * @param timeout      The timeout before interruption of the run
-     * @param state        The project widget state
-     * @param lastSuccess  The last success date
+     * @param properties          The project widget backend config
+     * @param script              The widget js script
+     * @param widgetTechnicalName The widget technical name
+     * @param previousData        The data of the last execution
+     * @param projectId           The project id
+     * @param projectGridId       The project grid id
+     * @param technicalId         The project widget id
+     * @param delay               The delay before the next run
+     * @param timeout             The timeout before interruption of the run
+     * @param state               The project widget state
+     * @param lastSuccess         The last success date
      */
-    public JsExecutionDto(String properties, String script, String previousData, Long projectId, Long technicalId,
-                          Long delay, Long timeout,
+    public JsExecutionDto(String properties, String script, String widgetTechnicalName, String previousData,
+                          Long projectId, Long projectGridId, Long technicalId, Long delay, Long timeout,
                           WidgetStateEnum state, Date lastSuccess) {
         this.properties = properties;
         this.script = script;
+        this.widgetTechnicalName = widgetTechnicalName;
         this.previousData = previousData;
         this.projectId = projectId;
+        this.projectGridId = projectGridId;
         this.projectWidgetId = technicalId;
         this.delay = delay;
         this.widgetState = state;
         this.timeout = timeout;
         this.alreadySuccess = lastSuccess != null;
+        this.lastSuccessDate = lastSuccess;
     }
 }
@@ -49,4 +49,8 @@ public class WebsocketClient extends AbstractDto {
 
     @Schema(name = "Screen reference")
     private String screenCode;
+
+    @EqualsAndHashCode.Exclude
+    @Schema(name = "The grid displayed by the screen, when reported")
+    private Long displayedGridId;
 }
@@ -45,6 +45,7 @@ public class ApplicationProperties {
     private Authentication authentication;
     private Ssl ssl;
     private Widgets widgets;
+    private Js js = new Js();
     private Swagger swagger;
 
     /**
@@ -159,6 +160,103 @@ public class ApplicationProperties {
         private String cloneDir = "/tmp";
     }
 
+    /**
+     * Js execution properties.
+     */
+    @Getter
+    @Setter
+    public static class Js {
+        private long statementLimit = 100000000;
+        private boolean skipUnchangedResults = true;
+        private boolean memoization = false;
+        private long sourceCacheMaxEntries = 1000;
+        private ContextPool contextPool = new ContextPool();
+        private Scheduler scheduler = new Scheduler();
+        private Http http = new Http();
+        private WriteBehind writeBehind = new WriteBehind();
+    }
+
+    /**
+     * Js HTTP client properties.
+     */
+    @Getter
+    @Setter
+    public static class Http {
+        private int maxIdleConnections = 50;
+        private long keepAlive = 300;
+        private boolean http2 = true;
+        private int tlsSessionCacheSize = 1000;
+        private int tlsSessionTimeout = 3600;
+        private long cacheTtl = 0;
+        private long cacheMaxEntries = 1000;
+        private boolean coalescing = true;
+        private boolean revalidation = false;
+        private long revalidationMaxEntries = 500;
+        private String revalidationOverflowDirectory;
+        private long revalidationOverflowMaxEntries = 10000;
+        private int batchMaxConcurrency = 10;
+        private int maxConcurrentCallsPerHost = 20;
+        private double maxCallsPerSecondPerHost = 0;
+        private Map<String, HostLimits> hostLimits = new HashMap<>();
+        private int circuitBreakerFailureThreshold = 5;
+        private long circuitBreakerOpenDuration = 60;
+        private long maxResponseSize = 10485760;
+        private boolean metricsWidgetTag = false;
+    }
+
+    /**
+     * Js HTTP limits of a remote host, overriding the default ones.
+     */
+    @Getter
+    @Setter
+    public static class HostLimits {
+        private Integer maxConcurrentCalls;
+        private Double maxCallsPerSecond;
+    }
+
+    /**
+     * Js results write-behind properties.
+     */
+    @Getter
+    @Setter
+    public static class WriteBehind {
+        private boolean enabled = true;
+        private long flushInterval = 1000;
+        private int batchSize = 500;
+    }
+
+    /**
+     * Js context pool properties.
+     */
+    @Getter
+    @Setter
+    public static class ContextPool {
+        private boolean enabled = true;
+        private int maxIdlePerWidget = 4;
+        private int maxIdle = 200;
+        private long idleTimeout = 300;
+    }
+
+    /**
+     * Js scheduler properties.
+     */
+    @Getter
+    @Setter
+    public static class Scheduler {
+        private boolean virtualThreads = false;
+        private boolean pinningDiagnostics = true;
+        private long pinningThreshold = 20;
+        private boolean timingWheel = false;
+        private long tickDuration = 1000;
+        private int wheelSize = 512;
+        private long startupWindow = 10;
+        private long hiddenGridDelayFactor = 4;
+        private long hiddenGridPrewarm = 10;
+        private boolean adaptiveRefresh = false;
+        private double adaptiveRefreshBackoff = 2;
+        private long adaptiveRefreshCeiling = 900;
+    }
+
     /**
      * Swagger properties.
      */
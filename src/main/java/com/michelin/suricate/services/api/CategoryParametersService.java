@@ -23,6 +23,7 @@ import com.michelin.suricate.model.entities.CategoryParameter;
 import com.michelin.suricate.model.entities.WidgetParam;
 import com.michelin.suricate.model.enums.DataTypeEnum;
 import com.michelin.suricate.repositories.CategoryParametersRepository;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.specifications.CategoryParametersSearchSpecification;
 import java.util.List;
 import java.util.Optional;
@@ -30,6 +31,7 @@ import java.util.Set;
 import org.jasypt.encryption.StringEncryptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -47,6 +49,10 @@ public class CategoryParametersService {
     @Qualifier("jasyptStringEncryptor")
     private StringEncryptor stringEncryptor;
 
+    @Lazy
+    @Autowired
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
     /**
      * Convert category parameters into widget parameters.
      *
@@ -108,6 +114,8 @@ public class CategoryParametersService {
             ? stringEncryptor.encrypt(newValue) : newValue);
 
         categoryParametersRepository.save(categoryParameter);
+        jsExecutionRegistryService.evictByCategory(
+            categoryParameter.getCategory() != null ? categoryParameter.getCategory().getId() : null);
     }
 
     /**
@@ -117,6 +125,7 @@ public class CategoryParametersService {
      */
     public void deleteOneByKey(String key) {
         categoryParametersRepository.deleteById(key);
+        jsExecutionRegistryService.evictAll();
     }
 
     /**
@@ -139,5 +148,7 @@ public class CategoryParametersService {
 
             categoryParametersRepository.save(categoryParameter);
         }
+
+        jsExecutionRegistryService.evictByCategory(category.getId());
     }
 }
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.mustachejava.Mustache;
 import com.github.mustachejava.MustacheException;
 import com.github.mustachejava.MustacheFactory;
+import com.google.common.base.Suppliers;
 import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetPositionRequestDto;
 import com.michelin.suricate.model.dto.websocket.UpdateEvent;
 import com.michelin.suricate.model.entities.Project;
@@ -33,6 +34,7 @@ import com.michelin.suricate.model.enums.WidgetStateEnum;
 import com.michelin.suricate.repositories.ProjectWidgetRepository;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.js.services.DashboardScheduleService;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.websocket.DashboardWebSocketService;
 import com.michelin.suricate.utils.JavaScriptUtils;
 import com.michelin.suricate.utils.PropertiesUtils;
@@ -40,10 +42,14 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.jasypt.encryption.StringEncryptor;
@@ -73,6 +79,10 @@ public class ProjectWidgetService {
     @Autowired
     private WidgetService widgetService;
 
+    @Lazy
+    @Autowired
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
     @Autowired
     private MustacheFactory mustacheFactory;
 
@@ -163,6 +173,7 @@ public class ProjectWidgetService {
                                                       final int startRow, final int height, final int width) {
         projectWidgetRepository.updateRowAndColAndWidthAndHeightById(startRow, startCol, width, height,
             projectWidgetId);
+        jsExecutionRegistryService.evict(projectWidgetId);
     }
 
     /**
@@ -206,6 +217,7 @@ public class ProjectWidgetService {
 
             projectWidgetRepository.deleteById(projectWidgetId);
             projectWidgetRepository.flush();
+            jsExecutionRegistryService.evict(projectWidgetId);
 
             // notify client
             UpdateEvent updateEvent = UpdateEvent.builder()
@@ -267,43 +279,54 @@ public class ProjectWidgetService {
      */
     @Transactional
     public String instantiateProjectWidgetHtml(ProjectWidget projectWidget) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        Map<String, Object> map = null;
+        if (StringUtils.isEmpty(projectWidget.getData())) {
+            return projectWidget.getWidget().getHtmlContent();
+        }
+
         Widget widget = projectWidget.getWidget();
 
-        String instantiateHtml = widget.getHtmlContent();
-        if (StringUtils.isNotEmpty(projectWidget.getData())) {
-            try {
-                map = objectMapper.readValue(projectWidget.getData(), new TypeReference<>() {
-                });
-                // Add backend config
-                map.putAll(PropertiesUtils.convertStringWidgetPropertiesToMap(projectWidget.getBackendConfig()));
-                map.put(JavaScriptUtils.WIDGET_INSTANCE_ID_VARIABLE, projectWidget.getId());
+        return buildHtmlTemplate(projectWidget,
+            Suppliers.memoize(() -> widgetService.getWidgetParametersWithCategoryParameters(widget)))
+            .render(projectWidget.getData());
+    }
 
-                // Add global variables if needed
-                for (WidgetParam widgetParam : widgetService.getWidgetParametersWithCategoryParameters(
-                    projectWidget.getWidget())) {
-                    if (!map.containsKey(widgetParam.getName()) && widgetParam.isRequired()) {
-                        map.put(widgetParam.getName(), widgetParam.getDefaultValue());
-                    }
-                }
-            } catch (IOException e) {
-                log.error(e.getMessage(), e);
-            }
+    /**
+     * Get the HTML template of a widget instance, to instantiate its HTML with the data
+     * resulting from each Js execution without compiling the template again.
+     * The widget parameters are loaded right away, as the template is used once the session is closed.
+     *
+     * @param projectWidget the widget instance
+     * @return The HTML template
+     */
+    @Transactional
+    public HtmlTemplate getHtmlTemplate(ProjectWidget projectWidget) {
+        return buildHtmlTemplate(projectWidget, Suppliers.ofInstance(
+            List.copyOf(widgetService.getWidgetParametersWithCategoryParameters(projectWidget.getWidget()))));
+    }
 
-            StringWriter stringWriter = new StringWriter();
-            try {
-                Mustache mustache =
-                    mustacheFactory.compile(new StringReader(instantiateHtml), widget.getTechnicalName());
-                mustache.execute(stringWriter, map);
-            } catch (MustacheException me) {
-                log.error("Error with mustache template for widget {}", widget.getTechnicalName(), me);
-            }
-            stringWriter.flush();
-            instantiateHtml = stringWriter.toString();
+    /**
+     * Compile the HTML template of a widget instance.
+     *
+     * @param projectWidget the widget instance
+     * @param widgetParams  the supplier of the widget parameters
+     * @return The HTML template
+     */
+    private HtmlTemplate buildHtmlTemplate(ProjectWidget projectWidget, Supplier<List<WidgetParam>> widgetParams) {
+        Widget widget = projectWidget.getWidget();
+
+        Mustache mustache = null;
+        try {
+            mustache = mustacheFactory.compile(new StringReader(widget.getHtmlContent()), widget.getTechnicalName());
+        } catch (MustacheException me) {
+            log.error("Error with mustache template for widget {}", widget.getTechnicalName(), me);
         }
 
-        return instantiateHtml;
+        Map<String, Object> variables =
+            new HashMap<>(PropertiesUtils.convertStringWidgetPropertiesToMap(projectWidget.getBackendConfig()));
+        variables.put(JavaScriptUtils.WIDGET_INSTANCE_ID_VARIABLE, projectWidget.getId());
+
+        return new HtmlTemplate(widget.getHtmlContent(), widget.getTechnicalName(), mustache, variables,
+            widgetParams);
     }
 
     /**
@@ -327,6 +350,7 @@ public class ProjectWidgetService {
         }
 
         projectWidgetRepository.save(projectWidget);
+        jsExecutionRegistryService.evict(projectWidget.getId());
 
         dashboardScheduleService.scheduleWidget(projectWidget.getId());
     }
@@ -417,4 +441,68 @@ public class ProjectWidgetService {
             .map(backendConfigEntrySet -> backendConfigEntrySet.getKey() + "=" + backendConfigEntrySet.getValue())
             .collect(Collectors.joining("\n"));
     }
+
+    /**
+     * HTML template of a widget instance.
+     * The template is compiled once, the configuration of the widget instance and the default values
+     * of the required parameters are added to the data of each Js execution.
+     */
+    @AllArgsConstructor
+    public static class HtmlTemplate {
+        private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+        private final String htmlContent;
+
+        private final String technicalName;
+
+        private final Mustache mustache;
+
+        private final Map<String, Object> variables;
+
+        /**
+         * The widget parameters, loaded on the first instantiation or when the template is compiled.
+         */
+        private final Supplier<List<WidgetParam>> widgetParams;
+
+        /**
+         * Instantiate the HTML with the data resulting from a Js execution.
+         *
+         * @param data The data
+         * @return The instantiated HTML
+         */
+        public String render(String data) {
+            if (StringUtils.isEmpty(data)) {
+                return htmlContent;
+            }
+
+            Map<String, Object> map = null;
+            try {
+                map = OBJECT_MAPPER.readValue(data, new TypeReference<>() {
+                });
+                // Add backend config
+                map.putAll(variables);
+
+                // Add global variables if needed
+                for (WidgetParam widgetParam : widgetParams.get()) {
+                    if (!map.containsKey(widgetParam.getName()) && widgetParam.isRequired()) {
+                        map.put(widgetParam.getName(), widgetParam.getDefaultValue());
+                    }
+                }
+            } catch (IOException e) {
+                log.error(e.getMessage(), e);
+            }
+
+            StringWriter stringWriter = new StringWriter();
+            if (mustache != null) {
+                try {
+                    mustache.execute(stringWriter, map);
+                } catch (MustacheException me) {
+                    log.error("Error with mustache template for widget {}", technicalName, me);
+                }
+            }
+            stringWriter.flush();
+
+            return stringWriter.toString();
+        }
+    }
 }
@@ -28,6 +28,7 @@ import com.michelin.suricate.model.enums.DataTypeEnum;
 import com.michelin.suricate.model.enums.WidgetAvailabilityEnum;
 import com.michelin.suricate.repositories.WidgetParamRepository;
 import com.michelin.suricate.repositories.WidgetRepository;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.specifications.WidgetSearchSpecification;
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -39,6 +40,7 @@ import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -62,6 +64,10 @@ public class WidgetService {
     @Autowired
     private CategoryService categoryService;
 
+    @Lazy
+    @Autowired
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
     /**
      * Find a widget by id.
      *
@@ -171,6 +177,7 @@ public class WidgetService {
         Optional<Widget> widgetToBeModified = findOne(widgetId);
         if (widgetToBeModified.isPresent()) {
             widgetToBeModified.get().setWidgetAvailability(widgetRequestDto.getWidgetAvailability());
+            jsExecutionRegistryService.evictByWidget(widgetId);
             return Optional.of(widgetRepository.save(widgetToBeModified.get()));
         }
 
@@ -280,6 +287,7 @@ public class WidgetService {
             widget.setRepository(repository);
 
             widgetRepository.save(widget);
+            jsExecutionRegistryService.evictByWidget(widget.getId());
 
             log.info("Widget {} updated from the branch {} of the repository {}", widget.getTechnicalName(),
                 widget.getRepository().getBranch(), widget.getRepository().getName());
@@ -27,6 +27,7 @@ import com.michelin.suricate.services.api.RepositoryService;
 import com.michelin.suricate.services.api.WidgetService;
 import com.michelin.suricate.services.cache.CacheService;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
+import com.michelin.suricate.services.js.services.JsEngineService;
 import com.michelin.suricate.services.websocket.DashboardWebSocketService;
 import com.michelin.suricate.utils.WidgetUtils;
 import java.io.File;
@@ -75,6 +76,9 @@ public class GitService {
     @Autowired
     private CacheService cacheService;
 
+    @Autowired
+    private JsEngineService jsEngineService;
+
     /**
      * Update widgets from the full list of git repositories asynchronously.
      */
@@ -206,6 +210,7 @@ public class GitService {
                 categories.forEach(category -> {
                     categoryService.addOrUpdateCategory(category);
                     widgetService.addOrUpdateWidgets(category, allLibraries, repository);
+                    category.getWidgets().forEach(widget -> jsEngineService.evictWidget(widget.getTechnicalName()));
                 });
 
                 cacheService.clearAllCache();
@@ -16,32 +16,54 @@
 
 package com.michelin.suricate.services.js.scheduler;
 
+import com.google.common.hash.Hashing;
 import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.model.dto.js.WidgetVariableResponseDto;
 import com.michelin.suricate.model.entities.Project;
 import com.michelin.suricate.model.entities.ProjectGrid;
-import com.michelin.suricate.model.entities.ProjectWidget;
 import com.michelin.suricate.model.enums.WidgetStateEnum;
+import com.michelin.suricate.properties.ApplicationProperties;
 import com.michelin.suricate.services.api.ProjectWidgetService;
-import com.michelin.suricate.services.api.WidgetService;
 import com.michelin.suricate.services.js.services.DashboardScheduleService;
+import com.michelin.suricate.services.js.services.JsCircuitBreakerService;
+import com.michelin.suricate.services.js.services.JsEngineService;
+import com.michelin.suricate.services.js.services.JsExecutionMemoService;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.js.services.JsExecutionService;
+import com.michelin.suricate.services.js.services.JsResultWriterService;
 import com.michelin.suricate.services.js.tasks.JsExecutionAsyncTask;
 import com.michelin.suricate.services.js.tasks.JsResultAsyncTask;
+import jakarta.annotation.PreDestroy;
 import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.StringUtils;
 import org.jasypt.encryption.StringEncryptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -58,14 +80,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class JsExecutionScheduler {
     private static final int EXECUTOR_POOL_SIZE = 60;
 
+    private static final String VIRTUAL_THREAD_PINNED_EVENT = "jdk.VirtualThreadPinned";
+
     private static final long JS_IMMEDIATE_EXECUTION_DELAY = 1L;
 
-    private final Map<Long, Pair<WeakReference<ScheduledFuture<JsResultDto>>,
-        WeakReference<ScheduledFuture<Void>>>> jsTasksByProjectWidgetId = new ConcurrentHashMap<>();
+    private final Map<Long, WeakReference<Future<JsResultDto>>> jsTasksByProjectWidgetId = new ConcurrentHashMap<>();
+
+    private final Map<Long, JsExecutionDto> hiddenJsExecutionsByProjectWidgetId = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<Long>> displayedGridIdsByProjectId = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> prewarmedGridExpirationsByGridId = new ConcurrentHashMap<>();
+
+    private final Map<Long, JsTimer.Timeout> prewarmsByGridId = new ConcurrentHashMap<>();
+
+    private final Map<Long, AdaptiveRefresh> adaptiveRefreshesByProjectWidgetId = new ConcurrentHashMap<>();
+
+    @Getter
+    private final AtomicLong pinnedVirtualThreads = new AtomicLong();
 
-    private ScheduledThreadPoolExecutor jsExecutionExecutor;
+    private JsTimer jsTimer;
 
-    private ScheduledThreadPoolExecutor jsResultExecutor;
+    private ExecutorService jsExecutionExecutor;
+
+    private ExecutorService jsTimeoutExecutor;
+
+    private ExecutorService jsResultExecutor;
+
+    private RecordingStream pinningRecordingStream;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
 
     @Autowired
     private ApplicationContext applicationContext;
@@ -75,10 +120,22 @@ public class JsExecutionScheduler {
     private ProjectWidgetService projectWidgetService;
 
     @Autowired
-    private WidgetService widgetService;
+    private JsExecutionService jsExecutionService;
 
     @Autowired
-    private JsExecutionService jsExecutionService;
+    private JsEngineService jsEngineService;
+
+    @Autowired
+    private JsCircuitBreakerService jsCircuitBreakerService;
+
+    @Autowired
+    private JsExecutionMemoService jsExecutionMemoService;
+
+    @Autowired
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
+    @Autowired
+    private JsResultWriterService jsResultWriterService;
 
     @Lazy
     @Autowired
@@ -89,28 +146,67 @@ public class JsExecutionScheduler {
     private StringEncryptor stringEncryptor;
 
     /**
-     * Init the Js executors.
+     * Init the Js timer and executors.
+     * The timer only dispatches the Js executions to the execution executor: a pool of platform threads,
+     * or a new virtual thread per Js execution in virtual threads mode, so the number of in-flight
+     * Js executions is not bounded by the pool size.
+     * The timeouts of all the Js executions are enforced by the same timer.
+     * The results are handled by a new virtual thread, so the retries of the widget updates
+     * do not hold the threads of the execution executor.
      */
     @Transactional
     public void init() {
-        log.debug("Initializing the JavaScript executors");
+        ApplicationProperties.Scheduler properties = applicationProperties.getJs().getScheduler();
+
+        log.debug("Initializing the JavaScript executors (virtual threads: {}, timing wheel: {})",
+            properties.isVirtualThreads(), properties.isTimingWheel());
+
+        stopPinningDiagnostics();
+
+        if (jsTimer != null) {
+            jsTimer.stop();
+        }
+
+        jsTimer = properties.isTimingWheel()
+            ? new TimingWheelJsTimer(properties.getTickDuration(), TimeUnit.MILLISECONDS, properties.getWheelSize())
+            : new ScheduledExecutorJsTimer();
 
         if (jsExecutionExecutor != null) {
             jsExecutionExecutor.shutdownNow();
         }
 
-        jsExecutionExecutor = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(EXECUTOR_POOL_SIZE);
-        jsExecutionExecutor.setRemoveOnCancelPolicy(true);
+        if (properties.isVirtualThreads()) {
+            jsExecutionExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("js-", 0).factory());
+
+            if (properties.isPinningDiagnostics()) {
+                startPinningDiagnostics(properties);
+            }
+        } else {
+            jsExecutionExecutor = Executors.newFixedThreadPool(EXECUTOR_POOL_SIZE);
+        }
+
+        if (jsTimeoutExecutor != null) {
+            jsTimeoutExecutor.shutdownNow();
+        }
+
+        // The timeouts must be handled even when all the threads of the pool are busy
+        jsTimeoutExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("js-timeout-", 0).factory());
 
         if (jsResultExecutor != null) {
             jsResultExecutor.shutdownNow();
         }
 
-        jsResultExecutor = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(EXECUTOR_POOL_SIZE);
-        jsResultExecutor.setRemoveOnCancelPolicy(true);
+        jsResultExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("js-result-", 0).factory());
 
         jsTasksByProjectWidgetId.clear();
-
+        hiddenJsExecutionsByProjectWidgetId.clear();
+        displayedGridIdsByProjectId.clear();
+        prewarmedGridExpirationsByGridId.clear();
+        prewarmsByGridId.clear();
+        adaptiveRefreshesByProjectWidgetId.clear();
+
+        // The pending writes must not override the reset states
+        jsResultWriterService.flush();
         projectWidgetService.resetProjectWidgetsState();
     }
 
@@ -128,6 +224,103 @@ public class JsExecutionScheduler {
         }
     }
 
+    /**
+     * Schedule the first Js executions of a project, when a first client subscribes to it.
+     * The clients display the last persisted data of the widgets meanwhile.
+     * The Js executions are spread with jitter over the configured startup window, so all the widgets
+     * of a dashboard do not execute in the same second. The widgets with the oldest data start first.
+     *
+     * @param jsExecutionDtos The list of Js execution to schedule
+     */
+    public void scheduleJsRequestsOnSubscription(final List<JsExecutionDto> jsExecutionDtos) {
+        long startupWindow = TimeUnit.SECONDS.toMillis(applicationProperties.getJs().getScheduler().getStartupWindow());
+
+        List<JsExecutionDto> sortedJsExecutionDtos = jsExecutionDtos
+            .stream()
+            .sorted(Comparator.comparing(JsExecutionDto::getLastSuccessDate,
+                Comparator.nullsFirst(Comparator.naturalOrder())))
+            .toList();
+
+        try {
+            for (int i = 0; i < sortedJsExecutionDtos.size(); i++) {
+                schedule(sortedJsExecutionDtos.get(i), TimeUnit.SECONDS.toMillis(JS_IMMEDIATE_EXECUTION_DELAY)
+                    + getStaggeredDelay(i, sortedJsExecutionDtos.size(), startupWindow), TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            log.error("An error has occurred when scheduling a JavaScript request for a new project subscription", e);
+        }
+    }
+
+    /**
+     * Compute the delay of a Js execution spread over a window.
+     * The window is split in one slot per Js execution, and the Js execution starts at a random time of its slot.
+     *
+     * @param index  The index of the Js execution
+     * @param count  The number of Js executions
+     * @param window The window in milliseconds
+     * @return The delay in milliseconds
+     */
+    public static long getStaggeredDelay(int index, int count, long window) {
+        if (window <= 0 || count <= 0) {
+            return 0;
+        }
+
+        long slot = window / count;
+        return index * window / count + (slot > 0 ? ThreadLocalRandom.current().nextLong(slot) : 0);
+    }
+
+    /**
+     * Method used to schedule the Js execution updating the associated widget.
+     * The Js execution starts after the refresh interval of the widget, which is its delay or
+     * the adapted one in adaptive refresh mode.
+     * When the grid of the widget is not displayed by any screen, the Js execution is delayed by the
+     * configured factor, or paused if the factor is 0, until the grid is displayed again.
+     * When the circuit of a host called by the widget is open, the Js execution is delayed until the circuit
+     * is half-open, as it would fail anyway.
+     *
+     * @param jsExecutionDto    The Js execution
+     * @param startJsRequestNow Should the Js execution starts now or from the widget configured delay
+     */
+    public void schedule(final JsExecutionDto jsExecutionDto, final boolean startJsRequestNow) {
+        if (jsExecutionDto == null) {
+            return;
+        }
+
+        if (startJsRequestNow || jsExecutionDto.getDelay() == null) {
+            schedule(jsExecutionDto, JS_IMMEDIATE_EXECUTION_DELAY, TimeUnit.SECONDS);
+            return;
+        }
+
+        long refreshInterval = getRefreshInterval(jsExecutionDto.getProjectWidgetId(), jsExecutionDto.getDelay());
+
+        long openCircuitDelay = jsCircuitBreakerService.getOpenCircuitDelay(jsExecutionDto.getProjectWidgetId());
+        if (openCircuitDelay > 0) {
+            log.debug("A circuit called by the widget instance {} is open for {} ms. Delaying the JavaScript execution",
+                jsExecutionDto.getProjectWidgetId(), openCircuitDelay);
+
+            refreshInterval = Math.max(refreshInterval,
+                TimeUnit.MILLISECONDS.toSeconds(openCircuitDelay + TimeUnit.SECONDS.toMillis(1) - 1));
+        }
+
+        if (isGridDisplayed(jsExecutionDto)) {
+            schedule(jsExecutionDto, refreshInterval, TimeUnit.SECONDS);
+            return;
+        }
+
+        long hiddenGridDelayFactor = applicationProperties.getJs().getScheduler().getHiddenGridDelayFactor();
+        if (hiddenGridDelayFactor > 0) {
+            log.debug("The grid of the widget instance {} is not displayed. Slowing down the JavaScript execution",
+                jsExecutionDto.getProjectWidgetId());
+
+            schedule(jsExecutionDto, refreshInterval * hiddenGridDelayFactor, TimeUnit.SECONDS);
+        } else {
+            log.debug("The grid of the widget instance {} is not displayed. Pausing the JavaScript execution",
+                jsExecutionDto.getProjectWidgetId());
+        }
+
+        hiddenJsExecutionsByProjectWidgetId.put(jsExecutionDto.getProjectWidgetId(), jsExecutionDto);
+    }
+
     /**
      * Method used to schedule the Js execution updating the associated widget.
      * Checks if the given Js execution can be executed and set the widget in a pause state
@@ -136,22 +329,25 @@ public class JsExecutionScheduler {
      * state before executing the request.
      * Create an asynchronous task which will execute the Js execution and execute the widget. Schedule
      * this task according to the computed delay.
-     * Create another asynchronous task which will wait for the result of the first task
-     * (the result of the widget execution).
-     * It waits during the whole duration set in the widget description as timeout.
+     * Chain a result task to the completion of the first task (the result of the widget execution).
+     * If the first task does not complete within the timeout set in the widget description,
+     * the shared timer completes it with a timeout.
      *
-     * @param jsExecutionDto    The Js execution
-     * @param startJsRequestNow Should the Js execution starts now or from the widget configured delay
+     * @param jsExecutionDto The Js execution
+     * @param delay          The delay before the Js execution
+     * @param unit           The unit of the delay
      */
-    public void schedule(final JsExecutionDto jsExecutionDto, final boolean startJsRequestNow) {
-        if (jsExecutionDto == null || jsExecutionExecutor == null || jsResultExecutor == null) {
+    public void schedule(final JsExecutionDto jsExecutionDto, final long delay, final TimeUnit unit) {
+        if (jsExecutionDto == null || jsTimer == null) {
             return;
         }
 
         log.debug("Scheduling the JavaScript execution of the widget instance {}", jsExecutionDto.getProjectWidgetId());
 
+        hiddenJsExecutionsByProjectWidgetId.remove(jsExecutionDto.getProjectWidgetId());
+
         if (!jsExecutionService.isJsExecutable(jsExecutionDto)) {
-            projectWidgetService.updateState(WidgetStateEnum.STOPPED, jsExecutionDto.getProjectWidgetId(), new Date());
+            jsResultWriterService.writeState(WidgetStateEnum.STOPPED, jsExecutionDto.getProjectWidgetId(), new Date());
             return;
         }
 
@@ -159,35 +355,261 @@ public class JsExecutionScheduler {
             log.debug(
                 "The widget instance {} of the JavaScript execution was stopped. "
                     + "Setting the widget instance to running", jsExecutionDto.getProjectWidgetId());
-            projectWidgetService.updateState(WidgetStateEnum.RUNNING, jsExecutionDto.getProjectWidgetId(), new Date());
+            jsResultWriterService.writeState(WidgetStateEnum.RUNNING, jsExecutionDto.getProjectWidgetId(), new Date());
         }
 
-        ProjectWidget projectWidget = projectWidgetService
-            .getOne(jsExecutionDto.getProjectWidgetId()).orElse(new ProjectWidget());
+        List<WidgetVariableResponseDto> widgetParameters =
+            jsExecutionRegistryService.getWidgetParameters(jsExecutionDto.getProjectWidgetId());
 
-        List<WidgetVariableResponseDto> widgetParameters = widgetService
-            .getWidgetParametersForJsExecution(projectWidget.getWidget());
+        long jsRequestExecutionDelay = unit.toMillis(delay);
 
-        long jsRequestExecutionDelay = startJsRequestNow ? JS_IMMEDIATE_EXECUTION_DELAY : jsExecutionDto.getDelay();
-
-        log.debug("The JavaScript execution of the widget instance {} will start in {} second(s)",
+        log.debug("The JavaScript execution of the widget instance {} will start in {} ms",
             jsExecutionDto.getProjectWidgetId(), jsRequestExecutionDelay);
 
-        ScheduledFuture<JsResultDto> scheduledJsRequestTask = jsExecutionExecutor
-            .schedule(new JsExecutionAsyncTask(jsExecutionDto, stringEncryptor, widgetParameters),
-                jsRequestExecutionDelay,
-                TimeUnit.SECONDS);
+        DispatchedTask<JsResultDto> scheduledJsRequestTask = dispatch(
+            new JsExecutionAsyncTask(jsExecutionDto, stringEncryptor, widgetParameters, jsEngineService,
+                jsExecutionMemoService),
+            jsRequestExecutionDelay);
 
         JsResultAsyncTask jsResultAsyncTask = applicationContext
             .getBean(JsResultAsyncTask.class, scheduledJsRequestTask, jsExecutionDto, this, dashboardScheduleService);
 
-        ScheduledFuture<Void> scheduledJsResponseTask = jsResultExecutor
-            .schedule(jsResultAsyncTask, jsRequestExecutionDelay, TimeUnit.SECONDS);
+        CompletableFuture<JsResultDto> jsExecutionCompletion = scheduledJsRequestTask.getCompletion();
+
+        ExecutorService timeoutExecutor = jsTimeoutExecutor;
+        JsTimer.Timeout scheduledJsTimeoutTask = jsTimer.schedule(
+            () -> timeoutExecutor.execute(() -> jsExecutionCompletion.completeExceptionally(new TimeoutException())),
+            jsRequestExecutionDelay + TimeUnit.SECONDS.toMillis(JsResultAsyncTask.getTimeout(jsExecutionDto)),
+            TimeUnit.MILLISECONDS);
+
+        // Handle the result on a new thread, so the execution thread is released as soon as the Js execution ends
+        jsExecutionCompletion.whenCompleteAsync((jsResultDto, throwable) -> {
+            scheduledJsTimeoutTask.cancel();
+            jsResultAsyncTask.accept(jsResultDto, throwable);
+        }, jsResultExecutor);
+
+        jsTasksByProjectWidgetId.put(jsExecutionDto.getProjectWidgetId(), new WeakReference<>(scheduledJsRequestTask));
+    }
+
+    /**
+     * Schedule a task after the given delay.
+     * The timer only dispatches the task to the execution executor.
+     *
+     * @param task  The task
+     * @param delay The delay in milliseconds
+     * @param <T>   The type of the task result
+     * @return The dispatched task
+     */
+    private <T> DispatchedTask<T> dispatch(Callable<T> task, long delay) {
+        DispatchedTask<T> dispatchedTask = new DispatchedTask<>(task);
+        ExecutorService taskExecutor = jsExecutionExecutor;
+
+        dispatchedTask.setDispatch(jsTimer.schedule(() -> {
+            if (!dispatchedTask.isDone()) {
+                taskExecutor.execute(dispatchedTask);
+            }
+        }, delay, TimeUnit.MILLISECONDS));
+
+        return dispatchedTask;
+    }
+
+    /**
+     * Adapt the refresh interval of a widget to the change rate of its data, in adaptive refresh mode.
+     * While the widget returns the same data, the refresh interval backs off geometrically up to the
+     * configured ceiling. When the data changes, or the Js execution fails, it snaps back to the widget delay.
+     *
+     * @param jsResultDto    The Js result
+     * @param jsExecutionDto The next Js execution of the widget
+     */
+    public void adaptRefreshInterval(final JsResultDto jsResultDto, final JsExecutionDto jsExecutionDto) {
+        ApplicationProperties.Scheduler properties = applicationProperties.getJs().getScheduler();
+
+        if (!properties.isAdaptiveRefresh() || !jsResultDto.isValid() || jsExecutionDto.getDelay() == null) {
+            adaptiveRefreshesByProjectWidgetId.remove(jsResultDto.getProjectWidgetId());
+            return;
+        }
+
+        long dataHash = Hashing.murmur3_128().hashString(jsResultDto.getData(), StandardCharsets.UTF_8).asLong();
+        long delay = jsExecutionDto.getDelay();
+
+        AdaptiveRefresh adaptiveRefresh = adaptiveRefreshesByProjectWidgetId.compute(jsResultDto.getProjectWidgetId(),
+            (projectWidgetId, previous) -> {
+                if (previous == null || previous.getDataHash() != dataHash) {
+                    return new AdaptiveRefresh(dataHash, delay);
+                }
+
+                long backoff = Math.round(Math.max(previous.getInterval(), 1) * properties.getAdaptiveRefreshBackoff());
+                return new AdaptiveRefresh(dataHash,
+                    Math.max(Math.min(backoff, properties.getAdaptiveRefreshCeiling()), delay));
+            });
+
+        log.debug("The refresh interval of the widget instance {} is {} second(s)",
+            jsResultDto.getProjectWidgetId(), adaptiveRefresh.getInterval());
+    }
+
+    /**
+     * Get the current refresh interval of a widget.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @param delay           The widget delay in seconds
+     * @return The refresh interval in seconds
+     */
+    public long getRefreshInterval(final Long projectWidgetId, final long delay) {
+        AdaptiveRefresh adaptiveRefresh = projectWidgetId != null
+            ? adaptiveRefreshesByProjectWidgetId.get(projectWidgetId) : null;
+
+        return adaptiveRefresh != null ? Math.max(adaptiveRefresh.getInterval(), delay) : delay;
+    }
+
+    /**
+     * Update the grids of a project displayed by the screens.
+     * The slowed down or paused Js executions of the grids which are displayed now start immediately.
+     *
+     * @param project          The project
+     * @param displayedGridIds The IDs of the displayed grids, or null if every grid is displayed
+     */
+    public void updateDisplayedGrids(final Project project, final Set<Long> displayedGridIds) {
+        if (displayedGridIds == null) {
+            displayedGridIdsByProjectId.remove(project.getId());
+        } else {
+            displayedGridIdsByProjectId.put(project.getId(), Set.copyOf(displayedGridIds));
+        }
+
+        resumeDisplayedJsExecutions(project.getId());
+    }
+
+    /**
+     * Pre-warm the grid following a displayed grid in the rotation of a project.
+     * Shortly before the rotation, the grid is considered as displayed and its slowed down or paused
+     * Js executions start, so the screens display fresh data when the grid rotates in.
+     *
+     * @param project         The project
+     * @param displayedGridId The ID of the displayed grid
+     */
+    public void prewarmNextGrid(final Project project, final Long displayedGridId) {
+        List<ProjectGrid> projectGrids = List.copyOf(project.getGrids());
+        prewarmedGridExpirationsByGridId.remove(displayedGridId);
+
+        int displayedGridIndex = projectGrids.stream().map(ProjectGrid::getId).toList().indexOf(displayedGridId);
+        if (jsTimer == null || projectGrids.size() < 2 || displayedGridIndex < 0) {
+            return;
+        }
+
+        ProjectGrid displayedGrid = projectGrids.get(displayedGridIndex);
+        ProjectGrid nextGrid = projectGrids.get((displayedGridIndex + 1) % projectGrids.size());
+        long prewarm = TimeUnit.SECONDS.toMillis(applicationProperties.getJs().getScheduler().getHiddenGridPrewarm());
+        long rotation = displayedGrid.getTime() != null ? TimeUnit.SECONDS.toMillis(displayedGrid.getTime()) : 0;
+
+        log.debug("The grid {} of the project {} will be pre-warmed in {} ms", nextGrid.getId(), project.getId(),
+            Math.max(rotation - prewarm, 0));
+
+        ExecutorService taskExecutor = jsExecutionExecutor;
+        JsTimer.Timeout previousPrewarm = prewarmsByGridId.put(nextGrid.getId(), jsTimer.schedule(
+            () -> taskExecutor.execute(() -> {
+                prewarmedGridExpirationsByGridId.put(nextGrid.getId(), System.currentTimeMillis() + 2 * prewarm);
+                resumeDisplayedJsExecutions(project.getId());
+            }), Math.max(rotation - prewarm, 0), TimeUnit.MILLISECONDS));
+
+        if (previousPrewarm != null) {
+            previousPrewarm.cancel();
+        }
+    }
+
+    /**
+     * Check if the grid of a Js execution is displayed by a screen, or is pre-warmed.
+     *
+     * @param jsExecutionDto The Js execution
+     * @return true if the grid is displayed, false otherwise
+     */
+    private boolean isGridDisplayed(final JsExecutionDto jsExecutionDto) {
+        if (jsExecutionDto.getProjectId() == null || jsExecutionDto.getProjectGridId() == null) {
+            return true;
+        }
+
+        Set<Long> displayedGridIds = displayedGridIdsByProjectId.get(jsExecutionDto.getProjectId());
+        if (displayedGridIds == null || displayedGridIds.contains(jsExecutionDto.getProjectGridId())) {
+            return true;
+        }
+
+        Long prewarmedGridExpiration = prewarmedGridExpirationsByGridId.get(jsExecutionDto.getProjectGridId());
+        return prewarmedGridExpiration != null && prewarmedGridExpiration > System.currentTimeMillis();
+    }
+
+    /**
+     * Start the slowed down or paused Js executions of a project whose grid is displayed.
+     *
+     * @param projectId The project ID
+     */
+    private void resumeDisplayedJsExecutions(final Long projectId) {
+        hiddenJsExecutionsByProjectWidgetId.values()
+            .stream()
+            .filter(jsExecutionDto -> projectId.equals(jsExecutionDto.getProjectId()))
+            .filter(this::isGridDisplayed)
+            .toList()
+            .forEach(jsExecutionDto -> {
+                if (hiddenJsExecutionsByProjectWidgetId.remove(jsExecutionDto.getProjectWidgetId(), jsExecutionDto)) {
+                    log.debug("The grid of the widget instance {} is displayed. Resuming the JavaScript execution",
+                        jsExecutionDto.getProjectWidgetId());
+
+                    cancelScheduledFutureTask(jsExecutionDto.getProjectWidgetId(),
+                        jsTasksByProjectWidgetId.get(jsExecutionDto.getProjectWidgetId()));
+                    schedule(jsExecutionDto, true);
+                }
+            });
+    }
+
+    /**
+     * Start to record the pinning of the virtual threads to their carrier threads.
+     * A virtual thread blocking while pinned holds its carrier thread, and reduces the number of
+     * Js executions which can run concurrently.
+     *
+     * @param properties The scheduler properties
+     */
+    private void startPinningDiagnostics(ApplicationProperties.Scheduler properties) {
+        try {
+            pinningRecordingStream = new RecordingStream();
+            pinningRecordingStream.enable(VIRTUAL_THREAD_PINNED_EVENT)
+                .withThreshold(Duration.ofMillis(properties.getPinningThreshold()))
+                .withStackTrace();
+            pinningRecordingStream.onEvent(VIRTUAL_THREAD_PINNED_EVENT, event -> {
+                pinnedVirtualThreads.incrementAndGet();
+                log.warn("A virtual thread has been pinned to its carrier thread for {} ms{}",
+                    event.getDuration().toMillis(), formatStackTrace(event.getStackTrace()));
+            });
+            pinningRecordingStream.startAsync();
+        } catch (Exception e) {
+            log.warn("Cannot start the virtual thread pinning diagnostics", e);
+            pinningRecordingStream = null;
+        }
+    }
 
-        jsTasksByProjectWidgetId.put(jsExecutionDto.getProjectWidgetId(), ImmutablePair.of(
-            new WeakReference<>(scheduledJsRequestTask),
-            new WeakReference<>(scheduledJsResponseTask)
-        ));
+    /**
+     * Stop to record the pinning of the virtual threads.
+     */
+    @PreDestroy
+    public void stopPinningDiagnostics() {
+        if (pinningRecordingStream != null) {
+            pinningRecordingStream.close();
+            pinningRecordingStream = null;
+        }
+    }
+
+    /**
+     * Format the stack trace of a recorded event.
+     *
+     * @param stackTrace The recorded stack trace
+     * @return The formatted stack trace
+     */
+    private static String formatStackTrace(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return StringUtils.EMPTY;
+        }
+
+        return stackTrace.getFrames()
+            .stream()
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber())
+            .collect(Collectors.joining("\n\tat ", "\n\tat ", StringUtils.EMPTY));
     }
 
     /**
@@ -206,6 +628,17 @@ public class JsExecutionScheduler {
      * @param project The project
      */
     public void cancelWidgetsExecutionByProject(final Project project) {
+        displayedGridIdsByProjectId.remove(project.getId());
+
+        project.getGrids().forEach(projectGrid -> {
+            prewarmedGridExpirationsByGridId.remove(projectGrid.getId());
+
+            JsTimer.Timeout prewarm = prewarmsByGridId.remove(projectGrid.getId());
+            if (prewarm != null) {
+                prewarm.cancel();
+            }
+        });
+
         project.getGrids()
             .stream()
             .map(ProjectGrid::getWidgets)
@@ -226,20 +659,25 @@ public class JsExecutionScheduler {
     }
 
     /**
-     * Cancel the widget execution by canceling both Js tasks.
+     * Cancel the widget execution by canceling the Js task.
+     * The timeout of the Js task is canceled by its completion.
      *
      * @param projectWidgetId the widget instance ID
      */
     public void cancelWidgetExecution(Long projectWidgetId) {
-        Pair<WeakReference<ScheduledFuture<JsResultDto>>, WeakReference<ScheduledFuture<Void>>> pairOfJsFutureTasks =
-            jsTasksByProjectWidgetId.get(projectWidgetId);
+        hiddenJsExecutionsByProjectWidgetId.remove(projectWidgetId);
+        adaptiveRefreshesByProjectWidgetId.remove(projectWidgetId);
+        jsCircuitBreakerService.forgetWidget(projectWidgetId);
+        jsExecutionMemoService.forget(projectWidgetId);
+        jsExecutionRegistryService.evict(projectWidgetId);
+
+        WeakReference<Future<JsResultDto>> jsFutureTask = jsTasksByProjectWidgetId.get(projectWidgetId);
 
-        if (pairOfJsFutureTasks != null) {
-            cancelScheduledFutureTask(projectWidgetId, pairOfJsFutureTasks.getLeft());
-            cancelScheduledFutureTask(projectWidgetId, pairOfJsFutureTasks.getRight());
+        if (jsFutureTask != null) {
+            cancelScheduledFutureTask(projectWidgetId, jsFutureTask);
         }
 
-        projectWidgetService.updateState(WidgetStateEnum.STOPPED, projectWidgetId);
+        jsResultWriterService.writeState(WidgetStateEnum.STOPPED, projectWidgetId, null);
     }
 
     /**
@@ -249,9 +687,9 @@ public class JsExecutionScheduler {
      * @param scheduledFutureTaskReference The reference containing the future task
      */
     public void cancelScheduledFutureTask(Long projectWidgetId,
-                                          WeakReference<? extends ScheduledFuture<?>> scheduledFutureTaskReference) {
+                                          WeakReference<? extends Future<?>> scheduledFutureTaskReference) {
         if (scheduledFutureTaskReference != null) {
-            ScheduledFuture<?> scheduledFutureTask = scheduledFutureTaskReference.get();
+            Future<?> scheduledFutureTask = scheduledFutureTaskReference.get();
 
             if (scheduledFutureTask != null && (!scheduledFutureTask.isDone() || !scheduledFutureTask.isCancelled())) {
                 log.debug("Canceling the future JavaScript execution task for the widget instance {}", projectWidgetId);
@@ -260,4 +698,85 @@ public class JsExecutionScheduler {
             }
         }
     }
+
+    /**
+     * Refresh interval of a widget adapted to the change rate of its data.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class AdaptiveRefresh {
+        private final long dataHash;
+        private final long interval;
+    }
+
+    /**
+     * Task dispatched by the timer to the execution executor.
+     * Canceling the task also cancels its dispatch.
+     * The completion of the task is published to a completable future, so the next stages are triggered
+     * by the task instead of waiting for it.
+     *
+     * @param <T> The type of the task result
+     */
+    private static class DispatchedTask<T> extends FutureTask<T> {
+        @Getter
+        private final CompletableFuture<T> completion = new CompletableFuture<>();
+
+        @Setter
+        private volatile JsTimer.Timeout dispatch;
+
+        private final Callable<T> callable;
+
+        /**
+         * Constructor.
+         *
+         * @param callable The task
+         */
+        DispatchedTask(Callable<T> callable) {
+            super(callable);
+            this.callable = callable;
+        }
+
+        /**
+         * Cancel the task and its dispatch.
+         * Also abort the calls of a running Js execution, which are not interrupted with its thread.
+         *
+         * @param mayInterruptIfRunning true if the thread executing the task should be interrupted
+         * @return false if the task could not be cancelled, true otherwise
+         */
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            JsTimer.Timeout scheduledDispatch = dispatch;
+            if (scheduledDispatch != null) {
+                scheduledDispatch.cancel();
+            }
+
+            boolean canceled = super.cancel(mayInterruptIfRunning);
+
+            if (canceled && mayInterruptIfRunning && callable instanceof JsExecutionAsyncTask jsExecutionAsyncTask) {
+                jsExecutionAsyncTask.cancelCalls();
+            }
+
+            return canceled;
+        }
+
+        /**
+         * Publish the completion of the task.
+         */
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                completion.cancel(false);
+                return;
+            }
+
+            try {
+                completion.complete(get());
+            } catch (ExecutionException executionException) {
+                completion.completeExceptionally(executionException.getCause());
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                completion.completeExceptionally(interruptedException);
+            }
+        }
+    }
 }
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.scheduler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Js timer.
+ * Fire the tasks of the Js scheduler after their delay.
+ * The tasks are run by the thread of the timer, so they must only dispatch the work to an executor.
+ */
+public interface JsTimer {
+    /**
+     * Schedule a task after the given delay.
+     *
+     * @param task  The task
+     * @param delay The delay
+     * @param unit  The unit of the delay
+     * @return The handle of the scheduled task
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit);
+
+    /**
+     * Count the scheduled tasks which are not expired nor canceled yet.
+     *
+     * @return The number of pending tasks
+     */
+    long countPendingTasks();
+
+    /**
+     * Stop the timer. The pending tasks are not run.
+     */
+    void stop();
+
+    /**
+     * Handle of a scheduled task.
+     */
+    interface Timeout {
+        /**
+         * Cancel the task if it is not expired yet.
+         *
+         * @return true if the task has been canceled, false otherwise
+         */
+        boolean cancel();
+
+        /**
+         * Check if the task has been canceled.
+         *
+         * @return true if the task has been canceled, false otherwise
+         */
+        boolean isCancelled();
+
+        /**
+         * Check if the task has expired and has been run.
+         *
+         * @return true if the task has expired, false otherwise
+         */
+        boolean isExpired();
+    }
+}
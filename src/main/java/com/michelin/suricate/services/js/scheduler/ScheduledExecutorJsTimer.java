@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.scheduler;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Js timer backed by a scheduled thread pool executor.
+ * The tasks are stored in the delay queue of the executor, with O(log n) schedule and cancel.
+ */
+public class ScheduledExecutorJsTimer implements JsTimer {
+    private final ScheduledThreadPoolExecutor executor;
+
+    /**
+     * Constructor.
+     */
+    public ScheduledExecutorJsTimer() {
+        executor = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(1);
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Schedule a task after the given delay.
+     *
+     * @param task  The task
+     * @param delay The delay
+     * @param unit  The unit of the delay
+     * @return The handle of the scheduled task
+     */
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        ScheduledTimeout timeout = new ScheduledTimeout(task);
+        timeout.scheduledFuture = executor.schedule(timeout::expire, delay, unit);
+        return timeout;
+    }
+
+    /**
+     * Count the scheduled tasks which are not expired nor canceled yet.
+     *
+     * @return The number of pending tasks
+     */
+    @Override
+    public long countPendingTasks() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Stop the timer. The pending tasks are not run.
+     */
+    @Override
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Handle of a task scheduled in the executor.
+     */
+    private static class ScheduledTimeout implements Timeout {
+        private final Runnable task;
+        private final AtomicBoolean expired = new AtomicBoolean();
+        private volatile ScheduledFuture<?> scheduledFuture;
+
+        /**
+         * Constructor.
+         *
+         * @param task The task
+         */
+        ScheduledTimeout(Runnable task) {
+            this.task = task;
+        }
+
+        /**
+         * Run the task.
+         */
+        void expire() {
+            expired.set(true);
+            task.run();
+        }
+
+        /**
+         * Cancel the task if it is not expired yet.
+         *
+         * @return true if the task has been canceled, false otherwise
+         */
+        @Override
+        public boolean cancel() {
+            return !expired.get() && scheduledFuture.cancel(false);
+        }
+
+        /**
+         * Check if the task has been canceled.
+         *
+         * @return true if the task has been canceled, false otherwise
+         */
+        @Override
+        public boolean isCancelled() {
+            return scheduledFuture.isCancelled();
+        }
+
+        /**
+         * Check if the task has expired and has been run.
+         *
+         * @return true if the task has expired, false otherwise
+         */
+        @Override
+        public boolean isExpired() {
+            return expired.get();
+        }
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.scheduler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Js timer backed by a hashed timing wheel.
+ * The wheel is an array of buckets, each one holding the tasks expiring at the same tick.
+ * Scheduling and canceling a task are O(1), whatever the number of pending tasks.
+ * The tasks with a delay longer than a full turn of the wheel stay in their bucket for several rounds.
+ * The tasks are run on expiration of their tick, so they can be late by up to one tick duration.
+ */
+@Slf4j
+public class TimingWheelJsTimer implements JsTimer {
+    private static final int MAX_TRANSFERS_PER_TICK = 100000;
+
+    private final long tickDuration;
+
+    private final Bucket[] wheel;
+
+    private final int mask;
+
+    private final Queue<WheelTimeout> scheduledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final Queue<WheelTimeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong pendingTasks = new AtomicLong();
+
+    private final long startTime;
+
+    private final Thread worker;
+
+    private volatile boolean stopped;
+
+    private long tick;
+
+    /**
+     * Constructor.
+     *
+     * @param tickDuration The duration of a tick of the wheel
+     * @param unit         The unit of the tick duration
+     * @param wheelSize    The number of buckets of the wheel, rounded up to the next power of 2
+     */
+    public TimingWheelJsTimer(long tickDuration, TimeUnit unit, int wheelSize) {
+        if (tickDuration <= 0) {
+            throw new IllegalArgumentException("The tick duration must be positive");
+        }
+
+        if (wheelSize <= 0 || wheelSize > 1 << 30) {
+            throw new IllegalArgumentException("The wheel size must be between 1 and 2^30");
+        }
+
+        int normalizedWheelSize = 1;
+        while (normalizedWheelSize < wheelSize) {
+            normalizedWheelSize <<= 1;
+        }
+
+        this.tickDuration = unit.toNanos(tickDuration);
+        this.wheel = new Bucket[normalizedWheelSize];
+        this.mask = normalizedWheelSize - 1;
+
+        for (int i = 0; i < wheel.length; i++) {
+            wheel[i] = new Bucket();
+        }
+
+        startTime = System.nanoTime();
+        worker = Thread.ofPlatform()
+            .name("js-timing-wheel")
+            .daemon(true)
+            .start(this::run);
+    }
+
+    /**
+     * Schedule a task after the given delay.
+     * The task is added to the wheel by the worker at its next tick.
+     *
+     * @param task  The task
+     * @param delay The delay
+     * @param unit  The unit of the delay
+     * @return The handle of the scheduled task
+     */
+    @Override
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        if (stopped) {
+            throw new IllegalStateException("The timing wheel is stopped");
+        }
+
+        WheelTimeout timeout = new WheelTimeout(this, task, System.nanoTime() - startTime + unit.toNanos(delay));
+        pendingTasks.incrementAndGet();
+        scheduledTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Count the scheduled tasks which are not expired nor canceled yet.
+     *
+     * @return The number of pending tasks
+     */
+    @Override
+    public long countPendingTasks() {
+        return pendingTasks.get();
+    }
+
+    /**
+     * Stop the timer. The pending tasks are not run.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+        worker.interrupt();
+
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(tickDuration) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Turn the wheel, one bucket per tick, until the timer is stopped.
+     */
+    private void run() {
+        while (!stopped) {
+            long deadline = waitForNextTick();
+
+            if (deadline > 0) {
+                removeCancelledTimeouts();
+                transferScheduledTimeouts();
+                wheel[(int) (tick & mask)].expireTimeouts(deadline);
+                tick++;
+            }
+        }
+    }
+
+    /**
+     * Wait for the start of the next tick.
+     *
+     * @return The time elapsed since the start of the timer, or -1 if the timer is stopped
+     */
+    private long waitForNextTick() {
+        long deadline = tickDuration * (tick + 1);
+
+        while (true) {
+            long currentTime = System.nanoTime() - startTime;
+            long sleepTime = TimeUnit.NANOSECONDS.toMillis(deadline - currentTime + 999999);
+
+            if (sleepTime <= 0) {
+                return currentTime;
+            }
+
+            try {
+                Thread.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                if (stopped) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove the canceled tasks from their bucket.
+     */
+    private void removeCancelledTimeouts() {
+        WheelTimeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    /**
+     * Add the newly scheduled tasks to the bucket of their tick.
+     */
+    private void transferScheduledTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            WheelTimeout timeout = scheduledTimeouts.poll();
+
+            if (timeout == null) {
+                break;
+            }
+
+            if (timeout.state.get() == WheelTimeout.STATE_CANCELLED) {
+                continue;
+            }
+
+            long expirationTick = timeout.deadline / tickDuration;
+            timeout.remainingRounds = (expirationTick - tick) / wheel.length;
+
+            // Already expired tasks go to the current bucket
+            wheel[(int) (Math.max(expirationTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * Bucket of the wheel: a doubly linked list of the tasks expiring at the same tick.
+     * Only accessed by the worker of the wheel.
+     */
+    private static class Bucket {
+        private WheelTimeout head;
+        private WheelTimeout tail;
+
+        /**
+         * Add a task to the bucket.
+         *
+         * @param timeout The task
+         */
+        void add(WheelTimeout timeout) {
+            timeout.bucket = this;
+
+            if (head == null) {
+                head = timeout;
+                tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        /**
+         * Run the tasks of the current round and decrement the rounds of the other ones.
+         *
+         * @param deadline The time elapsed since the start of the timer
+         */
+        void expireTimeouts(long deadline) {
+            WheelTimeout timeout = head;
+
+            while (timeout != null) {
+                WheelTimeout next = timeout.next;
+
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+
+                    if (timeout.deadline <= deadline) {
+                        timeout.expire();
+                    } else {
+                        log.warn("A task has been placed in the wrong bucket of the timing wheel");
+                    }
+                } else if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+
+                timeout = next;
+            }
+        }
+
+        /**
+         * Remove a task from the bucket.
+         *
+         * @param timeout The task
+         */
+        void remove(WheelTimeout timeout) {
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+
+            if (timeout == head) {
+                head = timeout.next;
+            }
+
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+
+    /**
+     * Handle of a task scheduled in the wheel.
+     */
+    private static class WheelTimeout implements Timeout {
+        private static final int STATE_INIT = 0;
+        private static final int STATE_CANCELLED = 1;
+        private static final int STATE_EXPIRED = 2;
+
+        private final TimingWheelJsTimer timer;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+
+        private long remainingRounds;
+        private Bucket bucket;
+        private WheelTimeout prev;
+        private WheelTimeout next;
+
+        /**
+         * Constructor.
+         *
+         * @param timer    The timer
+         * @param task     The task
+         * @param deadline The expiration time, relative to the start of the timer
+         */
+        WheelTimeout(TimingWheelJsTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task if it is not expired yet.
+         * The task is removed from its bucket by the worker at its next tick.
+         *
+         * @return true if the task has been canceled, false otherwise
+         */
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(STATE_INIT, STATE_CANCELLED)) {
+                return false;
+            }
+
+            timer.pendingTasks.decrementAndGet();
+            timer.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        /**
+         * Check if the task has been canceled.
+         *
+         * @return true if the task has been canceled, false otherwise
+         */
+        @Override
+        public boolean isCancelled() {
+            return state.get() == STATE_CANCELLED;
+        }
+
+        /**
+         * Check if the task has expired and has been run.
+         *
+         * @return true if the task has expired, false otherwise
+         */
+        @Override
+        public boolean isExpired() {
+            return state.get() == STATE_EXPIRED;
+        }
+
+        /**
+         * Run the task.
+         */
+        void expire() {
+            if (!state.compareAndSet(STATE_INIT, STATE_EXPIRED)) {
+                return;
+            }
+
+            timer.pendingTasks.decrementAndGet();
+
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.warn("An error has occurred while running a task of the timing wheel", e);
+            }
+        }
+    }
+}
@@ -16,22 +16,56 @@
 
 package com.michelin.suricate.services.js.script;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.services.JsCircuitBreakerService;
+import com.michelin.suricate.services.js.services.JsHttpClientService;
+import com.michelin.suricate.services.js.services.JsHttpLimiterService;
+import com.michelin.suricate.services.js.services.JsResponseCacheService;
+import com.michelin.suricate.utils.SpringContextUtils;
 import com.michelin.suricate.utils.exceptions.js.FatalException;
 import com.michelin.suricate.utils.exceptions.js.RemoteException;
 import com.michelin.suricate.utils.exceptions.js.RequestException;
 import com.michelin.suricate.utils.http.OkHttpClientUtils;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import okhttp3.Call;
 import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
 /**
@@ -39,8 +73,19 @@ import org.springframework.http.HttpStatus;
  */
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public final class JsEndpoints {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * Executor of the requests of the batches. The requests block their thread until their response is read,
+     * so each one runs on its own virtual thread. The concurrency is bounded per batch.
+     */
+    private static final ExecutorService BATCH_EXECUTOR =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("js-batch-", 0).factory());
+
     /**
      * Create and submit an HTTP request according to the given parameters.
+     * The GET requests of a memoized widget execution are recorded, and take the value returned by their
+     * revalidation if any.
      *
      * @param url            The URL of the endpoint to call
      * @param headerName     The name of the header to add
@@ -55,6 +100,50 @@ public final class JsEndpoints {
     private static String executeRequest(String url, String headerName, String headerValue, String headerToReturn,
                                          String body, boolean returnCode)
         throws IOException, RemoteException, RequestException {
+        JsEndpointsContext context = JsEndpointsContext.get();
+
+        if (context == null || !context.isMemoization()) {
+            return sendRequest(url, headerName, headerValue, headerToReturn, body, returnCode);
+        }
+
+        if (body != null) {
+            context.recordUnreplayableCall();
+            return sendRequest(url, headerName, headerValue, headerToReturn, body, returnCode);
+        }
+
+        JsEndpointsContext.FetchRequest fetchRequest =
+            new JsEndpointsContext.FetchRequest(url, headerName, headerValue, headerToReturn, returnCode, null);
+        String value = context.takeRevalidatedValue(fetchRequest);
+
+        if (value == null) {
+            try {
+                value = sendRequest(url, headerName, headerValue, headerToReturn, null, returnCode);
+            } catch (Exception e) {
+                context.recordUnreplayableCall();
+                throw e;
+            }
+        }
+
+        context.recordFetch(fetchRequest, value);
+        return value;
+    }
+
+    /**
+     * Send an HTTP request according to the given parameters.
+     *
+     * @param url            The URL of the endpoint to call
+     * @param headerName     The name of the header to add
+     * @param headerValue    The value to set to the added header
+     * @param headerToReturn The name of the header to return
+     * @param body           The body of the request. Can be null in case of GET HTTP request
+     * @return The response body of the request or the value of the requested header
+     * @throws IOException      If an error occurred during the execution of the request
+     * @throws RemoteException  If an error occurred during the execution of the request
+     * @throws RequestException If an error occurred during the execution of the request
+     */
+    private static String sendRequest(String url, String headerName, String headerValue, String headerToReturn,
+                                      String body, boolean returnCode)
+        throws IOException, RemoteException, RequestException {
         Request.Builder builder = new Request.Builder().url(url);
 
         if (StringUtils.isNotBlank(headerName)) {
@@ -67,9 +156,22 @@ public final class JsEndpoints {
         }
 
         Request request = builder.build();
+        JsResponseCacheService responseCache = getResponseCache(request);
+
+        if (responseCache != null) {
+            String key =
+                JsResponseCacheService.getKey(request.method(), request.url().toString(), headerName, headerValue);
+            JsResponseCacheService.CachedResponse response = responseCache.getResponse(key,
+                inFlightRequest -> load(request, key, responseCache, inFlightRequest));
+            return getReturnedValue(request, response, headerToReturn, returnCode);
+        }
+
         String returnedValue;
 
-        try (Response response = OkHttpClientUtils.getUnsafeOkHttpClient().newCall(request).execute()) {
+        try (JsCircuitBreakerService.Attempt attempt = attemptCall(request);
+             JsHttpLimiterService.Permit permit = acquirePermit(request);
+             Response response = execute(newCall(request, true), attempt)) {
+
             if (returnCode) {
                 return String.valueOf(response.code());
             }
@@ -77,7 +179,7 @@ public final class JsEndpoints {
                 if (StringUtils.isNotBlank(headerToReturn)) {
                     returnedValue = response.header(headerToReturn);
                 } else {
-                    returnedValue = Objects.requireNonNull(response.body()).string();
+                    returnedValue = readBody(response);
                 }
             } else {
                 if (response.code() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
@@ -88,7 +190,7 @@ public final class JsEndpoints {
                     throw new RequestException("A request error occurred during the execution of the request /"
                         + response.request().method() + " " + response.request().url() + " (code " + response.code()
                         + "). Error body details: "
-                        + (response.body() != null ? Objects.requireNonNull(response.body()).string() : "Empty body"));
+                        + (response.body() != null ? readBody(response) : "Empty body"));
                 }
             }
         }
@@ -96,6 +198,281 @@ public final class JsEndpoints {
         return returnedValue;
     }
 
+    /**
+     * Get the response cache to use for the given request.
+     * Only the GET requests are shared between the widgets.
+     *
+     * @param request The request
+     * @return The response cache, or null if the response of the request must not be shared
+     */
+    private static JsResponseCacheService getResponseCache(Request request) {
+        ApplicationContext applicationContext = SpringContextUtils.getApplicationContext();
+
+        if (applicationContext == null || !HttpMethod.GET.matches(request.method())) {
+            return null;
+        }
+
+        JsResponseCacheService responseCache = applicationContext.getBean(JsResponseCacheService.class);
+        return responseCache.isShared() ? responseCache : null;
+    }
+
+    /**
+     * Prepare the call of the given request.
+     * The call is bounded by the deadline of the widget execution running on the current thread,
+     * and aborted when this execution is canceled, unless other widget executions wait for its response.
+     * The call of a coalesced GET request is aborted by the request in flight, once the executions of all
+     * the widgets waiting for its response have been canceled.
+     *
+     * @param request    The request
+     * @param cancelable true if the call is aborted when the widget execution is canceled,
+     *                   false if it is aborted by the request in flight
+     * @return The call
+     * @throws RemoteException If the deadline of the widget execution is exceeded
+     */
+    private static Call newCall(Request request, boolean cancelable) throws RemoteException {
+        Call call = getHttpClient().newCall(request);
+        JsEndpointsContext context = JsEndpointsContext.get();
+
+        if (context == null) {
+            return call;
+        }
+
+        if (context.getDeadline() > 0) {
+            long remainingTime = context.getDeadline() - System.currentTimeMillis();
+
+            if (remainingTime <= 0) {
+                throw new RemoteException("The request /" + request.method() + " " + request.url()
+                    + " has not been sent, the timeout of the widget execution is exceeded.");
+            }
+
+            call.timeout().timeout(remainingTime, TimeUnit.MILLISECONDS);
+        }
+
+        if (cancelable) {
+            context.addCall(call);
+        }
+
+        return call;
+    }
+
+    /**
+     * Prepare the call of the given request, watched by the request in flight if it is coalesced.
+     *
+     * @param request         The request
+     * @param inFlightRequest The request in flight, null if the request is not coalesced
+     * @return The call
+     * @throws RemoteException If the deadline of the widget execution is exceeded
+     */
+    private static Call newSharedCall(Request request, JsResponseCacheService.InFlightRequest inFlightRequest)
+        throws RemoteException {
+        if (inFlightRequest == null) {
+            return newCall(request, true);
+        }
+
+        Call call = newCall(request, false);
+        inFlightRequest.watch(call);
+        return call;
+    }
+
+    /**
+     * Acquire a permit to send the given request to its host.
+     *
+     * @param request The request
+     * @return The permit, to close when the response has been read
+     * @throws RemoteException If the request exceeds the limits of its host
+     */
+    private static JsHttpLimiterService.Permit acquirePermit(Request request) throws RemoteException {
+        ApplicationContext applicationContext = SpringContextUtils.getApplicationContext();
+
+        if (applicationContext == null) {
+            return () -> { };
+        }
+
+        return applicationContext.getBean(JsHttpLimiterService.class).acquire(request.url().host());
+    }
+
+    /**
+     * Attempt to send the given request through the circuit breaker of its host.
+     *
+     * @param request The request
+     * @return The attempt, released without being recorded if closed before the call is executed
+     * @throws RemoteException If the circuit of the host is open
+     */
+    private static JsCircuitBreakerService.Attempt attemptCall(Request request) throws RemoteException {
+        ApplicationContext applicationContext = SpringContextUtils.getApplicationContext();
+
+        if (applicationContext == null) {
+            return JsCircuitBreakerService.Attempt.NONE;
+        }
+
+        return applicationContext.getBean(JsCircuitBreakerService.class).attempt(request.url().host());
+    }
+
+    /**
+     * Execute a call and record the attempt from its outcome.
+     * The server errors and the I/O failures are failures, any other response shows that the host is available.
+     * The canceled calls, including the calls timed out by the deadline of the widget execution, are not
+     * recorded, as they do not show that the host is unavailable.
+     *
+     * @param call    The call
+     * @param attempt The attempt
+     * @return The response
+     * @throws IOException     If an error occurred during the execution of the call
+     * @throws RemoteException If the call has been aborted by the deadline of the widget execution
+     */
+    private static Response execute(Call call, JsCircuitBreakerService.Attempt attempt)
+        throws IOException, RemoteException {
+        Response response;
+
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            if (!call.isCanceled()) {
+                attempt.failed();
+            }
+
+            JsEndpointsContext context = JsEndpointsContext.get();
+            if (e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException) && context != null
+                && context.getDeadline() > 0 && !context.isCanceled()) {
+                throw new RemoteException("The request /" + call.request().method() + " " + call.request().url()
+                    + " has been aborted, the timeout of the widget execution is exceeded.");
+            }
+
+            throw e;
+        }
+
+        if (response.code() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+            attempt.failed();
+        } else {
+            attempt.succeeded();
+        }
+
+        return response;
+    }
+
+    /**
+     * Send the given request and read its whole response, so it can be shared between the widgets.
+     * If the last response of the request has validators, the request is sent as a conditional request
+     * and the last response is returned when the remote system answers it is not modified.
+     *
+     * @param request         The request
+     * @param key             The key of the request
+     * @param responseCache   The response cache
+     * @param inFlightRequest The request in flight, null if the request is not coalesced
+     * @return The response
+     * @throws IOException     If an error occurred during the execution of the request
+     * @throws RemoteException If the request exceeds the limits of its host
+     */
+    private static JsResponseCacheService.CachedResponse load(Request request, String key,
+                                                              JsResponseCacheService responseCache,
+                                                              JsResponseCacheService.InFlightRequest inFlightRequest)
+        throws IOException, RemoteException {
+        JsResponseCacheService.CachedResponse validatedResponse = null;
+        Request sentRequest = request;
+
+        if (responseCache.isRevalidation() && request.header(HttpHeaders.IF_NONE_MATCH) == null
+            && request.header(HttpHeaders.IF_MODIFIED_SINCE) == null) {
+            validatedResponse = responseCache.getValidatedResponse(key);
+
+            if (validatedResponse != null) {
+                Request.Builder builder = request.newBuilder();
+                String etag = validatedResponse.getHeaders().get(HttpHeaders.ETAG);
+                String lastModified = validatedResponse.getHeaders().get(HttpHeaders.LAST_MODIFIED);
+
+                if (etag != null) {
+                    builder.header(HttpHeaders.IF_NONE_MATCH, etag);
+                }
+                if (lastModified != null) {
+                    builder.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                }
+
+                sentRequest = builder.build();
+            }
+        }
+
+        try (JsCircuitBreakerService.Attempt attempt = attemptCall(sentRequest);
+             JsHttpLimiterService.Permit permit = acquirePermit(sentRequest);
+             Response response = execute(newSharedCall(sentRequest, inFlightRequest), attempt)) {
+
+            if (validatedResponse != null && response.code() == HttpStatus.NOT_MODIFIED.value()) {
+                responseCache.countRevalidated();
+                return validatedResponse;
+            }
+
+            JsResponseCacheService.CachedResponse loadedResponse =
+                new JsResponseCacheService.CachedResponse(response.code(), response.headers(), readBody(response));
+
+            if (responseCache.isRevalidation()) {
+                responseCache.putValidatedResponse(key, loadedResponse);
+            }
+
+            return loadedResponse;
+        }
+    }
+
+    /**
+     * Read the body of the given response, up to the maximum response size.
+     *
+     * @param response The response
+     * @return The body, null if the response has no body
+     * @throws IOException     If an error occurred during the reading of the body
+     * @throws RemoteException If the body exceeds the maximum response size
+     */
+    private static String readBody(Response response) throws IOException, RemoteException {
+        ResponseBody body = response.body();
+
+        if (body == null) {
+            return null;
+        }
+
+        long maxResponseSize = getHttpProperties().getMaxResponseSize();
+
+        // Buffering one more byte than the maximum size is enough to reject the body without reading it all
+        if (maxResponseSize > 0
+            && (body.contentLength() > maxResponseSize || body.source().request(maxResponseSize + 1))) {
+            throw new RemoteException("The response of the request /" + response.request().method() + " "
+                + response.request().url() + " exceeds the maximum size of " + maxResponseSize + " bytes.");
+        }
+
+        return body.string();
+    }
+
+    /**
+     * Get the value to return to the widget from a shared response.
+     *
+     * @param request        The request
+     * @param response       The shared response
+     * @param headerToReturn The name of the header to return
+     * @param returnCode     true to return the http status code
+     * @return The http status code, the requested header or the response body
+     * @throws RemoteException  If the response is a server error
+     * @throws RequestException If the response is a request error
+     */
+    private static String getReturnedValue(Request request, JsResponseCacheService.CachedResponse response,
+                                           String headerToReturn, boolean returnCode)
+        throws RemoteException, RequestException {
+        if (returnCode) {
+            return String.valueOf(response.getCode());
+        }
+
+        if (!response.isSuccessful()) {
+            if (response.getCode() >= HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                throw new RemoteException("A server error occurred during the execution of the request /"
+                    + request.method() + " " + request.url() + " (code " + response.getCode() + ").");
+            }
+
+            throw new RequestException("A request error occurred during the execution of the request /"
+                + request.method() + " " + request.url() + " (code " + response.getCode()
+                + "). Error body details: " + (response.getBody() != null ? response.getBody() : "Empty body"));
+        }
+
+        if (StringUtils.isNotBlank(headerToReturn)) {
+            return response.getHeaders().get(headerToReturn);
+        }
+
+        return response.getBody();
+    }
+
     /**
      * Perform a GET HTTP call.
      *
@@ -215,9 +592,292 @@ public final class JsEndpoints {
             returnCode);
     }
 
+    /**
+     * Perform a GET HTTP call and extract the given JSON pointers from its response.
+     * The response is streamed, only the selected values are read in memory.
+     *
+     * @param url      The URL of the endpoint to call
+     * @param pointers The JSON pointers to extract, such as "/data/0/name"
+     * @return A JSON object holding the value selected by each JSON pointer found in the response
+     */
+    public static String extract(String url, List<Object> pointers)
+        throws IOException, RemoteException, RequestException, FatalException {
+        return extract(url, null, null, pointers);
+    }
+
+    /**
+     * Perform a GET HTTP call with a header and extract the given JSON pointers from its response.
+     * The response is streamed, only the selected values are read in memory.
+     *
+     * @param url         The URL of the endpoint to call
+     * @param headerName  The name of the header to add
+     * @param headerValue The value to set to the added header
+     * @param pointers    The JSON pointers to extract, such as "/data/0/name"
+     * @return A JSON object holding the value selected by each JSON pointer found in the response
+     */
+    public static String extract(String url, String headerName, String headerValue, List<Object> pointers)
+        throws IOException, RemoteException, RequestException, FatalException {
+        JsEndpointsContext context = JsEndpointsContext.get();
+
+        if (context == null || !context.isMemoization()) {
+            return sendExtractRequest(url, headerName, headerValue, pointers);
+        }
+
+        JsEndpointsContext.FetchRequest fetchRequest = new JsEndpointsContext.FetchRequest(url, headerName,
+            headerValue, null, false, pointers != null
+            ? pointers.stream().map(pointer -> Objects.toString(pointer, StringUtils.EMPTY)).toList() : List.of());
+        String value = context.takeRevalidatedValue(fetchRequest);
+
+        if (value == null) {
+            try {
+                value = sendExtractRequest(url, headerName, headerValue, fetchRequest.getPointers());
+            } catch (Exception e) {
+                context.recordUnreplayableCall();
+                throw e;
+            }
+        }
+
+        context.recordFetch(fetchRequest, value);
+        return value;
+    }
+
+    /**
+     * Send a GET HTTP request and extract the given JSON pointers from its streamed response.
+     *
+     * @param url         The URL of the endpoint to call
+     * @param headerName  The name of the header to add
+     * @param headerValue The value to set to the added header
+     * @param pointers    The JSON pointers to extract
+     * @return A JSON object holding the value selected by each JSON pointer found in the response
+     * @throws IOException      If an error occurred during the execution of the request
+     * @throws RemoteException  If an error occurred during the execution of the request
+     * @throws RequestException If an error occurred during the execution of the request
+     * @throws FatalException   If a JSON pointer is invalid
+     */
+    private static String sendExtractRequest(String url, String headerName, String headerValue, List<?> pointers)
+        throws IOException, RemoteException, RequestException, FatalException {
+        Set<JsonPointer> remainingPointers = new LinkedHashSet<>();
+
+        if (pointers != null) {
+            for (Object pointer : pointers) {
+                try {
+                    remainingPointers.add(JsonPointer.compile(Objects.toString(pointer, StringUtils.EMPTY)));
+                } catch (IllegalArgumentException e) {
+                    throw new FatalException("The JSON pointer " + pointer + " is invalid: " + e.getMessage());
+                }
+            }
+        }
+
+        Request.Builder builder = new Request.Builder().url(url);
+
+        if (StringUtils.isNotBlank(headerName)) {
+            builder.addHeader(headerName, headerValue);
+        }
+
+        Request request = builder.build();
+        ObjectNode selections = OBJECT_MAPPER.createObjectNode();
+
+        try (JsCircuitBreakerService.Attempt attempt = attemptCall(request);
+             JsHttpLimiterService.Permit permit = acquirePermit(request);
+             Response response = execute(newCall(request, true), attempt)) {
+
+            if (!response.isSuccessful()) {
+                // Throw the same errors as the other endpoints
+                getReturnedValue(request, new JsResponseCacheService.CachedResponse(response.code(),
+                    response.headers(), readBody(response)), null, false);
+            }
+
+            if (response.body() == null || remainingPointers.isEmpty()) {
+                return selections.toString();
+            }
+
+            try (JsonParser parser = OBJECT_MAPPER.createParser(Objects.requireNonNull(response.body()).byteStream())) {
+                JsonToken token = parser.nextToken();
+
+                while (token != null && !remainingPointers.isEmpty()) {
+                    if (token.isScalarValue() || token.isStructStart()) {
+                        selectValue(parser, token, remainingPointers, selections);
+                    }
+
+                    token = parser.nextToken();
+                }
+            }
+        }
+
+        return selections.toString();
+    }
+
+    /**
+     * Send again a recorded GET call of a widget.
+     *
+     * @param request The recorded request
+     * @return The value returned to the widget
+     * @throws IOException      If an error occurred during the execution of the request
+     * @throws RemoteException  If an error occurred during the execution of the request
+     * @throws RequestException If an error occurred during the execution of the request
+     * @throws FatalException   If a JSON pointer is invalid
+     */
+    static String fetch(JsEndpointsContext.FetchRequest request)
+        throws IOException, RemoteException, RequestException, FatalException {
+        if (request.getPointers() != null) {
+            return sendExtractRequest(request.getUrl(), request.getHeaderName(), request.getHeaderValue(),
+                request.getPointers());
+        }
+
+        return sendRequest(request.getUrl(), request.getHeaderName(), request.getHeaderValue(),
+            request.getHeaderToReturn(), null, request.isReturnCode());
+    }
+
+    /**
+     * Select the value at the current position of the parser if it is targeted by a JSON pointer.
+     * The values which neither are targeted nor contain a targeted value are skipped without being read.
+     *
+     * @param parser            The parser, positioned on the first token of a value
+     * @param token             The first token of the value
+     * @param remainingPointers The JSON pointers not found yet
+     * @param selections        The selected values by JSON pointer
+     * @throws IOException If an error occurred during the reading of the response
+     */
+    private static void selectValue(JsonParser parser, JsonToken token, Set<JsonPointer> remainingPointers,
+                                    ObjectNode selections) throws IOException {
+        JsonPointer pointer = parser.getParsingContext().pathAsPointer();
+        String path = pointer.toString();
+
+        if (remainingPointers.remove(pointer)) {
+            JsonNode value = OBJECT_MAPPER.readTree(parser);
+            selections.set(path, value);
+
+            // The value is read entirely, select the nested pointers from it
+            remainingPointers.removeIf(nestedPointer -> {
+                if (!nestedPointer.toString().startsWith(path + "/")) {
+                    return false;
+                }
+
+                JsonNode nestedValue = value.at(nestedPointer.toString().substring(path.length()));
+                if (!nestedValue.isMissingNode()) {
+                    selections.set(nestedPointer.toString(), nestedValue);
+                }
+                return true;
+            });
+        } else if (token.isStructStart()
+            && remainingPointers.stream().noneMatch(remainingPointer ->
+                remainingPointer.toString().startsWith(path + "/"))) {
+            parser.skipChildren();
+        }
+    }
+
+    /**
+     * Perform several HTTP calls concurrently.
+     * Each request is either the URL of a GET HTTP call, or an object with the "url" and optionally the "headerName",
+     * "headerValue", "headerToReturn", "body" (POST HTTP call) and "returnCode" fields, as the other endpoints.
+     *
+     * @param requests The requests
+     * @return The responses, in the order of the requests. The response of a failed request holds its error
+     * @throws InterruptedException If the Js execution is interrupted while waiting for the responses
+     * @throws RemoteException      If a request of the batch failed unexpectedly
+     * @throws RequestException     If a request of the batch failed unexpectedly
+     */
+    public static List<BatchResponse> getAll(List<Object> requests)
+        throws InterruptedException, RemoteException, RequestException {
+        List<BatchResponse> responses = new ArrayList<>();
+
+        if (requests == null || requests.isEmpty()) {
+            return responses;
+        }
+
+        JsEndpointsContext context = JsEndpointsContext.get();
+        Semaphore permits = new Semaphore(Math.max(getHttpProperties().getBatchMaxConcurrency(), 1));
+        List<Future<BatchResponse>> futures = new ArrayList<>();
+
+        try {
+            for (Object request : requests) {
+                // The Js objects can only be read by the thread holding the Js context
+                BatchRequest batchRequest = BatchRequest.of(request);
+
+                permits.acquire();
+                futures.add(BATCH_EXECUTOR.submit(() -> {
+                    JsEndpointsContext.set(context);
+
+                    try {
+                        return executeBatchRequest(batchRequest);
+                    } finally {
+                        JsEndpointsContext.clear();
+                        permits.release();
+                    }
+                }));
+            }
+
+            for (Future<BatchResponse> future : futures) {
+                responses.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e;
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+
+            if (e.getCause() instanceof RemoteException remoteException) {
+                throw remoteException;
+            }
+            if (e.getCause() instanceof RequestException requestException) {
+                throw requestException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+
+        return responses;
+    }
+
+    /**
+     * Execute a request of a batch.
+     *
+     * @param request The request
+     * @return The response of the request, holding its error if it failed
+     */
+    private static BatchResponse executeBatchRequest(BatchRequest request) {
+        try {
+            return new BatchResponse(request.getUrl(), executeRequest(request.getUrl(), request.getHeaderName(),
+                request.getHeaderValue(), request.getHeaderToReturn(), request.getBody(), request.isReturnCode()),
+                null);
+        } catch (Exception e) {
+            Throwable rootCause = ExceptionUtils.getRootCause(e);
+            return new BatchResponse(request.getUrl(), null,
+                rootCause.getMessage() != null ? rootCause.getMessage() : rootCause.toString());
+        }
+    }
+
+    /**
+     * Get the HTTP properties of the Js executions.
+     *
+     * @return The HTTP properties
+     */
+    private static ApplicationProperties.Http getHttpProperties() {
+        ApplicationContext applicationContext = SpringContextUtils.getApplicationContext();
+
+        return applicationContext != null
+            ? applicationContext.getBean(JsHttpClientService.class).getProperties()
+            : new ApplicationProperties.Http();
+    }
+
+    /**
+     * Get the HTTP client shared by the Js executions.
+     *
+     * @return The HTTP client
+     */
+    private static OkHttpClient getHttpClient() {
+        ApplicationContext applicationContext = SpringContextUtils.getApplicationContext();
+
+        return applicationContext != null
+            ? applicationContext.getBean(JsHttpClientService.class).getClient()
+            : OkHttpClientUtils.getUnsafeOkHttpClient();
+    }
+
     /**
      * Check if a thread is interrupted.
-     * This method is injected during the Js execution preparation
+     * The Js executions are interrupted by the engine, this method is kept for the widgets calling it
      *
      * @throws InterruptedException an exception if the thread is interrupted
      */
@@ -267,4 +927,64 @@ public final class JsEndpoints {
     public static void throwTimeout() throws TimeoutException {
         throw new TimeoutException("Timeout");
     }
+
+    /**
+     * Request of a batch, copied from the argument given by the widget.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class BatchRequest {
+        private final String url;
+
+        private final String headerName;
+
+        private final String headerValue;
+
+        private final String headerToReturn;
+
+        private final String body;
+
+        private final boolean returnCode;
+
+        /**
+         * Copy a request given by the widget.
+         *
+         * @param request The URL of the request, or an object describing the request
+         * @return The request
+         */
+        static BatchRequest of(Object request) {
+            if (request instanceof Map<?, ?> fields) {
+                return new BatchRequest(Objects.toString(fields.get("url"), null),
+                    Objects.toString(fields.get("headerName"), null),
+                    Objects.toString(fields.get("headerValue"), null),
+                    Objects.toString(fields.get("headerToReturn"), null),
+                    Objects.toString(fields.get("body"), null),
+                    Boolean.parseBoolean(Objects.toString(fields.get("returnCode"), null)));
+            }
+
+            return new BatchRequest(Objects.toString(request, null), null, null, null, null, false);
+        }
+    }
+
+    /**
+     * Response of a request performed by a batch.
+     * The fields are read by the widgets as properties of the response.
+     */
+    @AllArgsConstructor
+    public static class BatchResponse {
+        /**
+         * The URL of the request.
+         */
+        public final String url;
+
+        /**
+         * The response body of the request, the requested header or the http status code. Null if it failed.
+         */
+        public final String body;
+
+        /**
+         * The error of the request. Null if it succeeded.
+         */
+        public final String error;
+    }
 }
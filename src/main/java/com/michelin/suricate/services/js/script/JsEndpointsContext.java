@@ -0,0 +1,256 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.script;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+
+/**
+ * Context of the widget execution running on the current thread.
+ * Bound by the Js execution task, read by the Javascript endpoints called by the widget.
+ * When the execution is memoized, the context also records the GET calls of the widget and the fingerprints
+ * of their responses, so they can be revalidated before the next execution.
+ */
+@Slf4j
+@Getter
+@Setter
+public class JsEndpointsContext {
+    private static final ThreadLocal<JsEndpointsContext> CURRENT = new ThreadLocal<>();
+
+    private Long projectWidgetId;
+
+    private String widgetTechnicalName;
+
+    /**
+     * The time to live in seconds of the cached GET responses, set by the widget or its category.
+     * Null to use the default one.
+     */
+    private Long cacheTtl;
+
+    /**
+     * The time in milliseconds after which the calls of the widget execution are aborted, 0 for no deadline.
+     */
+    private long deadline;
+
+    @Getter(AccessLevel.NONE)
+    private final Queue<Runnable> cancelListeners = new ConcurrentLinkedQueue<>();
+
+    @Setter(AccessLevel.NONE)
+    private volatile boolean canceled;
+
+    /**
+     * True if the GET calls of the widget execution are recorded.
+     */
+    private boolean memoization;
+
+    @Getter(AccessLevel.NONE)
+    private final List<Fetch> fetches = Collections.synchronizedList(new ArrayList<>());
+
+    @Getter(AccessLevel.NONE)
+    private final Map<FetchRequest, String> revalidatedValues = new ConcurrentHashMap<>();
+
+    /**
+     * False once the widget execution made a call which cannot be replayed.
+     */
+    @Setter(AccessLevel.NONE)
+    private volatile boolean replayable = true;
+
+    /**
+     * Watch a call of the widget execution, so it is aborted when the execution is canceled.
+     * The call is canceled right away if the execution has already been canceled.
+     *
+     * @param call The call
+     */
+    public void addCall(Call call) {
+        onCancel(call::cancel);
+    }
+
+    /**
+     * Register a listener called when the widget execution is canceled.
+     * The listener is called right away if the execution has already been canceled.
+     * The listener may be called more than once.
+     *
+     * @param listener The listener
+     */
+    public void onCancel(Runnable listener) {
+        cancelListeners.add(listener);
+
+        if (canceled) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Cancel the widget execution and abort its calls.
+     */
+    public void cancel() {
+        canceled = true;
+        cancelListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Record a GET call of the widget execution and the fingerprint of its returned value.
+     *
+     * @param request The request
+     * @param value   The value returned to the widget
+     */
+    public void recordFetch(FetchRequest request, String value) {
+        fetches.add(new Fetch(request, fingerprint(value)));
+    }
+
+    /**
+     * Record a call which cannot be replayed, either because it is not a GET call or because it failed.
+     */
+    public void recordUnreplayableCall() {
+        replayable = false;
+    }
+
+    /**
+     * Get the recorded GET calls, in the order of the calls.
+     *
+     * @return The recorded calls
+     */
+    public List<Fetch> getFetches() {
+        synchronized (fetches) {
+            return List.copyOf(fetches);
+        }
+    }
+
+    /**
+     * Send again a GET call recorded by a previous widget execution and check its returned value is unchanged.
+     * The value is kept, so the widget takes it instead of sending the call again if it is executed anyway.
+     *
+     * @param fetch The recorded call
+     * @return true if the returned value has the same fingerprint, false if it changed or if the call failed
+     */
+    public boolean revalidate(Fetch fetch) {
+        try {
+            String value = JsEndpoints.fetch(fetch.getRequest());
+
+            if (value != null) {
+                revalidatedValues.put(fetch.getRequest(), value);
+            }
+
+            return fetch.getFingerprint().equals(fingerprint(value));
+        } catch (Exception e) {
+            log.debug("The call {} of the widget instance {} cannot be revalidated", fetch.getRequest().getUrl(),
+                projectWidgetId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Take the value returned by the revalidation of a GET call, so the call is not sent twice.
+     *
+     * @param request The request
+     * @return The value, or null if the call has not been revalidated
+     */
+    public String takeRevalidatedValue(FetchRequest request) {
+        return revalidatedValues.remove(request);
+    }
+
+    /**
+     * Compute the fingerprint of a value returned to the widget.
+     *
+     * @param value The value
+     * @return The fingerprint
+     */
+    private static HashCode fingerprint(String value) {
+        return Hashing.murmur3_128().newHasher()
+            .putBoolean(value != null)
+            .putString(Objects.toString(value, ""), StandardCharsets.UTF_8)
+            .hash();
+    }
+
+    /**
+     * Get the context bound to the current thread.
+     *
+     * @return The context, or null if the current thread does not execute a widget
+     */
+    public static JsEndpointsContext get() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Bind the given context to the current thread.
+     *
+     * @param context The context
+     */
+    public static void set(JsEndpointsContext context) {
+        CURRENT.set(context);
+    }
+
+    /**
+     * Unbind the context from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * GET call of a widget, identified by the arguments given to the Javascript endpoint.
+     */
+    @Getter
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class FetchRequest {
+        private final String url;
+
+        private final String headerName;
+
+        private final String headerValue;
+
+        private final String headerToReturn;
+
+        private final boolean returnCode;
+
+        /**
+         * The JSON pointers extracted from the response. Null if the call is not an extraction.
+         */
+        private final List<String> pointers;
+    }
+
+    /**
+     * Recorded GET call of a widget.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Fetch {
+        private final FetchRequest request;
+
+        /**
+         * The fingerprint of the value returned to the widget.
+         */
+        private final HashCode fingerprint;
+    }
+}
@@ -18,24 +18,21 @@
 
 package com.michelin.suricate.services.js.services;
 
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
 import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.model.dto.websocket.UpdateEvent;
-import com.michelin.suricate.model.entities.ProjectWidget;
 import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
 import com.michelin.suricate.model.enums.UpdateType;
 import com.michelin.suricate.model.enums.WidgetStateEnum;
-import com.michelin.suricate.services.api.ProjectService;
-import com.michelin.suricate.services.api.ProjectWidgetService;
+import com.michelin.suricate.properties.ApplicationProperties;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
-import com.michelin.suricate.services.mapper.ProjectWidgetMapper;
 import com.michelin.suricate.services.websocket.DashboardWebSocketService;
 import java.util.Date;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Dashboard schedule service.
@@ -47,37 +44,53 @@ public class DashboardScheduleService {
     private ApplicationContext applicationContext;
 
     @Autowired
-    private DashboardWebSocketService dashboardWebSocketService;
+    private ApplicationProperties applicationProperties;
 
     @Autowired
-    private ProjectWidgetService projectWidgetService;
+    private DashboardWebSocketService dashboardWebSocketService;
 
     @Autowired
-    private ProjectWidgetMapper projectWidgetMapper;
+    private JsExecutionService jsExecutionService;
 
     @Autowired
-    private JsExecutionService jsExecutionService;
+    private JsExecutionRegistryService jsExecutionRegistryService;
 
     @Autowired
-    private ProjectService projectService;
+    private JsResultWriterService jsResultWriterService;
 
     /**
      * Process the Js result.
      * Update the widget information.
      * If the Js execution is successful then update the data.
      * If the Js execution is failed, then just update the log.
-     * Schedule the next javascript execution except if the current execution did not throw a fatal error
+     * Schedule the next javascript execution except if the current execution did not throw a fatal error,
+     * after a refresh interval adapted to the change rate of the data in adaptive refresh mode.
+     * The next Js execution is built from the execution registry, without reading the widget instance again.
+     * The widget information is written behind by the result writer, the notification is sent immediately.
+     * No transaction is opened here, as the result writer flushes in its own transaction when the write-behind
+     * is disabled.
+     * If the data of a running widget is unchanged, only the execution dates are written and no notification is sent
      *
      * @param jsResultDto The Js result
      * @param scheduler   The Js execution scheduler
      */
-    @Transactional
     public void processJsResult(JsResultDto jsResultDto, JsExecutionScheduler scheduler) {
-        if (jsResultDto.isValid()) {
+        boolean unchanged = applicationProperties.getJs().isSkipUnchangedResults()
+            && jsExecutionRegistryService.isUnchanged(jsResultDto);
+
+        JsResultWriterService.PendingWrite pendingWrite = null;
+
+        if (unchanged) {
+            log.debug("The JavaScript result is unchanged for the widget instance: {}. Skipping the widget update",
+                jsResultDto.getProjectWidgetId());
+
+            jsResultWriterService.writeUnchangedExecution(jsResultDto.getLaunchDate(),
+                jsResultDto.getProjectWidgetId());
+        } else if (jsResultDto.isValid()) {
             log.debug("The JavaScript result is valid for the widget instance: {}. Updating widget in database",
                 jsResultDto.getProjectWidgetId());
 
-            projectWidgetService.updateWidgetInstanceAfterSucceededExecution(jsResultDto.getLaunchDate(),
+            pendingWrite = jsResultWriterService.writeSucceededExecution(jsResultDto.getLaunchDate(),
                 jsResultDto.getLog(),
                 jsResultDto.getData(),
                 jsResultDto.getProjectWidgetId(),
@@ -86,7 +99,7 @@ public class DashboardScheduleService {
             log.debug("The JavaScript result is not valid for the widget instance: {}. Logs: {}. Response data: {}",
                 jsResultDto.getProjectWidgetId(), jsResultDto.getLog(), jsResultDto);
 
-            projectWidgetService.updateWidgetInstanceAfterFailedExecution(jsResultDto.getLaunchDate(),
+            pendingWrite = jsResultWriterService.writeFailedExecution(jsResultDto.getLaunchDate(),
                 jsResultDto.getLog(),
                 jsResultDto.getProjectWidgetId(),
                 jsResultDto.getError() == JsExecutionErrorTypeEnum.FATAL ? WidgetStateEnum.STOPPED :
@@ -98,12 +111,17 @@ public class DashboardScheduleService {
                 "The JavaScript result contains a fatal error for the widget instance: {}. Logs: {}. Response data: {}",
                 jsResultDto.getProjectWidgetId(), jsResultDto.getLog(), jsResultDto);
         } else {
-            JsExecutionDto newJsExecutionDto =
-                jsExecutionService.getJsExecutionByProjectWidgetId(jsResultDto.getProjectWidgetId());
-            scheduler.schedule(newJsExecutionDto, false);
+            JsExecutionDto newJsExecutionDto = jsExecutionRegistryService.updateJsExecution(jsResultDto);
+
+            if (newJsExecutionDto != null) {
+                scheduler.adaptRefreshInterval(jsResultDto, newJsExecutionDto);
+                scheduler.schedule(newJsExecutionDto, false);
+            }
         }
 
-        sendWidgetUpdateNotification(jsResultDto.getProjectWidgetId(), jsResultDto.getProjectId());
+        if (!unchanged) {
+            sendWidgetUpdateNotification(jsResultDto.getProjectWidgetId(), pendingWrite);
+        }
     }
 
     /**
@@ -111,32 +129,39 @@ public class DashboardScheduleService {
      *
      * @param widgetLogs      The exception message to log
      * @param projectWidgetId The widget instance id
-     * @param projectId       The project id
      */
-    @Transactional
-    public void updateWidgetInstanceNoJsResult(String widgetLogs, Long projectWidgetId, Long projectId) {
-        projectWidgetService.updateWidgetInstanceAfterFailedExecution(new Date(), widgetLogs, projectWidgetId,
-            WidgetStateEnum.STOPPED);
+    public void updateWidgetInstanceNoJsResult(String widgetLogs, Long projectWidgetId) {
+        JsResultWriterService.PendingWrite pendingWrite = jsResultWriterService.writeFailedExecution(new Date(),
+            widgetLogs, projectWidgetId, WidgetStateEnum.STOPPED);
 
-        sendWidgetUpdateNotification(projectWidgetId, projectId);
+        sendWidgetUpdateNotification(projectWidgetId, pendingWrite);
     }
 
     /**
      * Create a new widget event which will be sent through the web sockets
      * to notify and update the widget on dashboard.
+     * The event is built from the widget instance displayed on the dashboards held by the execution registry,
+     * updated with the write of the result, so the widget instance and the project token are not read again.
+     * The widget instance is read on the first notification only, and the write not flushed yet is applied to it
      *
      * @param projectWidgetId The project widget ID
-     * @param projectId       The project ID
+     * @param pendingWrite    The write of the result
      */
-    public void sendWidgetUpdateNotification(Long projectWidgetId, Long projectId) {
-        ProjectWidget projectWidget = projectWidgetService.getOne(projectWidgetId).orElse(null);
+    public void sendWidgetUpdateNotification(Long projectWidgetId, JsResultWriterService.PendingWrite pendingWrite) {
+        ProjectWidgetResponseDto projectWidgetDto =
+            jsExecutionRegistryService.updateProjectWidgetDto(projectWidgetId, pendingWrite);
+
+        if (projectWidgetDto == null) {
+            log.debug("The widget instance {} does not exist anymore. Skipping the notification", projectWidgetId);
+            return;
+        }
 
         UpdateEvent event = UpdateEvent.builder()
             .type(UpdateType.REFRESH_WIDGET)
-            .content(projectWidgetMapper.toProjectWidgetDto(projectWidget))
+            .content(projectWidgetDto)
             .build();
 
-        dashboardWebSocketService.sendEventToWidgetInstanceSubscribers(projectService.getTokenByProjectId(projectId),
+        dashboardWebSocketService.sendEventToWidgetInstanceSubscribers(projectWidgetDto.getProjectToken(),
             projectWidgetId, event);
     }
 
@@ -0,0 +1,332 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Js circuit breaker service.
+ * Hold a circuit breaker per remote host called by the widgets. After consecutive failed calls, the circuit
+ * opens and the calls to the host are rejected immediately. Once the open duration has elapsed, the circuit is
+ * half-open and lets a single trial call through, which closes the circuit if it succeeds or opens it again.
+ * Also remember the hosts called by each widget instance, so the scheduler delays the widgets whose hosts
+ * are unavailable.
+ */
+@Slf4j
+@Service
+public class JsCircuitBreakerService {
+    private final Map<String, CircuitBreaker> circuitBreakersByHost = new ConcurrentHashMap<>();
+
+    private final Map<Long, Set<String>> hostsByProjectWidgetId = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    /**
+     * Attempt a call to the given host.
+     * The host is remembered as called by the widget executed by the current thread.
+     *
+     * @param host The host
+     * @return The attempt, to close when the call is over
+     * @throws RemoteException If the circuit of the host is open
+     */
+    public Attempt attempt(String host) throws RemoteException {
+        ApplicationProperties.Http properties = applicationProperties.getJs().getHttp();
+
+        if (properties.getCircuitBreakerFailureThreshold() <= 0) {
+            return Attempt.NONE;
+        }
+
+        JsEndpointsContext context = JsEndpointsContext.get();
+        if (context != null && context.getProjectWidgetId() != null) {
+            hostsByProjectWidgetId.computeIfAbsent(context.getProjectWidgetId(), id -> ConcurrentHashMap.newKeySet())
+                .add(host);
+        }
+
+        CircuitBreaker circuitBreaker = circuitBreakersByHost.computeIfAbsent(host, key -> new CircuitBreaker());
+        Admission admission =
+            circuitBreaker.admit(TimeUnit.SECONDS.toMillis(properties.getCircuitBreakerOpenDuration()));
+
+        if (admission == Admission.REJECTED) {
+            throw new RemoteException("The circuit of the host " + host + " is open after "
+                + circuitBreaker.getFailures() + " consecutive failed calls, the call has been rejected.");
+        }
+
+        return new Attempt(circuitBreaker, properties.getCircuitBreakerFailureThreshold(),
+            admission == Admission.TRIAL);
+    }
+
+    /**
+     * Get the remaining time before the circuits of the hosts called by a widget instance are half-open.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @return The remaining time in milliseconds, 0 if none of the circuits is open
+     */
+    public long getOpenCircuitDelay(Long projectWidgetId) {
+        Set<String> hosts = projectWidgetId != null ? hostsByProjectWidgetId.get(projectWidgetId) : null;
+
+        if (hosts == null) {
+            return 0;
+        }
+
+        long openDuration = TimeUnit.SECONDS.toMillis(
+            applicationProperties.getJs().getHttp().getCircuitBreakerOpenDuration());
+
+        return hosts.stream()
+            .map(circuitBreakersByHost::get)
+            .filter(Objects::nonNull)
+            .mapToLong(circuitBreaker -> circuitBreaker.getRemainingOpenDuration(openDuration))
+            .max()
+            .orElse(0);
+    }
+
+    /**
+     * Get the state of the circuit breakers.
+     *
+     * @return The state of the circuit breakers by host
+     */
+    public Map<String, CircuitBreakerState> getCircuitBreakers() {
+        long openDuration = TimeUnit.SECONDS.toMillis(
+            applicationProperties.getJs().getHttp().getCircuitBreakerOpenDuration());
+        Map<String, CircuitBreakerState> states = new TreeMap<>();
+
+        circuitBreakersByHost.forEach((host, circuitBreaker) ->
+            states.put(host, circuitBreaker.getState(openDuration)));
+
+        return states;
+    }
+
+    /**
+     * Forget the hosts called by a widget instance.
+     *
+     * @param projectWidgetId The widget instance ID
+     */
+    public void forgetWidget(Long projectWidgetId) {
+        if (projectWidgetId != null) {
+            hostsByProjectWidgetId.remove(projectWidgetId);
+        }
+    }
+
+    /**
+     * Status of a circuit.
+     */
+    public enum CircuitStatus {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Admission of a call by a circuit.
+     */
+    private enum Admission {
+        ALLOWED,
+        TRIAL,
+        REJECTED
+    }
+
+    /**
+     * State of a circuit breaker.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CircuitBreakerState {
+        private final CircuitStatus status;
+
+        private final int failures;
+
+        /**
+         * The remaining time in milliseconds before the circuit is half-open, 0 if it is not open.
+         */
+        private final long remainingOpenDuration;
+    }
+
+    /**
+     * Attempt of a call to a host.
+     * An attempt closed without being recorded counts neither as a success nor as a failure, as the call
+     * has been canceled or has not been sent. If it was the trial call of a half-open circuit, another trial
+     * call is let through.
+     */
+    public static class Attempt implements AutoCloseable {
+        /**
+         * Attempt not watched by any circuit breaker.
+         */
+        public static final Attempt NONE = new Attempt(null, 0, false);
+
+        private final CircuitBreaker circuitBreaker;
+
+        private final int failureThreshold;
+
+        /**
+         * True if the call is the trial call of a half-open circuit.
+         */
+        private final boolean trial;
+
+        private boolean recorded;
+
+        /**
+         * Constructor.
+         *
+         * @param circuitBreaker   The circuit breaker of the host, null if the call is not watched
+         * @param failureThreshold The number of consecutive failed calls opening the circuit
+         * @param trial            true if the call is the trial call of a half-open circuit
+         */
+        Attempt(CircuitBreaker circuitBreaker, int failureThreshold, boolean trial) {
+            this.circuitBreaker = circuitBreaker;
+            this.failureThreshold = failureThreshold;
+            this.trial = trial;
+        }
+
+        /**
+         * Record the call as succeeded.
+         */
+        public void succeeded() {
+            if (circuitBreaker != null && !recorded) {
+                recorded = true;
+                circuitBreaker.onSuccess();
+            }
+        }
+
+        /**
+         * Record the call as failed.
+         */
+        public void failed() {
+            if (circuitBreaker != null && !recorded) {
+                recorded = true;
+                circuitBreaker.onFailure(failureThreshold);
+            }
+        }
+
+        /**
+         * Release the attempt without recording it if the call has not been recorded.
+         * Only the trial call of a half-open circuit lets another trial call through.
+         */
+        @Override
+        public void close() {
+            if (circuitBreaker != null && !recorded) {
+                recorded = true;
+
+                if (trial) {
+                    circuitBreaker.onRelease();
+                }
+            }
+        }
+    }
+
+    /**
+     * Circuit breaker of a host.
+     */
+    private static class CircuitBreaker {
+        private CircuitStatus status = CircuitStatus.CLOSED;
+
+        @Getter
+        private int failures;
+
+        private long openedAt;
+
+        private boolean trialInProgress;
+
+        /**
+         * Check if a call can go through the circuit.
+         * An open circuit whose open duration has elapsed becomes half-open and lets a single trial call through.
+         *
+         * @param openDuration The open duration in milliseconds
+         * @return The admission of the call
+         */
+        synchronized Admission admit(long openDuration) {
+            if (status == CircuitStatus.OPEN && getRemainingOpenDuration(openDuration) == 0) {
+                status = CircuitStatus.HALF_OPEN;
+                trialInProgress = false;
+            }
+
+            if (status == CircuitStatus.CLOSED) {
+                return Admission.ALLOWED;
+            }
+
+            if (status == CircuitStatus.HALF_OPEN && !trialInProgress) {
+                trialInProgress = true;
+                return Admission.TRIAL;
+            }
+
+            return Admission.REJECTED;
+        }
+
+        /**
+         * Close the circuit after a succeeded call.
+         */
+        synchronized void onSuccess() {
+            status = CircuitStatus.CLOSED;
+            failures = 0;
+            trialInProgress = false;
+        }
+
+        /**
+         * Release the trial call of a half-open circuit without counting it.
+         */
+        synchronized void onRelease() {
+            trialInProgress = false;
+        }
+
+        /**
+         * Count a failed call, and open the circuit if the trial call failed or if the threshold is reached.
+         *
+         * @param threshold The number of consecutive failed calls opening the circuit
+         */
+        synchronized void onFailure(int threshold) {
+            failures++;
+            trialInProgress = false;
+
+            if (status == CircuitStatus.HALF_OPEN || (status == CircuitStatus.CLOSED && failures >= threshold)) {
+                status = CircuitStatus.OPEN;
+                openedAt = System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * Get the remaining time before the circuit is half-open.
+         *
+         * @param openDuration The open duration in milliseconds
+         * @return The remaining time in milliseconds, 0 if the circuit is not open
+         */
+        synchronized long getRemainingOpenDuration(long openDuration) {
+            return status == CircuitStatus.OPEN ? Math.max(openedAt + openDuration - System.currentTimeMillis(), 0) : 0;
+        }
+
+        /**
+         * Get the state of the circuit breaker.
+         *
+         * @param openDuration The open duration in milliseconds
+         * @return The state
+         */
+        synchronized CircuitBreakerState getState(long openDuration) {
+            return new CircuitBreakerState(status, failures, getRemainingOpenDuration(openDuration));
+        }
+    }
+}
@@ -0,0 +1,535 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpoints;
+import com.michelin.suricate.utils.JavaScriptUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.ResourceLimits;
+import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+/**
+ * Js engine service.
+ * Hold the polyglot engine shared by all the Js executions, so the parsed and compiled
+ * scripts of the widgets are reused from one execution to another.
+ * Also hold a pool of warmed Js contexts per widget script.
+ */
+@Slf4j
+@Service
+public class JsEngineService {
+    private static final String JS_LANGUAGE = "js";
+
+    private static final String SOURCE_KEY_SEPARATOR = ":";
+
+    private static final String DEFAULT_SOURCE_NAME = "widget.js";
+
+    /**
+     * Implementation name of the engine when the optimizing runtime is not available.
+     */
+    private static final String INTERPRETED_IMPLEMENTATION_NAME = "Interpreted";
+
+    /**
+     * Script returning a function which restores the global scope as it was when the script was evaluated.
+     * New globals are deleted (or set to undefined when they cannot be deleted)
+     * and reassigned globals get back their original value.
+     * The builtin objects reachable from the globals (constructors, prototypes, namespaces such as Math or JSON)
+     * get back their original properties and prototype, so a widget mutating a builtin prototype does not leak
+     * into the next executions. The function throws if a builtin cannot be restored (e.g. it has been frozen),
+     * so the context is discarded instead of being pooled.
+     */
+    private static final String RESET_GLOBALS_SCRIPT = """
+        (function (global) {
+            var baseline = new Map();
+            var intrinsics = new Map();
+            var addIntrinsic = function (value) {
+                if (value === null || value === global || (typeof value !== 'object' && typeof value !== 'function')
+                    || intrinsics.has(value)) {
+                    return;
+                }
+                var descriptors = new Map();
+                Reflect.ownKeys(value).forEach(function (key) {
+                    descriptors.set(key, Object.getOwnPropertyDescriptor(value, key));
+                });
+                intrinsics.set(value, {
+                    prototype: Object.getPrototypeOf(value),
+                    extensible: Object.isExtensible(value),
+                    descriptors: descriptors
+                });
+                addIntrinsic(Object.getPrototypeOf(value));
+                if (typeof value === 'function' && descriptors.has('prototype')) {
+                    addIntrinsic(descriptors.get('prototype').value);
+                }
+            };
+            var isUnchanged = function (current, original) {
+                return current !== undefined && current.value === original.value && current.get === original.get
+                    && current.set === original.set && current.writable === original.writable
+                    && current.enumerable === original.enumerable && current.configurable === original.configurable;
+            };
+            Object.getOwnPropertyNames(global).forEach(function (name) {
+                baseline.set(name, global[name]);
+                addIntrinsic(global[name]);
+            });
+            addIntrinsic(Object.getPrototypeOf(global));
+            return function () {
+                Object.getOwnPropertyNames(global).forEach(function (name) {
+                    if (!baseline.has(name)) {
+                        if (!delete global[name]) {
+                            global[name] = undefined;
+                        }
+                    } else if (global[name] !== baseline.get(name)) {
+                        global[name] = baseline.get(name);
+                    }
+                });
+                intrinsics.forEach(function (original, intrinsic) {
+                    if (Object.isExtensible(intrinsic) !== original.extensible) {
+                        throw new TypeError('A builtin object has been made non-extensible');
+                    }
+                    if (Object.getPrototypeOf(intrinsic) !== original.prototype) {
+                        Object.setPrototypeOf(intrinsic, original.prototype);
+                    }
+                    Reflect.ownKeys(intrinsic).forEach(function (key) {
+                        if (!original.descriptors.has(key) && !delete intrinsic[key]) {
+                            throw new TypeError('A property added to a builtin object cannot be deleted');
+                        }
+                    });
+                    original.descriptors.forEach(function (descriptor, key) {
+                        if (!isUnchanged(Object.getOwnPropertyDescriptor(intrinsic, key), descriptor)) {
+                            Object.defineProperty(intrinsic, key, descriptor);
+                        }
+                    });
+                });
+            };
+        })(globalThis)
+        """;
+
+    /**
+     * Only the statements of the widget scripts count towards the statement limit.
+     * The same predicate instance must be used by all the contexts of the shared engine.
+     */
+    private static final Predicate<Source> STATEMENT_LIMIT_SOURCE_FILTER = source -> !source.isInternal();
+
+    private final Engine engine = Engine.newBuilder(JS_LANGUAGE)
+        .option("engine.WarnInterpreterOnly", "false")
+        .build();
+
+    private final Source resetGlobalsSource = Source.create(JS_LANGUAGE, RESET_GLOBALS_SCRIPT);
+
+    private Cache<String, Source> sourcesByKey;
+
+    private final Map<String, Deque<PooledContext>> idleContextsByKey = new ConcurrentHashMap<>();
+
+    private final Set<String> notPoolableKeys = ConcurrentHashMap.newKeySet();
+
+    private final AtomicInteger idleContexts = new AtomicInteger();
+
+    private final AtomicLong lastIdleEviction = new AtomicLong(System.nanoTime());
+
+    @Getter
+    private final AtomicLong contextPoolHits = new AtomicLong();
+
+    @Getter
+    private final AtomicLong contextPoolMisses = new AtomicLong();
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    /**
+     * Init the cache of the widget sources and check the runtime of the shared engine.
+     * The least recently used sources are evicted when the cache is full, with the idle contexts evaluating them.
+     */
+    @PostConstruct
+    public void init() {
+        sourcesByKey = CacheBuilder.newBuilder()
+            .maximumSize(applicationProperties.getJs().getSourceCacheMaxEntries())
+            .removalListener((RemovalNotification<String, Source> notification) -> {
+                if (notification.wasEvicted()) {
+                    notPoolableKeys.remove(notification.getKey());
+                    closeIdleContexts(notification.getKey());
+                }
+            })
+            .build();
+
+        checkRuntime();
+    }
+
+    /**
+     * Check the runtime of the shared engine.
+     * Without the optimizing runtime, the widget scripts are never compiled and run in the interpreter only.
+     */
+    public void checkRuntime() {
+        if (isOptimizingRuntime()) {
+            log.info("The JavaScript engine runs on the {} optimizing runtime. "
+                + "The widget scripts are compiled", engine.getImplementationName());
+        } else {
+            log.warn("The JavaScript engine runs in interpreter-only mode. The widget scripts are not compiled. "
+                + "Use the \"jit\" Maven profile to build an image running on the optimizing runtime");
+        }
+    }
+
+    /**
+     * Check if the shared engine runs on the optimizing runtime.
+     *
+     * @return true if the widget scripts can be compiled, false otherwise
+     */
+    public boolean isOptimizingRuntime() {
+        return !INTERPRETED_IMPLEMENTATION_NAME.equals(engine.getImplementationName());
+    }
+
+    /**
+     * Get the cached source of a widget script.
+     * The source is prepared and built once per widget and script content,
+     * so the engine can reuse the code it already compiled for it.
+     *
+     * @param widgetTechnicalName The technical name of the widget
+     * @param script              The script of the widget
+     * @return The source
+     */
+    public Source getSource(String widgetTechnicalName, String script) {
+        return sourcesByKey.asMap().computeIfAbsent(getKey(widgetTechnicalName, script), key -> Source
+            .newBuilder(JS_LANGUAGE, JavaScriptUtils.prepare(script),
+                StringUtils.defaultIfBlank(widgetTechnicalName, DEFAULT_SOURCE_NAME))
+            .cached(true)
+            .buildLiteral());
+    }
+
+    /**
+     * Acquire a Js context for a widget script.
+     * Reuse an idle context of the pool of the widget script if there is one, create a new one otherwise.
+     * The context must be closed after use to give it back to the pool.
+     *
+     * @param widgetTechnicalName The technical name of the widget
+     * @param script              The script of the widget
+     * @return The Js context
+     */
+    public PooledContext acquireContext(String widgetTechnicalName, String script) {
+        String key = getKey(widgetTechnicalName, script);
+        Deque<PooledContext> idleContextsOfKey = idleContextsByKey.get(key);
+        PooledContext pooledContext = idleContextsOfKey != null ? idleContextsOfKey.pollFirst() : null;
+
+        if (pooledContext != null) {
+            idleContexts.decrementAndGet();
+            contextPoolHits.incrementAndGet();
+            pooledContext.getOutput().reset();
+            pooledContext.getContext().resetLimits();
+            pooledContext.setWarm(true);
+            pooledContext.setReusable(false);
+            return pooledContext;
+        }
+
+        contextPoolMisses.incrementAndGet();
+        return createContext(key);
+    }
+
+    /**
+     * Give a Js context back to the pool of its widget script.
+     * The global scope of the context is reset before.
+     * The context is closed if it is not reusable or if the pool is full.
+     *
+     * @param pooledContext The Js context
+     */
+    public void releaseContext(PooledContext pooledContext) {
+        ApplicationProperties.ContextPool properties = applicationProperties.getJs().getContextPool();
+
+        if (!pooledContext.isReusable()
+            || pooledContext.isCanceled()
+            || !properties.isEnabled()
+            || notPoolableKeys.contains(pooledContext.getKey())
+            || idleContexts.get() >= properties.getMaxIdle()
+            || !resetGlobals(pooledContext)) {
+            closeContext(pooledContext);
+        } else {
+            pooledContext.setLastReleaseTime(System.nanoTime());
+
+            if (idleContextsByKey
+                .computeIfAbsent(pooledContext.getKey(),
+                    key -> new LinkedBlockingDeque<>(Math.max(1, properties.getMaxIdlePerWidget())))
+                .offerFirst(pooledContext)) {
+                idleContexts.incrementAndGet();
+            } else {
+                closeContext(pooledContext);
+            }
+        }
+
+        evictIdleContextsIfNeeded(properties);
+    }
+
+    /**
+     * Cancel the script executing in the given Js context, from another thread.
+     * The context is closed, so the engine stops the guest code even if it never calls a Java method,
+     * and it will not be given back to the pool.
+     *
+     * @param pooledContext The Js context
+     */
+    public void cancelContext(PooledContext pooledContext) {
+        log.debug("Canceling the execution of the script {}", pooledContext.getKey());
+
+        pooledContext.setCanceled(true);
+        closeContext(pooledContext);
+    }
+
+    /**
+     * Exclude the given Js context from the pool.
+     * Used when a widget script cannot be evaluated twice in the same context
+     * (e.g. the script declares global "let" or "const" variables).
+     * The idle contexts of the widget script are closed and the next ones will not be pooled.
+     *
+     * @param pooledContext The Js context
+     */
+    public void excludeFromPool(PooledContext pooledContext) {
+        log.debug("The script {} cannot be evaluated twice in the same JavaScript context. "
+            + "Its contexts will not be pooled anymore", pooledContext.getKey());
+
+        notPoolableKeys.add(pooledContext.getKey());
+        closeIdleContexts(pooledContext.getKey());
+    }
+
+    /**
+     * Evict the cached sources and the pooled contexts of a widget.
+     *
+     * @param widgetTechnicalName The technical name of the widget
+     */
+    public void evictWidget(String widgetTechnicalName) {
+        String prefix = StringUtils.defaultString(widgetTechnicalName) + SOURCE_KEY_SEPARATOR;
+
+        if (sourcesByKey.asMap().keySet().removeIf(key -> key.startsWith(prefix))) {
+            log.debug("Sources of the widget {} evicted from the JavaScript engine cache", widgetTechnicalName);
+        }
+
+        notPoolableKeys.removeIf(key -> key.startsWith(prefix));
+        idleContextsByKey.keySet()
+            .stream()
+            .filter(key -> key.startsWith(prefix))
+            .toList()
+            .forEach(this::closeIdleContexts);
+    }
+
+    /**
+     * Count the cached sources.
+     *
+     * @return The number of cached sources
+     */
+    public long countSources() {
+        return sourcesByKey.size();
+    }
+
+    /**
+     * Count the idle contexts of the pool.
+     *
+     * @return The number of idle contexts
+     */
+    public int countIdleContexts() {
+        return idleContexts.get();
+    }
+
+    /**
+     * Close the pooled contexts and the shared engine.
+     */
+    @PreDestroy
+    public void close() {
+        idleContextsByKey.keySet().forEach(this::closeIdleContexts);
+        sourcesByKey.invalidateAll();
+        engine.close(true);
+    }
+
+    /**
+     * Build the key of a widget script.
+     *
+     * @param widgetTechnicalName The technical name of the widget
+     * @param script              The script of the widget
+     * @return The key
+     */
+    private String getKey(String widgetTechnicalName, String script) {
+        return StringUtils.defaultString(widgetTechnicalName) + SOURCE_KEY_SEPARATOR
+            + DigestUtils.md5DigestAsHex(StringUtils.defaultString(script).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create a new Js context bound to the shared engine.
+     * The number of statements a script can execute in the context is limited,
+     * so a runaway script is cancelled by the engine.
+     *
+     * @param key The key of the widget script
+     * @return The Js context
+     */
+    private PooledContext createContext(String key) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        Context.Builder contextBuilder = Context.newBuilder(JS_LANGUAGE)
+            .engine(engine)
+            .out(output)
+            .err(output)
+            .allowHostAccess(HostAccess.ALL)
+            .allowHostClassLookup(className -> className.equals(JsEndpoints.class.getName()));
+
+        long statementLimit = applicationProperties.getJs().getStatementLimit();
+        if (statementLimit > 0) {
+            contextBuilder.resourceLimits(ResourceLimits.newBuilder()
+                .statementLimit(statementLimit, STATEMENT_LIMIT_SOURCE_FILTER)
+                .build());
+        }
+
+        Context context = contextBuilder.build();
+
+        return new PooledContext(this, key, context, output, context.eval(resetGlobalsSource));
+    }
+
+    /**
+     * Reset the global scope of a Js context.
+     *
+     * @param pooledContext The Js context
+     * @return true if the global scope has been reset, false otherwise
+     */
+    private boolean resetGlobals(PooledContext pooledContext) {
+        try {
+            pooledContext.getResetGlobals().executeVoid();
+            return true;
+        } catch (Exception e) {
+            log.debug("Cannot reset the global scope of a JavaScript context of the script {}",
+                pooledContext.getKey(), e);
+            return false;
+        }
+    }
+
+    /**
+     * Close the idle contexts of a widget script.
+     *
+     * @param key The key of the widget script
+     */
+    private void closeIdleContexts(String key) {
+        Deque<PooledContext> idleContextsOfKey = idleContextsByKey.remove(key);
+
+        if (idleContextsOfKey != null) {
+            PooledContext pooledContext;
+            while ((pooledContext = idleContextsOfKey.pollFirst()) != null) {
+                idleContexts.decrementAndGet();
+                closeContext(pooledContext);
+            }
+        }
+    }
+
+    /**
+     * Close the contexts idle for longer than the configured idle timeout.
+     * Run at most once per half idle timeout.
+     *
+     * @param properties The context pool properties
+     */
+    private void evictIdleContextsIfNeeded(ApplicationProperties.ContextPool properties) {
+        long now = System.nanoTime();
+        long idleTimeout = TimeUnit.SECONDS.toNanos(properties.getIdleTimeout());
+        long lastEviction = lastIdleEviction.get();
+
+        if (now - lastEviction < idleTimeout / 2 || !lastIdleEviction.compareAndSet(lastEviction, now)) {
+            return;
+        }
+
+        idleContextsByKey.values().forEach(idleContextsOfKey -> {
+            PooledContext pooledContext;
+            while ((pooledContext = idleContextsOfKey.peekLast()) != null
+                && now - pooledContext.getLastReleaseTime() > idleTimeout
+                && idleContextsOfKey.removeLastOccurrence(pooledContext)) {
+                idleContexts.decrementAndGet();
+                closeContext(pooledContext);
+            }
+        });
+
+        log.debug("JavaScript context pool: {} idle context(s), {} hit(s), {} miss(es)", idleContexts.get(),
+            contextPoolHits.get(), contextPoolMisses.get());
+    }
+
+    /**
+     * Close a Js context.
+     *
+     * @param pooledContext The Js context
+     */
+    private void closeContext(PooledContext pooledContext) {
+        try {
+            pooledContext.getContext().close(true);
+        } catch (Exception e) {
+            log.debug("Cannot close a JavaScript context of the script {}", pooledContext.getKey(), e);
+        }
+    }
+
+    /**
+     * Js context of a widget script, given back to the pool when closed.
+     */
+    @Getter
+    @Setter
+    public static class PooledContext implements AutoCloseable {
+        private final JsEngineService jsEngineService;
+        private final String key;
+        private final Context context;
+        private final ByteArrayOutputStream output;
+        private final Value resetGlobals;
+        private boolean warm;
+        private boolean reusable;
+        private long lastReleaseTime;
+        private volatile boolean canceled;
+
+        /**
+         * Constructor.
+         *
+         * @param jsEngineService The Js engine service owning the context
+         * @param key             The key of the widget script
+         * @param context         The Js context
+         * @param output          The stream receiving the standard and error outputs of the script
+         * @param resetGlobals    The function resetting the global scope of the context
+         */
+        public PooledContext(JsEngineService jsEngineService, String key, Context context,
+                             ByteArrayOutputStream output, Value resetGlobals) {
+            this.jsEngineService = jsEngineService;
+            this.key = key;
+            this.context = context;
+            this.output = output;
+            this.resetGlobals = resetGlobals;
+        }
+
+        /**
+         * Give the context back to the pool.
+         */
+        @Override
+        public void close() {
+            jsEngineService.releaseContext(this);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.dto.js.JsResultDto;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.utils.JavaScriptUtils;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Js execution memo service.
+ * Hold the result of the last execution of the widget instances whose script is a pure function of its
+ * GET calls and of the data of its previous execution, with the fingerprints of the values returned by the calls.
+ * Before the next execution, the calls are sent again, in the order of the previous execution. They go through
+ * the response cache, so a response revalidated by a conditional request is not downloaded again. If all
+ * the returned values are unchanged, the previous result is reused and the script is not evaluated.
+ */
+@Slf4j
+@Service
+public class JsExecutionMemoService {
+    @Getter
+    private final AtomicLong hits = new AtomicLong();
+
+    @Getter
+    private final AtomicLong misses = new AtomicLong();
+
+    private final Map<Long, Memo> memosByProjectWidgetId = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Register the metrics of the memos.
+     */
+    @PostConstruct
+    public void init() {
+        FunctionCounter.builder("suricate.js.memo.hits", hits, AtomicLong::get)
+            .description("Number of widget executions answered from the result of the previous execution")
+            .register(meterRegistry);
+        FunctionCounter.builder("suricate.js.memo.misses", misses, AtomicLong::get)
+            .description("Number of memoized widget executions whose calls returned changed values")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Check if the execution of a widget instance is memoized.
+     * The widget property or category parameter overrides the default set by the application properties.
+     *
+     * @param widgetProperties The widget properties
+     * @return true if the execution is memoized, false otherwise
+     */
+    public boolean isEnabled(Map<String, String> widgetProperties) {
+        String memoization = StringUtils.trim(widgetProperties.get(JavaScriptUtils.MEMOIZATION_VARIABLE));
+
+        if (StringUtils.isNotBlank(memoization)) {
+            return Boolean.parseBoolean(memoization);
+        }
+
+        return applicationProperties.getJs().isMemoization();
+    }
+
+    /**
+     * Get the result of the previous execution of a widget instance if its inputs are unchanged.
+     * The calls recorded by the previous execution are sent again through the given context, which must be bound
+     * to the current thread. The revalidation stops at the first changed value.
+     *
+     * @param jsExecutionDto   The Js execution
+     * @param widgetProperties The widget properties, with their default values and decrypted secrets
+     * @param context          The context of the Js execution
+     * @return A copy of the previous result, or null if the script must be evaluated
+     */
+    public JsResultDto getMemoizedResult(JsExecutionDto jsExecutionDto, Map<String, String> widgetProperties,
+                                         JsEndpointsContext context) {
+        Memo memo = memosByProjectWidgetId.get(jsExecutionDto.getProjectWidgetId());
+
+        if (memo == null) {
+            return null;
+        }
+
+        if (!memo.getInputHash().equals(hashInputs(jsExecutionDto, widgetProperties))
+            || !memo.getFetches().stream().allMatch(context::revalidate)) {
+            misses.incrementAndGet();
+            memosByProjectWidgetId.remove(jsExecutionDto.getProjectWidgetId(), memo);
+            return null;
+        }
+
+        hits.incrementAndGet();
+        log.debug("The calls of the widget instance {} are unchanged, reusing the result of its previous execution",
+            jsExecutionDto.getProjectWidgetId());
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setData(memo.getData());
+        jsResultDto.setLog(memo.getLog());
+        return jsResultDto;
+    }
+
+    /**
+     * Memoize the result of the execution of a widget instance.
+     * Only the valid results of the executions which made replayable GET calls only, and at least one of them,
+     * are memoized. The scripts calling nothing are evaluated each time, as they most likely depend on the time.
+     *
+     * @param jsExecutionDto   The Js execution
+     * @param widgetProperties The widget properties, with their default values and decrypted secrets
+     * @param context          The context of the Js execution
+     * @param jsResultDto      The result of the Js execution
+     */
+    public void memoize(JsExecutionDto jsExecutionDto, Map<String, String> widgetProperties,
+                        JsEndpointsContext context, JsResultDto jsResultDto) {
+        List<JsEndpointsContext.Fetch> fetches = context.getFetches();
+
+        if (jsResultDto.getError() != null || jsResultDto.getData() == null || !context.isReplayable()
+            || fetches.isEmpty()) {
+            memosByProjectWidgetId.remove(jsExecutionDto.getProjectWidgetId());
+            return;
+        }
+
+        memosByProjectWidgetId.put(jsExecutionDto.getProjectWidgetId(), new Memo(
+            hashInputs(jsExecutionDto, widgetProperties), fetches, jsResultDto.getData(), jsResultDto.getLog()));
+    }
+
+    /**
+     * Forget the memo of a widget instance.
+     *
+     * @param projectWidgetId The widget instance ID
+     */
+    public void forget(Long projectWidgetId) {
+        if (projectWidgetId != null) {
+            memosByProjectWidgetId.remove(projectWidgetId);
+        }
+    }
+
+    /**
+     * Count the memos held.
+     *
+     * @return The number of memos
+     */
+    public int countMemos() {
+        return memosByProjectWidgetId.size();
+    }
+
+    /**
+     * Hash the inputs of a Js execution other than its calls: the script, the widget properties
+     * and the data of the previous execution.
+     *
+     * @param jsExecutionDto   The Js execution
+     * @param widgetProperties The widget properties, with their default values and decrypted secrets
+     * @return The hash
+     */
+    private static HashCode hashInputs(JsExecutionDto jsExecutionDto, Map<String, String> widgetProperties) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        putString(hasher, jsExecutionDto.getScript());
+        putString(hasher, jsExecutionDto.getPreviousData());
+
+        new TreeMap<>(widgetProperties).forEach((name, value) -> {
+            putString(hasher, name);
+            putString(hasher, value);
+        });
+
+        return hasher.hash();
+    }
+
+    /**
+     * Put a nullable string in a hasher, prefixed by its length so the consecutive strings cannot collide.
+     *
+     * @param hasher The hasher
+     * @param value  The string
+     */
+    private static void putString(Hasher hasher, String value) {
+        if (value == null) {
+            hasher.putInt(-1);
+        } else {
+            hasher.putInt(value.length()).putString(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Memo of the last execution of a widget instance.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class Memo {
+        private final HashCode inputHash;
+
+        private final List<JsEndpointsContext.Fetch> fetches;
+
+        private final String data;
+
+        private final String log;
+    }
+}
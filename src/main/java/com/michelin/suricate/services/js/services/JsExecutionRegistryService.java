@@ -0,0 +1,476 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
+import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.dto.js.JsResultDto;
+import com.michelin.suricate.model.dto.js.WidgetVariableResponseDto;
+import com.michelin.suricate.model.entities.ProjectWidget;
+import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
+import com.michelin.suricate.model.enums.WidgetStateEnum;
+import com.michelin.suricate.services.api.ProjectWidgetService;
+import com.michelin.suricate.services.api.WidgetService;
+import com.michelin.suricate.services.mapper.ProjectWidgetMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Js execution registry service.
+ * Hold in memory the execution descriptor of each widget instance: script, merged configuration, parameters,
+ * delay, timeout and the state of the last execution. A descriptor is loaded from the database once, kept up
+ * to date with the results of the executions, and evicted when the widget instance, its widget or the
+ * configuration of its category changes. The Js executions are then rescheduled without any read query.
+ * The descriptor also holds the widget instance as displayed on the dashboards, so the notifications of the
+ * results are built without reading the widget instance again.
+ */
+@Slf4j
+@Service
+public class JsExecutionRegistryService {
+    private final Map<Long, JsExecutionDescriptor> descriptorsByProjectWidgetId = new ConcurrentHashMap<>();
+
+    @Lazy
+    @Autowired
+    private ProjectWidgetService projectWidgetService;
+
+    @Lazy
+    @Autowired
+    private WidgetService widgetService;
+
+    @Autowired
+    private JsExecutionService jsExecutionService;
+
+    @Autowired
+    private JsResultWriterService jsResultWriterService;
+
+    @Lazy
+    @Autowired
+    private ProjectWidgetMapper projectWidgetMapper;
+
+    /**
+     * Get the Js execution of a widget instance.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @return The Js execution, or null if the widget instance does not exist
+     */
+    public JsExecutionDto getJsExecution(Long projectWidgetId) {
+        return getDescriptor(projectWidgetId)
+            .map(JsExecutionDescriptor::toJsExecutionDto)
+            .orElse(null);
+    }
+
+    /**
+     * Get the parameters of the widget of a widget instance.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @return The parameters, empty if the widget instance does not exist
+     */
+    public List<WidgetVariableResponseDto> getWidgetParameters(Long projectWidgetId) {
+        return getDescriptor(projectWidgetId)
+            .map(JsExecutionDescriptor::getWidgetParameters)
+            .orElse(List.of());
+    }
+
+    /**
+     * Update the execution descriptor of a widget instance with the result of its last execution,
+     * as it has been saved in the database, and get the next Js execution.
+     *
+     * @param jsResultDto The Js result
+     * @return The next Js execution, or null if the widget instance does not exist
+     */
+    @Transactional(readOnly = true)
+    public JsExecutionDto updateJsExecution(JsResultDto jsResultDto) {
+        JsExecutionDescriptor descriptor = descriptorsByProjectWidgetId.computeIfPresent(
+            jsResultDto.getProjectWidgetId(), (projectWidgetId, previous) -> previous.withResult(jsResultDto));
+
+        return descriptor != null ? descriptor.toJsExecutionDto() : getJsExecution(jsResultDto.getProjectWidgetId());
+    }
+
+    /**
+     * Update the widget instance as displayed on the dashboards with the write of the result of a Js execution.
+     * The displayed widget instance is loaded on the first update, with the writes not flushed yet applied.
+     * Then the write is applied to the previous displayed widget instance, and the HTML is instantiated
+     * again from the compiled template when the data changes.
+     * The view is only stored in the descriptor it has been built from. If the descriptor has been replaced
+     * in the meantime, by another update or by an eviction, the view is built again from the new descriptor.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @param pendingWrite    The write of the result
+     * @return The displayed widget instance, or null if the widget instance does not exist
+     */
+    @Transactional(readOnly = true)
+    public ProjectWidgetResponseDto updateProjectWidgetDto(Long projectWidgetId,
+                                                           JsResultWriterService.PendingWrite pendingWrite) {
+        while (true) {
+            Optional<JsExecutionDescriptor> descriptor = getDescriptor(projectWidgetId);
+
+            if (descriptor.isEmpty()) {
+                return null;
+            }
+
+            ProjectWidgetView view = buildProjectWidgetView(projectWidgetId, descriptor.get().getView(), pendingWrite);
+
+            if (view == null) {
+                return null;
+            }
+
+            if (descriptorsByProjectWidgetId.replace(projectWidgetId, descriptor.get(),
+                descriptor.get().withView(view))) {
+                return view.getProjectWidgetDto();
+            }
+        }
+    }
+
+    /**
+     * Build the widget instance as displayed on the dashboards with the write of the result of a Js execution.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @param view            The previous displayed widget instance, null if it is not loaded yet
+     * @param pendingWrite    The write of the result
+     * @return The displayed widget instance, or null if the widget instance does not exist
+     */
+    private ProjectWidgetView buildProjectWidgetView(Long projectWidgetId, ProjectWidgetView view,
+                                                     JsResultWriterService.PendingWrite pendingWrite) {
+        if (view != null) {
+            return pendingWrite != null ? view.withWrite(pendingWrite) : view;
+        }
+
+        Optional<ProjectWidget> projectWidget = projectWidgetService.getOne(projectWidgetId);
+
+        if (projectWidget.isEmpty()) {
+            return null;
+        }
+
+        JsResultWriterService.PendingWrite notFlushedWrite = jsResultWriterService.getPendingWrite(projectWidgetId);
+        if (notFlushedWrite != null) {
+            notFlushedWrite.applyTo(projectWidget.get());
+        }
+
+        return new ProjectWidgetView(projectWidgetMapper.toProjectWidgetDto(projectWidget.get()),
+            projectWidgetService.getHtmlTemplate(projectWidget.get()));
+    }
+
+    /**
+     * Check if the data of a valid Js result is unchanged since the last execution of a running widget instance,
+     * by comparing the hash of the data with the hash of the previous data.
+     *
+     * @param jsResultDto The Js result
+     * @return true if the data is unchanged, false otherwise or if the descriptor is not loaded
+     */
+    public boolean isUnchanged(JsResultDto jsResultDto) {
+        if (!jsResultDto.isValid()) {
+            return false;
+        }
+
+        JsExecutionDescriptor descriptor = descriptorsByProjectWidgetId.get(jsResultDto.getProjectWidgetId());
+
+        return descriptor != null
+            && descriptor.isRunning()
+            && Objects.equals(descriptor.getDataHash(), JsExecutionDescriptor.hash(jsResultDto.getData()));
+    }
+
+    /**
+     * Evict the execution descriptor of a widget instance.
+     *
+     * @param projectWidgetId The widget instance ID
+     */
+    public void evict(Long projectWidgetId) {
+        evictIf(descriptor -> Objects.equals(descriptor.getProjectWidgetId(), projectWidgetId));
+    }
+
+    /**
+     * Evict the execution descriptors of the instances of a widget.
+     *
+     * @param widgetId The widget ID
+     */
+    public void evictByWidget(Long widgetId) {
+        evictIf(descriptor -> Objects.equals(descriptor.getWidgetId(), widgetId));
+    }
+
+    /**
+     * Evict the execution descriptors of the instances of the widgets of a category.
+     *
+     * @param categoryId The category ID
+     */
+    public void evictByCategory(Long categoryId) {
+        evictIf(descriptor -> Objects.equals(descriptor.getCategoryId(), categoryId));
+    }
+
+    /**
+     * Evict all the execution descriptors.
+     */
+    public void evictAll() {
+        evictIf(descriptor -> true);
+    }
+
+    /**
+     * Count the execution descriptors.
+     *
+     * @return The number of execution descriptors
+     */
+    public int countDescriptors() {
+        return descriptorsByProjectWidgetId.size();
+    }
+
+    /**
+     * Evict the matching execution descriptors now, and again once the current transaction is committed,
+     * so a descriptor loaded before the commit cannot outlive the change.
+     *
+     * @param predicate The predicate matching the descriptors to evict
+     */
+    private void evictIf(Predicate<JsExecutionDescriptor> predicate) {
+        descriptorsByProjectWidgetId.values().removeIf(predicate);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    descriptorsByProjectWidgetId.values().removeIf(predicate);
+                }
+            });
+        }
+    }
+
+    /**
+     * Get the execution descriptor of a widget instance, loading it from the database if needed.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @return The execution descriptor, empty if the widget instance does not exist
+     */
+    private Optional<JsExecutionDescriptor> getDescriptor(Long projectWidgetId) {
+        if (projectWidgetId == null) {
+            return Optional.empty();
+        }
+
+        JsExecutionDescriptor descriptor = descriptorsByProjectWidgetId.get(projectWidgetId);
+
+        if (descriptor == null) {
+            Optional<ProjectWidget> projectWidget = projectWidgetService.getOne(projectWidgetId);
+
+            if (projectWidget.isEmpty() || projectWidget.get().getWidget() == null) {
+                return Optional.empty();
+            }
+
+            log.debug("Loading the execution descriptor of the widget instance {}", projectWidgetId);
+
+            JsExecutionDto jsExecutionDto = jsExecutionService.createJsExecutionByProjectWidget(projectWidget.get());
+
+            // The result of the last execution may not be written to the database yet
+            JsResultWriterService.PendingWrite pendingWrite = jsResultWriterService.getPendingWrite(projectWidgetId);
+            if (pendingWrite != null) {
+                pendingWrite.applyTo(jsExecutionDto);
+            }
+
+            descriptor = new JsExecutionDescriptor(projectWidget.get().getWidget().getId(),
+                projectWidget.get().getWidget().getCategory() != null
+                    ? projectWidget.get().getWidget().getCategory().getId() : null,
+                jsExecutionDto,
+                List.copyOf(widgetService.getWidgetParametersForJsExecution(projectWidget.get().getWidget())));
+
+            JsExecutionDescriptor previous = descriptorsByProjectWidgetId.putIfAbsent(projectWidgetId, descriptor);
+            if (previous != null) {
+                descriptor = previous;
+            }
+        }
+
+        return Optional.of(descriptor);
+    }
+
+    /**
+     * Immutable execution descriptor of a widget instance.
+     */
+    @Getter
+    private static class JsExecutionDescriptor {
+        private final Long widgetId;
+
+        private final Long categoryId;
+
+        /**
+         * The Js execution, never exposed as it is mutable.
+         */
+        @Getter(AccessLevel.NONE)
+        private final JsExecutionDto jsExecution;
+
+        private final List<WidgetVariableResponseDto> widgetParameters;
+
+        private final HashCode dataHash;
+
+        /**
+         * The widget instance as displayed on the dashboards, null until the first notification.
+         */
+        private final ProjectWidgetView view;
+
+        /**
+         * Constructor.
+         *
+         * @param widgetId         The widget ID
+         * @param categoryId       The category ID
+         * @param jsExecution      The Js execution
+         * @param widgetParameters The widget parameters
+         */
+        JsExecutionDescriptor(Long widgetId, Long categoryId, JsExecutionDto jsExecution,
+                              List<WidgetVariableResponseDto> widgetParameters) {
+            this(widgetId, categoryId, jsExecution, widgetParameters, hash(jsExecution.getPreviousData()), null);
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param widgetId         The widget ID
+         * @param categoryId       The category ID
+         * @param jsExecution      The Js execution
+         * @param widgetParameters The widget parameters
+         * @param dataHash         The hash of the previous data
+         * @param view             The widget instance as displayed on the dashboards
+         */
+        private JsExecutionDescriptor(Long widgetId, Long categoryId, JsExecutionDto jsExecution,
+                                      List<WidgetVariableResponseDto> widgetParameters, HashCode dataHash,
+                                      ProjectWidgetView view) {
+            this.widgetId = widgetId;
+            this.categoryId = categoryId;
+            this.jsExecution = jsExecution;
+            this.widgetParameters = widgetParameters;
+            this.dataHash = dataHash;
+            this.view = view;
+        }
+
+        /**
+         * Hash the data of a Js execution.
+         *
+         * @param data The data
+         * @return The hash, null if there is no data
+         */
+        static HashCode hash(String data) {
+            return data != null ? Hashing.murmur3_128().hashString(data, StandardCharsets.UTF_8) : null;
+        }
+
+        /**
+         * Check if the widget instance is running.
+         *
+         * @return true if the widget instance is running, false otherwise
+         */
+        boolean isRunning() {
+            return jsExecution.getWidgetState() == WidgetStateEnum.RUNNING;
+        }
+
+        /**
+         * Get the widget instance ID.
+         *
+         * @return The widget instance ID
+         */
+        Long getProjectWidgetId() {
+            return jsExecution.getProjectWidgetId();
+        }
+
+        /**
+         * Create a new Js execution from the descriptor.
+         *
+         * @return The Js execution
+         */
+        JsExecutionDto toJsExecutionDto() {
+            return new JsExecutionDto(jsExecution.getProperties(), jsExecution.getScript(),
+                jsExecution.getWidgetTechnicalName(), jsExecution.getPreviousData(), jsExecution.getProjectId(),
+                jsExecution.getProjectGridId(), jsExecution.getProjectWidgetId(), jsExecution.getDelay(),
+                jsExecution.getTimeout(), jsExecution.getWidgetState(), jsExecution.getLastSuccessDate());
+        }
+
+        /**
+         * Create a new descriptor holding the result of the last execution, as the result is saved in the database:
+         * the data and the success date of a valid result, the state of the widget instance otherwise.
+         *
+         * @param jsResultDto The Js result
+         * @return The new descriptor
+         */
+        JsExecutionDescriptor withResult(JsResultDto jsResultDto) {
+            JsExecutionDto next = toJsExecutionDto();
+
+            if (jsResultDto.isValid()) {
+                next.setPreviousData(jsResultDto.getData());
+                next.setWidgetState(WidgetStateEnum.RUNNING);
+                next.setLastSuccessDate(jsResultDto.getLaunchDate());
+                next.setAlreadySuccess(true);
+            } else {
+                next.setWidgetState(jsResultDto.getError() == JsExecutionErrorTypeEnum.FATAL
+                    ? WidgetStateEnum.STOPPED : WidgetStateEnum.WARNING);
+            }
+
+            return new JsExecutionDescriptor(widgetId, categoryId, next, widgetParameters,
+                hash(next.getPreviousData()), view);
+        }
+
+        /**
+         * Create a new descriptor holding the widget instance as displayed on the dashboards.
+         *
+         * @param view The displayed widget instance
+         * @return The new descriptor
+         */
+        JsExecutionDescriptor withView(ProjectWidgetView view) {
+            return new JsExecutionDescriptor(widgetId, categoryId, jsExecution, widgetParameters, dataHash, view);
+        }
+    }
+
+    /**
+     * Immutable widget instance as displayed on the dashboards, with its compiled HTML template.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class ProjectWidgetView {
+        /**
+         * The displayed widget instance, never modified once sent.
+         */
+        private final ProjectWidgetResponseDto projectWidgetDto;
+
+        private final ProjectWidgetService.HtmlTemplate htmlTemplate;
+
+        /**
+         * Create a new displayed widget instance with the write of the result of a Js execution.
+         *
+         * @param pendingWrite The write of the result
+         * @return The new displayed widget instance
+         */
+        ProjectWidgetView withWrite(JsResultWriterService.PendingWrite pendingWrite) {
+            ProjectWidgetResponseDto next = new ProjectWidgetResponseDto();
+            BeanUtils.copyProperties(projectWidgetDto, next);
+            pendingWrite.applyTo(next);
+
+            if (pendingWrite.getData() != null) {
+                next.setInstantiateHtml(htmlTemplate.render(pendingWrite.getData()));
+            }
+
+            return new ProjectWidgetView(next, htmlTemplate);
+        }
+    }
+}
@@ -82,20 +82,22 @@ public class JsExecutionService {
      * @param projectWidget The project widget
      * @return The related Js execution
      */
-    private JsExecutionDto createJsExecutionByProjectWidget(final ProjectWidget projectWidget) {
+    public JsExecutionDto createJsExecutionByProjectWidget(final ProjectWidget projectWidget) {
         String properties = getProjectWidgetConfigurationsWithGlobalOne(projectWidget,
             projectWidget.getWidget().getCategory().getConfigurations());
         String script = projectWidget.getWidget().getBackendJs();
+        String widgetTechnicalName = projectWidget.getWidget().getTechnicalName();
         String previousData = projectWidget.getData();
         Long projectId = projectWidget.getProjectGrid().getProject().getId();
+        Long projectGridId = projectWidget.getProjectGrid().getId();
         Long technicalId = projectWidget.getId();
         Long delay = projectWidget.getWidget().getDelay();
         Long timeout = projectWidget.getWidget().getTimeout();
         WidgetStateEnum state = projectWidget.getState();
         Date lastSuccess = projectWidget.getLastSuccessDate();
 
-        return new JsExecutionDto(properties, script, previousData, projectId, technicalId, delay, timeout, state,
-            lastSuccess);
+        return new JsExecutionDto(properties, script, widgetTechnicalName, previousData, projectId, projectGridId,
+            technicalId, delay, timeout, state, lastSuccess);
     }
 
     /**
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.utils.http.OkHttpClientUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Js HTTP client service.
+ * Hold the HTTP client shared by all the widget calls, so they share its connection pool,
+ * keep-alive connections and TLS sessions.
+ */
+@Service
+public class JsHttpClientService {
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private JsHttpMetricsService jsHttpMetricsService;
+
+    @Getter
+    private OkHttpClient client;
+
+    /**
+     * Create the shared HTTP client.
+     */
+    @PostConstruct
+    public void init() {
+        client = OkHttpClientUtils.createUnsafeOkHttpClient(getProperties(), jsHttpMetricsService);
+    }
+
+    /**
+     * Get the HTTP properties of the Js executions.
+     *
+     * @return The HTTP properties
+     */
+    public ApplicationProperties.Http getProperties() {
+        return applicationProperties.getJs().getHttp();
+    }
+
+    /**
+     * Close the shared HTTP client.
+     * The calls in progress are canceled, the dispatcher is stopped and the pooled connections are evicted.
+     */
+    @PreDestroy
+    public void close() {
+        if (client != null) {
+            client.dispatcher().cancelAll();
+            client.dispatcher().executorService().shutdown();
+            client.connectionPool().evictAll();
+        }
+    }
+}
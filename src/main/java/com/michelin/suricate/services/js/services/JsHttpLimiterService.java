@@ -0,0 +1,178 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Js HTTP limiter service.
+ * Limit the concurrent calls (bulkhead) and the call rate (token bucket) of the widgets to each remote host,
+ * so a slow remote system cannot hold all the Js execution threads.
+ * The calls exceeding the limits are rejected immediately.
+ * By default, only the concurrent calls are limited, below the size of the Js execution pool.
+ * The call rate is limited when configured.
+ */
+@Slf4j
+@Service
+public class JsHttpLimiterService {
+    private static final String REJECTED_METER = "suricate.js.http.rejected";
+
+    private final Map<String, HostLimiter> limitersByHost = new ConcurrentHashMap<>();
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Acquire a permit to call the given host.
+     *
+     * @param host The host
+     * @return The permit, to close when the call is over
+     * @throws RemoteException If the call exceeds the limits of the host
+     */
+    public Permit acquire(String host) throws RemoteException {
+        HostLimiter hostLimiter = limitersByHost.computeIfAbsent(host, this::createHostLimiter);
+
+        Semaphore semaphore = hostLimiter.getSemaphore();
+        if (semaphore != null && !semaphore.tryAcquire()) {
+            reject(host, "concurrency");
+            throw new RemoteException("Too many concurrent calls to the host " + host + " (limit of "
+                + hostLimiter.getMaxConcurrentCalls() + " calls), the call has been rejected.");
+        }
+
+        if (hostLimiter.getRateLimiter() != null && !hostLimiter.getRateLimiter().tryAcquire()) {
+            if (semaphore != null) {
+                semaphore.release();
+            }
+
+            reject(host, "rate");
+            throw new RemoteException("Too many calls to the host " + host + " (limit of "
+                + hostLimiter.getRateLimiter().getRate() + " calls per second), the call has been rejected.");
+        }
+
+        if (semaphore == null) {
+            return () -> { };
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        };
+    }
+
+    /**
+     * Count the calls in progress to the given host.
+     *
+     * @param host The host
+     * @return The number of calls in progress
+     */
+    public int countCallsInProgress(String host) {
+        HostLimiter hostLimiter = limitersByHost.get(host);
+
+        if (hostLimiter == null || hostLimiter.getSemaphore() == null) {
+            return 0;
+        }
+
+        return hostLimiter.getMaxConcurrentCalls() - hostLimiter.getSemaphore().availablePermits();
+    }
+
+    /**
+     * Count a rejected call.
+     *
+     * @param host   The host
+     * @param reason The limit exceeded by the call
+     */
+    private void reject(String host, String reason) {
+        log.debug("A call to the host {} has been rejected because of the {} limit", host, reason);
+
+        Counter.builder(REJECTED_METER)
+            .description("Number of widget HTTP calls rejected because of the limits of their host")
+            .tag("host", host)
+            .tag("reason", reason)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    /**
+     * Create the limiter of a host from its limits, or from the default ones.
+     * A limit lower than or equal to 0 disables it.
+     *
+     * @param host The host
+     * @return The limiter
+     */
+    private HostLimiter createHostLimiter(String host) {
+        ApplicationProperties.Http properties = applicationProperties.getJs().getHttp();
+        ApplicationProperties.HostLimits hostLimits = properties.getHostLimits().get(host);
+
+        int maxConcurrentCalls = hostLimits != null && hostLimits.getMaxConcurrentCalls() != null
+            ? hostLimits.getMaxConcurrentCalls() : properties.getMaxConcurrentCallsPerHost();
+        double maxCallsPerSecond = hostLimits != null && hostLimits.getMaxCallsPerSecond() != null
+            ? hostLimits.getMaxCallsPerSecond() : properties.getMaxCallsPerSecondPerHost();
+
+        return new HostLimiter(maxConcurrentCalls,
+            maxConcurrentCalls > 0 ? new Semaphore(maxConcurrentCalls) : null,
+            maxCallsPerSecond > 0 ? RateLimiter.create(maxCallsPerSecond) : null);
+    }
+
+    /**
+     * Permit to call a host.
+     */
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        /**
+         * Release the permit.
+         */
+        @Override
+        void close();
+    }
+
+    /**
+     * Limiter of a host.
+     */
+    @Getter
+    @AllArgsConstructor
+    private static class HostLimiter {
+        private final int maxConcurrentCalls;
+
+        /**
+         * The semaphore limiting the concurrent calls, null if unlimited.
+         */
+        private final Semaphore semaphore;
+
+        /**
+         * The token bucket limiting the call rate, null if unlimited.
+         */
+        private final RateLimiter rateLimiter;
+    }
+}
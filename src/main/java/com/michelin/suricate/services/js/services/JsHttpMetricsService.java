@@ -0,0 +1,248 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Response;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Js HTTP metrics service.
+ * Instrument the calls of the widgets to the remote hosts, so the slow or chatty integrations can be found:
+ * latency and status code, bytes sent and received, reuse of the connections and timeouts.
+ * The meters are tagged by host, and by widget technical name when enabled.
+ */
+@Service
+public class JsHttpMetricsService implements EventListener.Factory {
+    private static final String REQUESTS_METER = "suricate.js.http.client.requests";
+
+    private static final String BYTES_SENT_METER = "suricate.js.http.client.bytes.sent";
+
+    private static final String BYTES_RECEIVED_METER = "suricate.js.http.client.bytes.received";
+
+    private static final String CONNECTIONS_METER = "suricate.js.http.client.connections";
+
+    private static final String TIMEOUTS_METER = "suricate.js.http.client.timeouts";
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Create the listener of a call.
+     * The call is created by the thread executing the widget, so the listener is bound to this widget.
+     *
+     * @param call The call
+     * @return The listener recording the metrics of the call
+     */
+    @Override
+    public EventListener create(Call call) {
+        JsEndpointsContext context = JsEndpointsContext.get();
+        Tags tags = Tags.of("host", call.request().url().host());
+
+        if (applicationProperties.getJs().getHttp().isMetricsWidgetTag()) {
+            tags = tags.and("widget", context != null && context.getWidgetTechnicalName() != null
+                ? context.getWidgetTechnicalName() : "none");
+        }
+
+        return new CallMetricsListener(tags, context);
+    }
+
+    /**
+     * Listener recording the metrics of a call.
+     */
+    private class CallMetricsListener extends EventListener {
+        private final Tags tags;
+
+        private final JsEndpointsContext context;
+
+        private long startTime;
+
+        private boolean connecting;
+
+        private String status = "NONE";
+
+        /**
+         * Constructor.
+         *
+         * @param tags    The tags of the meters
+         * @param context The context of the Js execution sending the call, if any
+         */
+        CallMetricsListener(Tags tags, JsEndpointsContext context) {
+            this.tags = tags;
+            this.context = context;
+        }
+
+        /**
+         * Start the timing of the call.
+         *
+         * @param call The call
+         */
+        @Override
+        public void callStart(Call call) {
+            startTime = System.nanoTime();
+        }
+
+        /**
+         * Remember that a new connection is opened for the call.
+         *
+         * @param call              The call
+         * @param inetSocketAddress The address of the host
+         * @param proxy             The proxy
+         */
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connecting = true;
+        }
+
+        /**
+         * Count the connection used by the call, reused from the pool or newly opened.
+         *
+         * @param call       The call
+         * @param connection The connection
+         */
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            Counter.builder(CONNECTIONS_METER)
+                .description("Number of connections acquired by the widget HTTP calls")
+                .tags(tags)
+                .tag("reused", String.valueOf(!connecting))
+                .register(meterRegistry)
+                .increment();
+        }
+
+        /**
+         * Record the bytes of the request body.
+         *
+         * @param call      The call
+         * @param byteCount The number of bytes sent
+         */
+        @Override
+        public void requestBodyEnd(Call call, long byteCount) {
+            DistributionSummary.builder(BYTES_SENT_METER)
+                .description("Size of the request bodies sent by the widget HTTP calls")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(byteCount);
+        }
+
+        /**
+         * Remember the status code of the response.
+         *
+         * @param call     The call
+         * @param response The response
+         */
+        @Override
+        public void responseHeadersEnd(Call call, Response response) {
+            status = String.valueOf(response.code());
+        }
+
+        /**
+         * Record the bytes of the response body.
+         *
+         * @param call      The call
+         * @param byteCount The number of bytes received
+         */
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            DistributionSummary.builder(BYTES_RECEIVED_METER)
+                .description("Size of the response bodies received by the widget HTTP calls")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(byteCount);
+        }
+
+        /**
+         * Record the latency of the succeeded call.
+         *
+         * @param call The call
+         */
+        @Override
+        public void callEnd(Call call) {
+            recordCall(status);
+        }
+
+        /**
+         * Record the latency of the failed call, and count it if it timed out.
+         * The call timeouts cancel the call, so the failure is classified by its cause first, and counted as
+         * canceled only when the execution of the widget has been canceled.
+         *
+         * @param call The call
+         * @param ioe  The cause of the failure
+         */
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            if (isTimeout(ioe)) {
+                Counter.builder(TIMEOUTS_METER)
+                    .description("Number of widget HTTP calls which timed out")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+
+                recordCall("TIMEOUT");
+            } else {
+                recordCall(context != null && context.isCanceled() ? "CANCELED" : "IO_ERROR");
+            }
+        }
+
+        /**
+         * Check if a call failed because of a connect, read, write or call timeout.
+         *
+         * @param ioe The cause of the failure
+         * @return true if the call timed out, false otherwise
+         */
+        private boolean isTimeout(IOException ioe) {
+            return ioe instanceof SocketTimeoutException
+                || (ioe instanceof InterruptedIOException && "timeout".equals(ioe.getMessage()));
+        }
+
+        /**
+         * Record the latency of the call.
+         *
+         * @param callStatus The status code of the response, or the cause of the failure
+         */
+        private void recordCall(String callStatus) {
+            Timer.builder(REQUESTS_METER)
+                .description("Latency of the widget HTTP calls")
+                .tags(tags)
+                .tag("status", callStatus)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+        }
+    }
+}
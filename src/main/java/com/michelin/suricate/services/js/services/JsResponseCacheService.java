@@ -0,0 +1,669 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.hash.Hashing;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.Call;
+import okhttp3.Headers;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * Js response cache service.
+ * Hold the responses of the GET requests sent by the widgets, so identical requests sent
+ * by several widget instances within the time to live are answered from memory.
+ * The cache is bounded, the least recently used responses are evicted first.
+ * Also coalesce the identical GET requests in flight, so the callers of a request already running
+ * wait for its response instead of opening another connection. The request is canceled when the executions
+ * of all its callers have been canceled.
+ * Also hold the last response of the GET requests having validators (ETag or Last-Modified), so they are
+ * revalidated by conditional requests. The least recently used ones overflow to the disk if configured,
+ * where the number of files is bounded too.
+ */
+@Slf4j
+@Service
+public class JsResponseCacheService {
+    private static final String KEY_SEPARATOR = " ";
+
+    private static final String OVERFLOW_FILE_EXTENSION = ".json";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Getter
+    private final AtomicLong hits = new AtomicLong();
+
+    @Getter
+    private final AtomicLong misses = new AtomicLong();
+
+    @Getter
+    private final AtomicLong coalesced = new AtomicLong();
+
+    @Getter
+    private final AtomicLong revalidated = new AtomicLong();
+
+    private final Map<String, InFlightRequest> inFlightRequestsByKey = new ConcurrentHashMap<>();
+
+    private Cache<String, CachedResponse> responsesByKey;
+
+    private Cache<String, CachedResponse> validatedResponsesByKey;
+
+    private File overflowDirectory;
+
+    private Cache<String, File> overflowFilesByKey;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Init the cache and register its metrics.
+     */
+    @PostConstruct
+    public void init() {
+        responsesByKey = CacheBuilder.newBuilder()
+            .maximumSize(applicationProperties.getJs().getHttp().getCacheMaxEntries())
+            .build();
+
+        initOverflowDirectory();
+        validatedResponsesByKey = CacheBuilder.newBuilder()
+            .maximumSize(applicationProperties.getJs().getHttp().getRevalidationMaxEntries())
+            .removalListener((RemovalNotification<String, CachedResponse> notification) -> {
+                if (notification.wasEvicted()) {
+                    writeOverflow(notification.getKey(), notification.getValue());
+                }
+            })
+            .build();
+
+        FunctionCounter.builder("suricate.js.http.cache.hits", hits, AtomicLong::get)
+            .description("Number of widget GET requests answered from the response cache")
+            .register(meterRegistry);
+        FunctionCounter.builder("suricate.js.http.cache.misses", misses, AtomicLong::get)
+            .description("Number of cacheable widget GET requests sent to the remote system")
+            .register(meterRegistry);
+        FunctionCounter.builder("suricate.js.http.coalesced", coalesced, AtomicLong::get)
+            .description("Number of widget GET requests which waited for an identical request in flight")
+            .register(meterRegistry);
+        FunctionCounter.builder("suricate.js.http.revalidated", revalidated, AtomicLong::get)
+            .description("Number of widget GET requests answered from memory after a not modified response")
+            .register(meterRegistry);
+        Gauge.builder("suricate.js.http.cache.hit.ratio", this, JsResponseCacheService::getHitRatio)
+            .description("Ratio of cacheable widget GET requests answered from the response cache")
+            .register(meterRegistry);
+        Gauge.builder("suricate.js.http.cache.size", this, JsResponseCacheService::countResponses)
+            .description("Number of responses held by the response cache")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Get the time to live of the responses cached for the widget executed by the current thread.
+     *
+     * @return The time to live in seconds, 0 when the responses are not cached
+     */
+    public long getTimeToLive() {
+        JsEndpointsContext context = JsEndpointsContext.get();
+
+        if (context != null && context.getCacheTtl() != null) {
+            return Math.max(context.getCacheTtl(), 0);
+        }
+
+        return Math.max(applicationProperties.getJs().getHttp().getCacheTtl(), 0);
+    }
+
+    /**
+     * Check if the GET responses of the widget executed by the current thread are shared with other widgets,
+     * either because they are cached or because the identical requests in flight are coalesced.
+     *
+     * @return true if the responses are shared, false otherwise
+     */
+    public boolean isShared() {
+        return applicationProperties.getJs().getHttp().isCoalescing() || isRevalidation() || getTimeToLive() > 0;
+    }
+
+    /**
+     * Check if the GET responses having validators are revalidated by conditional requests.
+     *
+     * @return true if the responses are revalidated, false otherwise
+     */
+    public boolean isRevalidation() {
+        return applicationProperties.getJs().getHttp().isRevalidation();
+    }
+
+    /**
+     * Get the response of a request.
+     * The response is taken from the cache if the widget has a time to live. Otherwise, if an identical
+     * request is in flight, wait for its response. Otherwise, load the response and share it with the
+     * identical requests sent in the meantime.
+     *
+     * @param key    The key of the request
+     * @param loader The loader sending the request
+     * @return The response
+     * @throws IOException     If an error occurred during the execution of the request
+     * @throws RemoteException If the request has been rejected
+     */
+    public CachedResponse getResponse(String key, ResponseLoader loader) throws IOException, RemoteException {
+        long timeToLive = getTimeToLive();
+
+        if (timeToLive > 0) {
+            CachedResponse cachedResponse = get(key, timeToLive);
+            if (cachedResponse != null) {
+                return cachedResponse;
+            }
+        }
+
+        if (!applicationProperties.getJs().getHttp().isCoalescing()) {
+            return put(key, loader.load(null), timeToLive);
+        }
+
+        while (true) {
+            InFlightRequest inFlightRequest = new InFlightRequest();
+            InFlightRequest existingInFlightRequest = inFlightRequestsByKey.putIfAbsent(key, inFlightRequest);
+
+            if (existingInFlightRequest == null) {
+                return load(key, inFlightRequest, loader, timeToLive);
+            }
+
+            if (existingInFlightRequest.join()) {
+                coalesced.incrementAndGet();
+                return waitFor(existingInFlightRequest);
+            }
+
+            // All the callers of the request in flight have been canceled, send the request again
+            inFlightRequestsByKey.remove(key, existingInFlightRequest);
+        }
+    }
+
+    /**
+     * Load the response of a request and share it with the identical requests sent in the meantime.
+     *
+     * @param key             The key of the request
+     * @param inFlightRequest The request in flight
+     * @param loader          The loader sending the request
+     * @param timeToLive      The time to live of the widget in seconds
+     * @return The response
+     * @throws IOException     If an error occurred during the execution of the request
+     * @throws RemoteException If the request has been rejected
+     */
+    private CachedResponse load(String key, InFlightRequest inFlightRequest, ResponseLoader loader,
+                                long timeToLive) throws IOException, RemoteException {
+        inFlightRequest.watchCaller();
+
+        try {
+            CachedResponse response = put(key, loader.load(inFlightRequest), timeToLive);
+            inFlightRequest.getResponse().complete(response);
+            return response;
+        } catch (IOException | RemoteException | RuntimeException e) {
+            inFlightRequest.getResponse().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightRequestsByKey.remove(key, inFlightRequest);
+        }
+    }
+
+    /**
+     * Wait for the response of an identical request in flight.
+     * The wait ends when the execution of the widget is canceled.
+     *
+     * @param inFlightRequest The request in flight
+     * @return The response
+     * @throws IOException     If an error occurred during the execution of the request or if the wait is interrupted
+     * @throws RemoteException If the request in flight has been rejected
+     */
+    private CachedResponse waitFor(InFlightRequest inFlightRequest) throws IOException, RemoteException {
+        try {
+            return inFlightRequest.watchCaller().get();
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Canceled while waiting for an identical request in flight");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an identical request in flight");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (e.getCause() instanceof RemoteException remoteException) {
+                throw remoteException;
+            }
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Get a cached response.
+     * The age of the response is compared to the time to live of the reader, not of the widget which cached it,
+     * so a widget never gets a response older than its own time to live.
+     *
+     * @param key        The key of the request
+     * @param timeToLive The time to live of the reader in seconds
+     * @return The cached response, or null if there is none or if it is older than the time to live
+     */
+    public CachedResponse get(String key, long timeToLive) {
+        CachedResponse cachedResponse = responsesByKey.getIfPresent(key);
+
+        if (cachedResponse != null
+            && System.nanoTime() - cachedResponse.getFetchedAt() >= TimeUnit.SECONDS.toNanos(timeToLive)) {
+            cachedResponse = null;
+        }
+
+        if (cachedResponse == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return cachedResponse;
+    }
+
+    /**
+     * Cache a response, with the time it has been fetched.
+     * Only the successful responses of the widgets having a time to live are cached.
+     *
+     * @param key        The key of the request
+     * @param response   The response
+     * @param timeToLive The time to live of the widget in seconds
+     * @return The cached response
+     */
+    public CachedResponse put(String key, CachedResponse response, long timeToLive) {
+        CachedResponse cachedResponse = new CachedResponse(response.getCode(), response.getHeaders(),
+            response.getBody(), System.nanoTime());
+
+        if (timeToLive > 0 && cachedResponse.isSuccessful()) {
+            responsesByKey.put(key, cachedResponse);
+        }
+
+        return cachedResponse;
+    }
+
+    /**
+     * Get the last response having validators of a request, from the memory or from the overflow directory.
+     *
+     * @param key The key of the request
+     * @return The last response, or null if there is none
+     */
+    public CachedResponse getValidatedResponse(String key) {
+        CachedResponse validatedResponse = validatedResponsesByKey.getIfPresent(key);
+
+        if (validatedResponse == null) {
+            validatedResponse = readOverflow(key);
+
+            if (validatedResponse != null) {
+                validatedResponsesByKey.put(key, validatedResponse);
+            }
+        }
+
+        return validatedResponse;
+    }
+
+    /**
+     * Hold the response of a request if it has validators.
+     *
+     * @param key      The key of the request
+     * @param response The response
+     */
+    public void putValidatedResponse(String key, CachedResponse response) {
+        if (response.isSuccessful() && response.hasValidators()) {
+            validatedResponsesByKey.put(key, response);
+        } else {
+            validatedResponsesByKey.invalidate(key);
+        }
+    }
+
+    /**
+     * Count a request answered from memory after a not modified response.
+     */
+    public void countRevalidated() {
+        revalidated.incrementAndGet();
+    }
+
+    /**
+     * Count the responses having validators held in memory.
+     *
+     * @return The number of responses
+     */
+    public long countValidatedResponses() {
+        return validatedResponsesByKey.size();
+    }
+
+    /**
+     * Create the overflow directory of the responses having validators and remove the responses
+     * left by a previous run.
+     * The files of the least recently written responses are deleted when the directory is full.
+     */
+    private void initOverflowDirectory() {
+        String directory = applicationProperties.getJs().getHttp().getRevalidationOverflowDirectory();
+
+        if (StringUtils.isBlank(directory)) {
+            overflowDirectory = null;
+            return;
+        }
+
+        overflowDirectory = new File(directory);
+
+        try {
+            FileUtils.forceMkdir(overflowDirectory);
+            FileUtils.cleanDirectory(overflowDirectory);
+        } catch (IOException e) {
+            log.error("Cannot use the directory {} to hold the HTTP responses of the widgets", directory, e);
+            overflowDirectory = null;
+            return;
+        }
+
+        overflowFilesByKey = CacheBuilder.newBuilder()
+            .maximumSize(applicationProperties.getJs().getHttp().getRevalidationOverflowMaxEntries())
+            .removalListener((RemovalNotification<String, File> notification) -> {
+                if (notification.wasEvicted()) {
+                    FileUtils.deleteQuietly(notification.getValue());
+                }
+            })
+            .build();
+    }
+
+    /**
+     * Write a response evicted from the memory to the overflow directory.
+     *
+     * @param key      The key of the request
+     * @param response The response
+     */
+    private void writeOverflow(String key, CachedResponse response) {
+        if (overflowDirectory == null || key == null || response == null) {
+            return;
+        }
+
+        Map<String, Object> content = new HashMap<>();
+        content.put("code", response.getCode());
+        content.put("headers", response.getHeaders().toMultimap());
+        content.put("body", response.getBody());
+
+        File file = getOverflowFile(key);
+
+        try {
+            OBJECT_MAPPER.writeValue(file, content);
+            overflowFilesByKey.put(key, file);
+        } catch (IOException e) {
+            log.warn("Cannot write the HTTP response of the request {} to the overflow directory", key, e);
+        }
+    }
+
+    /**
+     * Read a response from the overflow directory and remove it from the directory.
+     *
+     * @param key The key of the request
+     * @return The response, or null if there is none
+     */
+    private CachedResponse readOverflow(String key) {
+        if (overflowDirectory == null) {
+            return null;
+        }
+
+        File file = overflowFilesByKey.asMap().remove(key);
+        if (file == null || !file.exists()) {
+            return null;
+        }
+
+        try {
+            JsonNode content = OBJECT_MAPPER.readTree(file);
+            Headers.Builder headers = new Headers.Builder();
+            content.get("headers").fields().forEachRemaining(header ->
+                header.getValue().forEach(value -> headers.add(header.getKey(), value.asText())));
+
+            return new CachedResponse(content.get("code").asInt(), headers.build(),
+                content.get("body").isNull() ? null : content.get("body").asText());
+        } catch (IOException e) {
+            log.warn("Cannot read the HTTP response of the request {} from the overflow directory", key, e);
+            return null;
+        } finally {
+            FileUtils.deleteQuietly(file);
+        }
+    }
+
+    /**
+     * Get the overflow file of a request.
+     *
+     * @param key The key of the request
+     * @return The file
+     */
+    private File getOverflowFile(String key) {
+        return new File(overflowDirectory,
+            Hashing.sha256().hashString(key, StandardCharsets.UTF_8) + OVERFLOW_FILE_EXTENSION);
+    }
+
+    /**
+     * Get the ratio of the cacheable requests answered from the cache.
+     *
+     * @return The hit ratio, between 0 and 1
+     */
+    public double getHitRatio() {
+        long requests = hits.get() + misses.get();
+        return requests == 0 ? 0 : (double) hits.get() / requests;
+    }
+
+    /**
+     * Count the cached responses.
+     *
+     * @return The number of cached responses
+     */
+    public long countResponses() {
+        return responsesByKey.size();
+    }
+
+    /**
+     * Remove all the cached responses.
+     */
+    public void invalidateAll() {
+        responsesByKey.invalidateAll();
+    }
+
+    /**
+     * Build the cache key of a request.
+     * The header value is hashed so the credentials sent by the widgets are not held in the keys.
+     *
+     * @param method      The method of the request
+     * @param url         The URL of the request
+     * @param headerName  The name of the header of the request
+     * @param headerValue The value of the header of the request
+     * @return The cache key
+     */
+    public static String getKey(String method, String url, String headerName, String headerValue) {
+        String key = method + KEY_SEPARATOR + url;
+
+        if (StringUtils.isNotBlank(headerName)) {
+            key += KEY_SEPARATOR + headerName.toLowerCase() + KEY_SEPARATOR
+                + Hashing.sha256().hashString(StringUtils.defaultString(headerValue), StandardCharsets.UTF_8);
+        }
+
+        return key;
+    }
+
+    /**
+     * Response held by the cache.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class CachedResponse {
+        private final int code;
+
+        private final Headers headers;
+
+        private final String body;
+
+        private final long fetchedAt;
+
+        /**
+         * Constructor of a response not cached yet.
+         *
+         * @param code    The status code of the response
+         * @param headers The headers of the response
+         * @param body    The body of the response
+         */
+        public CachedResponse(int code, Headers headers, String body) {
+            this(code, headers, body, 0);
+        }
+
+        /**
+         * Check if the response is successful.
+         *
+         * @return true if the status code is 2xx, false otherwise
+         */
+        public boolean isSuccessful() {
+            return code >= HttpStatus.OK.value() && code < HttpStatus.MULTIPLE_CHOICES.value();
+        }
+
+        /**
+         * Check if the response has validators to revalidate it by a conditional request.
+         *
+         * @return true if the response has an ETag or a Last-Modified header, false otherwise
+         */
+        public boolean hasValidators() {
+            return headers.get(HttpHeaders.ETAG) != null || headers.get(HttpHeaders.LAST_MODIFIED) != null;
+        }
+    }
+
+    /**
+     * GET request in flight, shared by the widget executions which sent it.
+     * The call of the request is canceled once the executions of all its callers have been canceled.
+     */
+    public static class InFlightRequest {
+        @Getter(AccessLevel.PRIVATE)
+        private final CompletableFuture<CachedResponse> response = new CompletableFuture<>();
+
+        /**
+         * The number of callers waiting for the response, 0 once they have all been canceled.
+         */
+        private final AtomicInteger callers = new AtomicInteger(1);
+
+        private volatile Call call;
+
+        /**
+         * Watch the call of the request, so it is canceled once all the callers have been canceled.
+         * The call is canceled right away if they have already been canceled.
+         *
+         * @param call The call
+         */
+        public void watch(Call call) {
+            this.call = call;
+
+            if (callers.get() == 0) {
+                call.cancel();
+            }
+        }
+
+        /**
+         * Add a caller to the request.
+         *
+         * @return false if all the callers have already been canceled, true otherwise
+         */
+        private boolean join() {
+            int current;
+            do {
+                current = callers.get();
+                if (current == 0) {
+                    return false;
+                }
+            } while (!callers.compareAndSet(current, current + 1));
+
+            return true;
+        }
+
+        /**
+         * Watch the execution of the caller running on the current thread.
+         * When it is canceled before the response is received, the caller stops waiting for the response
+         * and leaves the request.
+         *
+         * @return The response of the request, as seen by the caller
+         */
+        private CompletableFuture<CachedResponse> watchCaller() {
+            CompletableFuture<CachedResponse> callerResponse = response.copy();
+            JsEndpointsContext context = JsEndpointsContext.get();
+
+            if (context != null) {
+                context.onCancel(() -> {
+                    if (callerResponse.cancel(false)) {
+                        leave();
+                    }
+                });
+            }
+
+            return callerResponse;
+        }
+
+        /**
+         * Remove a canceled caller from the request, and cancel the call if it was the last one.
+         */
+        private void leave() {
+            if (callers.decrementAndGet() == 0) {
+                Call watchedCall = call;
+
+                if (watchedCall != null) {
+                    watchedCall.cancel();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loader sending a request.
+     */
+    @FunctionalInterface
+    public interface ResponseLoader {
+        /**
+         * Send the request and read its response.
+         *
+         * @param inFlightRequest The request in flight watching the call, null if the request is not coalesced
+         * @return The response
+         * @throws IOException     If an error occurred during the execution of the request
+         * @throws RemoteException If the request has been rejected
+         */
+        CachedResponse load(InFlightRequest inFlightRequest) throws IOException, RemoteException;
+    }
+}
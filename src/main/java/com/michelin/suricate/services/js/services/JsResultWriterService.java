@@ -0,0 +1,408 @@
+/*
+ * Copyright 2012-2021 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.michelin.suricate.services.js.services;
+
+import com.google.common.collect.Lists;
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
+import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.entities.ProjectWidget;
+import com.michelin.suricate.model.enums.WidgetStateEnum;
+import com.michelin.suricate.properties.ApplicationProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Js result writer service.
+ * Write the results of the Js executions to the widget instances behind the executions: the results are
+ * collected in memory, only the latest one per widget instance is kept, and they are flushed as JDBC batch
+ * updates on a short interval, when the batch size is reached, and on shutdown.
+ */
+@Slf4j
+@Service
+public class JsResultWriterService {
+    private static final String UPDATE_PROJECT_WIDGET = "UPDATE project_widget SET "
+        + "last_execution_date = COALESCE(?, last_execution_date), "
+        + "last_success_date = COALESCE(?, last_success_date), "
+        + "state = COALESCE(?, state), "
+        + "log = COALESCE(?, log), "
+        + "data = COALESCE(?, data) "
+        + "WHERE id = ?";
+
+    private static final int[] UPDATE_PROJECT_WIDGET_TYPES =
+        {Types.TIMESTAMP, Types.TIMESTAMP, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BIGINT};
+
+    private final Map<Long, PendingWrite> pendingWritesByProjectWidgetId = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final Lock flushLock = new ReentrantLock();
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ScheduledExecutorService flushExecutor;
+
+    /**
+     * Start to flush the pending writes periodically.
+     */
+    @PostConstruct
+    public void init() {
+        ApplicationProperties.WriteBehind properties = applicationProperties.getJs().getWriteBehind();
+
+        if (properties.isEnabled()) {
+            flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "js-result-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            flushExecutor.scheduleWithFixedDelay(this::flush, properties.getFlushInterval(),
+                properties.getFlushInterval(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Write the result of a succeeded Js execution.
+     *
+     * @param executionDate   The execution date
+     * @param executionLog    The log of the execution
+     * @param data            The data returned by the execution
+     * @param projectWidgetId The widget instance ID
+     * @param widgetState     The widget state
+     * @return The write of the result
+     */
+    public PendingWrite writeSucceededExecution(Date executionDate, String executionLog, String data,
+                                                Long projectWidgetId, WidgetStateEnum widgetState) {
+        return write(projectWidgetId,
+            new PendingWrite(executionDate, executionDate, widgetState, executionLog, data));
+    }
+
+    /**
+     * Write the result of a succeeded Js execution whose data is unchanged.
+     * Only the execution dates are written, the data, the log and the state are left unchanged.
+     *
+     * @param executionDate   The execution date
+     * @param projectWidgetId The widget instance ID
+     */
+    public void writeUnchangedExecution(Date executionDate, Long projectWidgetId) {
+        write(projectWidgetId, new PendingWrite(executionDate, executionDate, null, null, null));
+    }
+
+    /**
+     * Write the result of a failed Js execution.
+     *
+     * @param executionDate   The execution date
+     * @param executionLog    The log of the execution
+     * @param projectWidgetId The widget instance ID
+     * @param widgetState     The widget state
+     * @return The write of the result
+     */
+    public PendingWrite writeFailedExecution(Date executionDate, String executionLog, Long projectWidgetId,
+                                             WidgetStateEnum widgetState) {
+        return write(projectWidgetId, new PendingWrite(executionDate, null, widgetState, executionLog, null));
+    }
+
+    /**
+     * Write the state of a widget instance.
+     *
+     * @param widgetState     The widget state
+     * @param projectWidgetId The widget instance ID
+     * @param executionDate   The execution date, null to keep the current one
+     */
+    public void writeState(WidgetStateEnum widgetState, Long projectWidgetId, Date executionDate) {
+        write(projectWidgetId, new PendingWrite(executionDate, null, widgetState, null, null));
+    }
+
+    /**
+     * Get the write of a widget instance not flushed yet.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @return The pending write, null if there is none
+     */
+    public PendingWrite getPendingWrite(Long projectWidgetId) {
+        return projectWidgetId != null ? pendingWritesByProjectWidgetId.get(projectWidgetId) : null;
+    }
+
+    /**
+     * Count the writes not flushed yet.
+     *
+     * @return The number of pending writes
+     */
+    public int countPendingWrites() {
+        return pendingWritesByProjectWidgetId.size();
+    }
+
+    /**
+     * Flush the pending writes as JDBC batch updates, in a new transaction.
+     * The flushes are not concurrent, so an older write cannot overwrite a newer one. If a flush is running,
+     * the caller does not wait for it, a connection may be held by the caller: the running flush flushes
+     * the writes pending at its end again.
+     * The writes of a failed flush are kept pending, unless newer writes replaced them.
+     */
+    public void flush() {
+        boolean flushed = true;
+
+        while (flushed && !pendingWritesByProjectWidgetId.isEmpty() && flushLock.tryLock()) {
+            try {
+                flushed = flushPendingWrites();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flush the pending writes once.
+     * Must be called by the holder of the flush lock.
+     *
+     * @return true if the pending writes have been flushed, false if the flush failed
+     */
+    private boolean flushPendingWrites() {
+        flushRequested.set(false);
+
+        Map<Long, PendingWrite> pendingWrites = new LinkedHashMap<>();
+
+        for (Long projectWidgetId : pendingWritesByProjectWidgetId.keySet()) {
+            PendingWrite pendingWrite = pendingWritesByProjectWidgetId.remove(projectWidgetId);
+
+            if (pendingWrite != null) {
+                pendingWrites.put(projectWidgetId, pendingWrite);
+            }
+        }
+
+        if (pendingWrites.isEmpty()) {
+            return true;
+        }
+
+        log.debug("Flushing the results of {} widget instances", pendingWrites.size());
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        pendingWrites.forEach((projectWidgetId, pendingWrite) ->
+            batchArgs.add(pendingWrite.toBatchArgs(projectWidgetId)));
+
+        int batchSize = Math.max(applicationProperties.getJs().getWriteBehind().getBatchSize(), 1);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> Lists.partition(batchArgs, batchSize)
+                .forEach(batch -> jdbcTemplate.batchUpdate(UPDATE_PROJECT_WIDGET, batch,
+                    UPDATE_PROJECT_WIDGET_TYPES)));
+        } catch (DataAccessException | TransactionException e) {
+            log.error("An error has occurred when flushing the results of {} widget instances",
+                pendingWrites.size(), e);
+
+            pendingWrites.forEach((projectWidgetId, pendingWrite) -> pendingWritesByProjectWidgetId.merge(
+                projectWidgetId, pendingWrite, (newer, failed) -> failed.mergeWith(newer)));
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Stop the periodic flush and flush the pending writes.
+     */
+    @PreDestroy
+    public void close() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+            flushExecutor = null;
+        }
+
+        flush();
+    }
+
+    /**
+     * Keep the write of a widget instance pending, merged with its previous pending write.
+     * The writes are flushed immediately when the write-behind is disabled, and as soon as possible when the
+     * batch size is reached. The flush must not be run in a transaction of the caller, as it uses another
+     * connection.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @param pendingWrite    The write
+     * @return The write
+     */
+    private PendingWrite write(Long projectWidgetId, PendingWrite pendingWrite) {
+        if (projectWidgetId == null) {
+            return pendingWrite;
+        }
+
+        pendingWritesByProjectWidgetId.merge(projectWidgetId, pendingWrite, PendingWrite::mergeWith);
+
+        ApplicationProperties.WriteBehind properties = applicationProperties.getJs().getWriteBehind();
+        ScheduledExecutorService executor = flushExecutor;
+
+        if (!properties.isEnabled() || executor == null) {
+            flush();
+        } else if (pendingWritesByProjectWidgetId.size() >= properties.getBatchSize()
+            && flushRequested.compareAndSet(false, true)) {
+            executor.execute(this::flush);
+        }
+
+        return pendingWrite;
+    }
+
+    /**
+     * Immutable write of the result of a Js execution to a widget instance.
+     * The null values leave the columns unchanged.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class PendingWrite {
+        private final Date lastExecutionDate;
+
+        private final Date lastSuccessDate;
+
+        private final WidgetStateEnum state;
+
+        private final String log;
+
+        private final String data;
+
+        /**
+         * Merge a newer write into this one.
+         *
+         * @param newer The newer write
+         * @return The merged write
+         */
+        PendingWrite mergeWith(PendingWrite newer) {
+            return new PendingWrite(
+                newer.lastExecutionDate != null ? newer.lastExecutionDate : lastExecutionDate,
+                newer.lastSuccessDate != null ? newer.lastSuccessDate : lastSuccessDate,
+                newer.state != null ? newer.state : state,
+                newer.log != null ? newer.log : log,
+                newer.data != null ? newer.data : data);
+        }
+
+        /**
+         * Apply the write to a widget instance.
+         *
+         * @param projectWidget The widget instance
+         */
+        public void applyTo(ProjectWidget projectWidget) {
+            if (lastExecutionDate != null) {
+                projectWidget.setLastExecutionDate(lastExecutionDate);
+            }
+
+            if (lastSuccessDate != null) {
+                projectWidget.setLastSuccessDate(lastSuccessDate);
+            }
+
+            if (state != null) {
+                projectWidget.setState(state);
+            }
+
+            if (log != null) {
+                projectWidget.setLog(log);
+            }
+
+            if (data != null) {
+                projectWidget.setData(data);
+            }
+        }
+
+        /**
+         * Apply the write to a widget instance as displayed on the dashboards.
+         * The HTML of the widget instance is not instantiated again.
+         *
+         * @param projectWidgetDto The widget instance
+         */
+        public void applyTo(ProjectWidgetResponseDto projectWidgetDto) {
+            if (lastExecutionDate != null) {
+                projectWidgetDto.setLastExecutionDate(lastExecutionDate);
+            }
+
+            if (lastSuccessDate != null) {
+                projectWidgetDto.setLastSuccessDate(lastSuccessDate);
+            }
+
+            if (state != null) {
+                projectWidgetDto.setState(state);
+            }
+
+            if (log != null) {
+                projectWidgetDto.setLog(log);
+            }
+
+            if (data != null) {
+                projectWidgetDto.setData(data);
+            }
+        }
+
+        /**
+         * Apply the write to a Js execution.
+         *
+         * @param jsExecutionDto The Js execution
+         */
+        public void applyTo(JsExecutionDto jsExecutionDto) {
+            if (lastSuccessDate != null) {
+                jsExecutionDto.setLastSuccessDate(lastSuccessDate);
+                jsExecutionDto.setAlreadySuccess(true);
+            }
+
+            if (state != null) {
+                jsExecutionDto.setWidgetState(state);
+            }
+
+            if (data != null) {
+                jsExecutionDto.setPreviousData(data);
+            }
+        }
+
+        /**
+         * Get the arguments of the batch update.
+         *
+         * @param projectWidgetId The widget instance ID
+         * @return The arguments
+         */
+        Object[] toBatchArgs(Long projectWidgetId) {
+            return new Object[] {lastExecutionDate, lastSuccessDate, state != null ? state.name() : null, log, data,
+                projectWidgetId};
+        }
+    }
+}
@@ -21,27 +21,29 @@ import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.model.dto.js.WidgetVariableResponseDto;
 import com.michelin.suricate.model.enums.DataTypeEnum;
 import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
-import com.michelin.suricate.services.js.script.JsEndpoints;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.services.js.services.JsEngineService;
+import com.michelin.suricate.services.js.services.JsExecutionMemoService;
 import com.michelin.suricate.utils.JavaScriptUtils;
 import com.michelin.suricate.utils.JsonUtils;
 import com.michelin.suricate.utils.PropertiesUtils;
 import com.michelin.suricate.utils.ToStringUtils;
 import com.michelin.suricate.utils.exceptions.js.NoRunFunctionException;
 import com.michelin.suricate.utils.exceptions.js.RemoteException;
-import java.io.ByteArrayOutputStream;
-import java.io.InterruptedIOException;
-import java.io.OutputStream;
 import java.net.UnknownHostException;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Callable;
-import lombok.AllArgsConstructor;
+import java.util.concurrent.TimeUnit;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.graalvm.polyglot.Context;
-import org.graalvm.polyglot.HostAccess;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.jasypt.encryption.StringEncryptor;
 
@@ -49,7 +51,7 @@ import org.jasypt.encryption.StringEncryptor;
  * Task that execute the Javascript script of a widget instance.
  */
 @Slf4j
-@AllArgsConstructor
+@RequiredArgsConstructor
 public class JsExecutionAsyncTask implements Callable<JsResultDto> {
     private final JsExecutionDto jsExecutionDto;
 
@@ -57,6 +59,14 @@ public class JsExecutionAsyncTask implements Callable<JsResultDto> {
 
     private final List<WidgetVariableResponseDto> widgetParameters;
 
+    private final JsEngineService jsEngineService;
+
+    private final JsExecutionMemoService jsExecutionMemoService;
+
+    private final JsEndpointsContext endpointsContext = new JsEndpointsContext();
+
+    private volatile JsEngineService.PooledContext runningContext;
+
     /**
      * Method automatically called by the scheduler after the given delay.
      * Convert the widget properties set by the user to a map. Then, decrypt
@@ -65,12 +75,16 @@ public class JsExecutionAsyncTask implements Callable<JsResultDto> {
      * - The widget properties
      * - The data of the previous widget execution
      * - The widget instance ID
-     * Compile the Javascript script of the widget, evaluate it and get
-     * the JSON result
+     * If the execution is memoized and the calls of the previous execution return unchanged values,
+     * reuse the result of the previous execution.
+     * Otherwise, get the compiled Javascript script of the widget from the shared engine, evaluate it
+     * in a pooled context and get the JSON result
      * The method handles multiple types of exceptions:
-     * - InterruptedIOException: triggered when the execution of the widget
-     * is interrupted because the Js execution has been canceled (because the
-     * user left the dashboard, or because of a timeout, etc...)
+     * - Interrupted PolyglotException, or any exception once the Js execution has been canceled: triggered
+     * when the execution of the widget is interrupted because the Js execution has been canceled (because the
+     * user left the dashboard, or because of a timeout, etc...). The calls aborted by the deadline of the
+     * Js execution are regular errors
+     * - Resource exhausted PolyglotException: triggered when the script exceeds the statement limit
      *
      * @return The response from Js result
      */
@@ -81,70 +95,85 @@ public class JsExecutionAsyncTask implements Callable<JsResultDto> {
         JsResultDto jsResultDto = new JsResultDto();
         jsResultDto.setLaunchDate(new Date());
 
-        try (OutputStream output = new ByteArrayOutputStream()) {
-            try (Context context = Context.newBuilder("js")
-                .out(output)
-                .err(output)
-                .options(Map.of("engine.WarnInterpreterOnly", "false"))
-                .allowHostAccess(HostAccess.ALL)
-                .allowHostClassLookup(className -> className.equals(JsEndpoints.class.getName()))
-                .build()) {
-
-                // Get widget parameters values set by the user
-                Map<String, String> widgetProperties =
-                    PropertiesUtils.convertStringWidgetPropertiesToMap(jsExecutionDto.getProperties());
-
-                // Decrypt widget secret properties
-                decryptWidgetProperties(widgetProperties);
-
-                // Set default value to widget properties
-                setDefaultValueToWidgetProperties(widgetProperties);
-
-                Value bindings = context.getBindings("js");
-                // Populate properties in the engine
-                for (Map.Entry<String, String> entry : widgetProperties.entrySet()) {
-                    bindings.putMember(entry.getKey().toUpperCase(), entry.getValue());
-                }
+        JsEngineService.PooledContext pooledContext = null;
 
-                // Add the data of the previous execution
-                bindings.putMember(JavaScriptUtils.PREVIOUS_DATA_VARIABLE, jsExecutionDto.getPreviousData());
+        try {
+            // Get widget parameters values set by the user
+            Map<String, String> widgetProperties =
+                PropertiesUtils.convertStringWidgetPropertiesToMap(jsExecutionDto.getProperties());
 
-                // Add the project widget id (id of the widget instance)
-                bindings.putMember(JavaScriptUtils.WIDGET_INSTANCE_ID_VARIABLE, jsExecutionDto.getProjectWidgetId());
+            // Decrypt widget secret properties
+            decryptWidgetProperties(widgetProperties);
 
-                context.eval("js", JavaScriptUtils.prepare(jsExecutionDto.getScript()));
+            // Set default value to widget properties
+            setDefaultValueToWidgetProperties(widgetProperties);
 
-                Value runFunction = bindings.getMember("run");
+            // Expose the widget instance to the Javascript endpoints
+            bindEndpointsContext(widgetProperties);
 
-                if (runFunction == null) {
-                    throw new NoRunFunctionException("No run function defined");
-                }
+            JsResultDto memoizedResult = endpointsContext.isMemoization()
+                ? jsExecutionMemoService.getMemoizedResult(jsExecutionDto, widgetProperties, endpointsContext)
+                : null;
+
+            if (memoizedResult != null) {
+                jsResultDto.setData(memoizedResult.getData());
+                jsResultDto.setLog(memoizedResult.getLog());
+                return jsResultDto;
+            }
 
-                String json = runFunction.execute().asString();
+            Source source = jsEngineService.getSource(jsExecutionDto.getWidgetTechnicalName(),
+                jsExecutionDto.getScript());
 
-                if (JsonUtils.isValid(json)) {
-                    jsResultDto.setData(json);
-                    jsResultDto.setLog(
-                        ToStringUtils.hideWidgetConfigurationInLogs(output.toString(), widgetProperties.values()));
-                } else {
-                    log.debug(
-                        "The JSON response obtained after the JavaScript execution of "
-                            + "the widget instance {} is invalid",
-                        jsExecutionDto.getProjectWidgetId());
-                    log.debug("The JSON response is: {}", json);
-
-                    jsResultDto.setLog(ToStringUtils.hideWidgetConfigurationInLogs(
-                        output + "\nThe JSON response is not valid - " + json, widgetProperties.values()));
-                    jsResultDto.setError(jsExecutionDto.isAlreadySuccess() ? JsExecutionErrorTypeEnum.ERROR :
-                        JsExecutionErrorTypeEnum.FATAL);
+            pooledContext = jsEngineService.acquireContext(jsExecutionDto.getWidgetTechnicalName(),
+                jsExecutionDto.getScript());
+            watchContext(pooledContext);
+
+            String json;
+            try {
+                json = execute(pooledContext.getContext(), source, widgetProperties);
+            } catch (PolyglotException polyglotException) {
+                if (!pooledContext.isWarm() || !polyglotException.isSyntaxError()) {
+                    throw polyglotException;
                 }
+
+                // The script cannot be evaluated twice in the same context, execute it in a new one
+                jsEngineService.excludeFromPool(pooledContext);
+                pooledContext.close();
+                pooledContext = jsEngineService.acquireContext(jsExecutionDto.getWidgetTechnicalName(),
+                    jsExecutionDto.getScript());
+                watchContext(pooledContext);
+
+                json = execute(pooledContext.getContext(), source, widgetProperties);
+            }
+
+            pooledContext.setReusable(true);
+            String output = pooledContext.getOutput().toString();
+
+            if (JsonUtils.isValid(json)) {
+                jsResultDto.setData(json);
+                jsResultDto.setLog(ToStringUtils.hideWidgetConfigurationInLogs(output, widgetProperties.values()));
+            } else {
+                log.debug(
+                    "The JSON response obtained after the JavaScript execution of "
+                        + "the widget instance {} is invalid",
+                    jsExecutionDto.getProjectWidgetId());
+                log.debug("The JSON response is: {}", json);
+
+                jsResultDto.setLog(ToStringUtils.hideWidgetConfigurationInLogs(
+                    output + "\nThe JSON response is not valid - " + json, widgetProperties.values()));
+                jsResultDto.setError(jsExecutionDto.isAlreadySuccess() ? JsExecutionErrorTypeEnum.ERROR :
+                    JsExecutionErrorTypeEnum.FATAL);
+            }
+
+            if (endpointsContext.isMemoization()) {
+                jsExecutionMemoService.memoize(jsExecutionDto, widgetProperties, endpointsContext, jsResultDto);
             }
         } catch (Exception exception) {
             Throwable rootCause = ExceptionUtils.getRootCause(exception);
 
             // Do not set logs during an interruption, as it is caused by a canceling
             // of the Js execution, the return Js result will not be processed by the JsResultAsyncTask
-            if (rootCause instanceof InterruptedIOException) {
+            if (isInterruption(exception) || endpointsContext.isCanceled() || Thread.currentThread().isInterrupted()) {
                 log.info("The execution of the widget instance {} has been interrupted",
                     jsExecutionDto.getProjectWidgetId());
             } else {
@@ -164,6 +193,14 @@ public class JsExecutionAsyncTask implements Callable<JsResultDto> {
                 jsResultDto.setLog(logs);
             }
         } finally {
+            runningContext = null;
+
+            if (pooledContext != null) {
+                pooledContext.close();
+            }
+
+            JsEndpointsContext.clear();
+
             jsResultDto.setProjectId(jsExecutionDto.getProjectId());
             jsResultDto.setProjectWidgetId(jsExecutionDto.getProjectWidgetId());
         }
@@ -171,6 +208,92 @@ public class JsExecutionAsyncTask implements Callable<JsResultDto> {
         return jsResultDto;
     }
 
+    /**
+     * Set the mandatory variables to the given context, evaluate the script and execute its run function.
+     *
+     * @param context          The Js context
+     * @param source           The script of the widget
+     * @param widgetProperties The widget properties
+     * @return The value returned by the run function
+     * @throws NoRunFunctionException If the script does not define a run function
+     */
+    private String execute(Context context, Source source, Map<String, String> widgetProperties) {
+        Value bindings = context.getBindings("js");
+        // Populate properties in the engine
+        for (Map.Entry<String, String> entry : widgetProperties.entrySet()) {
+            bindings.putMember(entry.getKey().toUpperCase(), entry.getValue());
+        }
+
+        // Add the data of the previous execution
+        bindings.putMember(JavaScriptUtils.PREVIOUS_DATA_VARIABLE, jsExecutionDto.getPreviousData());
+
+        // Add the project widget id (id of the widget instance)
+        bindings.putMember(JavaScriptUtils.WIDGET_INSTANCE_ID_VARIABLE, jsExecutionDto.getProjectWidgetId());
+
+        context.eval(source);
+
+        Value runFunction = bindings.getMember("run");
+
+        if (runFunction == null) {
+            throw new NoRunFunctionException("No run function defined");
+        }
+
+        return runFunction.execute().asString();
+    }
+
+    /**
+     * Bind the context of the Js execution to the current thread for the Javascript endpoints.
+     * The calls of the endpoints must complete before the timeout of the Js execution,
+     * and are recorded if the execution is memoized.
+     *
+     * @param widgetProperties The widget properties
+     */
+    private void bindEndpointsContext(Map<String, String> widgetProperties) {
+        endpointsContext.setProjectWidgetId(jsExecutionDto.getProjectWidgetId());
+        endpointsContext.setWidgetTechnicalName(jsExecutionDto.getWidgetTechnicalName());
+        endpointsContext.setDeadline(
+            System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(JsResultAsyncTask.getTimeout(jsExecutionDto)));
+
+        String cacheTtl = StringUtils.trim(widgetProperties.get(JavaScriptUtils.HTTP_CACHE_TTL_VARIABLE));
+        if (NumberUtils.isDigits(cacheTtl)) {
+            endpointsContext.setCacheTtl(Long.valueOf(cacheTtl));
+        }
+
+        endpointsContext.setMemoization(jsExecutionMemoService != null
+            && jsExecutionMemoService.isEnabled(widgetProperties));
+
+        JsEndpointsContext.set(endpointsContext);
+    }
+
+    /**
+     * Watch the Js context the script is going to be executed in, so it is closed when the execution is canceled.
+     * The context is closed right away if the execution has already been canceled.
+     *
+     * @param pooledContext The Js context
+     */
+    private void watchContext(JsEngineService.PooledContext pooledContext) {
+        runningContext = pooledContext;
+
+        if (endpointsContext.isCanceled()) {
+            jsEngineService.cancelContext(pooledContext);
+        }
+    }
+
+    /**
+     * Abort the calls of the Javascript endpoints in progress, as interrupting the thread
+     * does not abort a blocking socket read.
+     * Also close the Js context of the running script, as interrupting the thread does not stop
+     * a script which never calls a Java method. The context is dropped from the pool.
+     */
+    public void cancelCalls() {
+        endpointsContext.cancel();
+
+        JsEngineService.PooledContext pooledContext = runningContext;
+        if (pooledContext != null) {
+            jsEngineService.cancelContext(pooledContext);
+        }
+    }
+
     /**
      * Decrypt the encrypted widget secret properties.
      *
@@ -207,6 +330,18 @@ public class JsExecutionAsyncTask implements Callable<JsResultDto> {
         }
     }
 
+    /**
+     * Check if the exception is caused by the interruption of the Js execution by the engine.
+     *
+     * @param e The exception thrown
+     * @return true if the Js execution has been interrupted, false otherwise
+     */
+    private boolean isInterruption(Exception e) {
+        return e instanceof PolyglotException polyglotException
+            && (polyglotException.isInterrupted()
+            || (polyglotException.isCancelled() && !polyglotException.isResourceExhausted()));
+    }
+
     /**
      * Check if the returned error is fatal.
      *
@@ -20,11 +20,10 @@ import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.js.services.DashboardScheduleService;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import org.springframework.context.annotation.Scope;
@@ -34,12 +33,13 @@ import org.springframework.retry.support.RetryTemplate;
 import org.springframework.stereotype.Component;
 
 /**
- * Task that get the result of a Javascript script execution.
+ * Task that handle the result of a Javascript script execution.
+ * It is triggered by the completion of the Js execution instead of waiting for it.
  */
 @Slf4j
 @Component
 @Scope(value = "prototype")
-public class JsResultAsyncTask implements Callable<Void> {
+public class JsResultAsyncTask implements BiConsumer<JsResultDto, Throwable> {
     public static final int MAX_RETRY = 10;
     private static final int TIMEOUT = 60;
     private static final int MAX_BACK_OFF_PERIOD = 10000;
@@ -48,7 +48,7 @@ public class JsResultAsyncTask implements Callable<Void> {
 
     private final DashboardScheduleService dashboardScheduleService;
 
-    private final ScheduledFuture<JsResultDto> scheduledJsExecutionTask;
+    private final Future<JsResultDto> scheduledJsExecutionTask;
 
     private final JsExecutionDto jsExecutionDto;
 
@@ -64,7 +64,7 @@ public class JsResultAsyncTask implements Callable<Void> {
      * @param scheduler                The Js execution scheduler
      * @param dashboardScheduleService The dashboard schedule service
      */
-    public JsResultAsyncTask(ScheduledFuture<JsResultDto> scheduledJsExecutionTask,
+    public JsResultAsyncTask(Future<JsResultDto> scheduledJsExecutionTask,
                              JsExecutionDto jsExecutionDto,
                              JsExecutionScheduler scheduler,
                              DashboardScheduleService dashboardScheduleService) {
@@ -76,27 +76,44 @@ public class JsResultAsyncTask implements Callable<Void> {
     }
 
     /**
-     * Method automatically called by the scheduler after the given delay.
-     * Compute a timeout duration to wait a response from the Js execution request.
-     * Wait for a response from the Js execution task. We wait for the given amount of time.
+     * Compute the timeout duration of a Js execution.
+     *
+     * @param jsExecutionDto The Js execution
+     * @return The timeout in seconds
+     */
+    public static long getTimeout(JsExecutionDto jsExecutionDto) {
+        return jsExecutionDto.getTimeout() == null || jsExecutionDto.getTimeout() < TIMEOUT ? TIMEOUT :
+            jsExecutionDto.getTimeout();
+    }
+
+    /**
+     * Method automatically called when the Js execution task completes, fails, is canceled
+     * or exceeds its timeout.
      * Update the widget from the Js result and notify the Front-End. Perform some retries
      * on the widget update. If all the retries fail, then schedule a new Js execution.
+     *
+     * @param jsResultDto The Js result, null if the Js execution did not complete normally
+     * @param throwable   The cause of the abnormal completion of the Js execution, null otherwise
      */
     @Override
-    public Void call() {
-        try {
-            long jsExecutionTimeout =
-                jsExecutionDto.getTimeout() == null || jsExecutionDto.getTimeout() < TIMEOUT ? TIMEOUT :
-                    jsExecutionDto.getTimeout();
-
-            log.debug(
-                "Waiting for the response of the JavaScript execution "
-                    + "of the widget instance {} (until {} seconds before timeout)",
-                jsExecutionDto.getProjectWidgetId(), jsExecutionTimeout);
-
-            // Wait for a response of the Js execution task
-            JsResultDto jsResultDto = scheduledJsExecutionTask.get(jsExecutionTimeout, TimeUnit.SECONDS);
+    public void accept(JsResultDto jsResultDto, Throwable throwable) {
+        if (throwable == null) {
+            processJsResult(jsResultDto);
+        } else if (throwable instanceof CancellationException) {
+            log.debug("The JavaScript execution has been canceled for the widget instance {}",
+                jsExecutionDto.getProjectWidgetId());
+        } else {
+            processJsExecutionFailure(throwable);
+        }
+    }
 
+    /**
+     * Update the widget from the Js result, with some retries.
+     *
+     * @param jsResultDto The Js result
+     */
+    private void processJsResult(JsResultDto jsResultDto) {
+        try {
             retryTemplate.execute(retryContext -> {
                 log.debug("Update the widget instance {} (try {}/{})", jsResultDto.getProjectWidgetId(),
                     retryContext.getRetryCount(), MAX_RETRY);
@@ -112,55 +129,51 @@ public class JsResultAsyncTask implements Callable<Void> {
 
                 return null;
             });
-        } catch (InterruptedException ie) {
-            log.error("Interrupted exception caught. Re-interrupting the thread for the widget instance {}",
+        } catch (Exception exception) {
+            processJsExecutionFailure(exception);
+        }
+    }
+
+    /**
+     * Cancel the Js execution and update the widget with the cause of the failure.
+     *
+     * @param throwable The cause of the failure
+     */
+    private void processJsExecutionFailure(Throwable throwable) {
+        Throwable rootCause = ExceptionUtils.getRootCause(throwable);
+
+        String widgetLogs;
+
+        // Handle the case when the Js execution exceeds the timeout define by the widget.
+        // Set the widget logs and cancel the widget execution
+        if (rootCause instanceof TimeoutException) {
+            widgetLogs = "The JavaScript execution exceeded the timeout defined by the widget";
+
+            log.error(
+                "The JavaScript execution exceeded the timeout defined by the widget instance {}."
+                    + " The JavaScript execution is going to be cancelled.",
                 jsExecutionDto.getProjectWidgetId());
+        } else {
+            widgetLogs = rootCause.toString();
+
+            log.error(
+                "An error has occurred in the JavaScript result task for the widget instance {}."
+                    + " The JavaScript execution is going to be canceled.",
+                jsExecutionDto.getProjectWidgetId(), throwable);
+        }
 
-            Thread.currentThread().interrupt();
-        } catch (CancellationException cancellationException) {
-            if (scheduledJsExecutionTask.isCancelled()) {
-                log.debug("The JavaScript execution has been canceled for the widget instance {}",
-                    jsExecutionDto.getProjectWidgetId());
-            }
+        scheduledJsExecutionTask.cancel(true);
+
+        try {
+            dashboardScheduleService.updateWidgetInstanceNoJsResult(widgetLogs, jsExecutionDto.getProjectWidgetId());
         } catch (Exception exception) {
-            Throwable rootCause = ExceptionUtils.getRootCause(exception);
-
-            String widgetLogs;
-
-            // Handle the case when the Js execution exceeds the timeout define by the widget.
-            // Set the widget logs and cancel the widget execution
-            if (rootCause instanceof TimeoutException) {
-                widgetLogs = "The JavaScript execution exceeded the timeout defined by the widget";
-
-                log.error(
-                    "The JavaScript execution exceeded the timeout defined by the widget instance {}."
-                        + " The JavaScript execution is going to be cancelled.",
-                    jsExecutionDto.getProjectWidgetId());
-            } else {
-                widgetLogs = rootCause.toString();
-
-                log.error(
-                    "An error has occurred in the JavaScript result task for the widget instance {}."
-                        + " The JavaScript execution is going to be canceled.",
-                    jsExecutionDto.getProjectWidgetId(), exception);
-            }
-
-            scheduledJsExecutionTask.cancel(true);
-
-            try {
-                dashboardScheduleService.updateWidgetInstanceNoJsResult(widgetLogs, jsExecutionDto.getProjectWidgetId(),
-                    jsExecutionDto.getProjectId());
-            } catch (Exception exception1) {
-                log.error(
-                    "Cannot update the widget instance {} with no JavaScript result cause of database issue. "
-                        + "Rescheduling a new JavaScript execution",
-                    jsExecutionDto.getProjectWidgetId(), exception1);
+            log.error(
+                "Cannot update the widget instance {} with no JavaScript result cause of database issue. "
+                    + "Rescheduling a new JavaScript execution",
+                jsExecutionDto.getProjectWidgetId(), exception);
 
-                scheduler.schedule(jsExecutionDto, false);
-            }
+            scheduler.schedule(jsExecutionDto, false);
         }
-
-        return null;
     }
 
     /**
@@ -31,6 +31,8 @@ import com.michelin.suricate.services.mapper.ProjectMapper;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
@@ -157,7 +159,8 @@ public class DashboardWebSocketService {
      * and a client materialized by its WebsocketClient.
      * Triggered when a new subscription to a dashboard is done.
      * If no client is connected to the dashboard already,
-     * initialize a Js execution for each widget of the project to refresh them.
+     * initialize a Js execution for each widget of the project to refresh them,
+     * spread over the startup window of the scheduler.
      *
      * @param project         The connected project
      * @param websocketClient The related websocket client
@@ -168,10 +171,69 @@ public class DashboardWebSocketService {
 
         if (refreshProject) {
             List<JsExecutionDto> jsExecutionDtos = jsExecutionService.getJsExecutionsByProject(project);
-            jsExecutionScheduler.scheduleJsRequests(jsExecutionDtos, true);
+            jsExecutionScheduler.scheduleJsRequestsOnSubscription(jsExecutionDtos);
+        } else {
+            jsExecutionScheduler.updateDisplayedGrids(project, getDisplayedGridIds(project.getToken()));
         }
     }
 
+    /**
+     * Update the grid displayed by a connected screen.
+     * Triggered when a screen reports the grid it displays, when connecting and at each rotation.
+     * The scheduler slows down the widgets of the grids which are not displayed by any screen,
+     * and pre-warms the next grid of the rotation.
+     *
+     * @param sessionId    The session ID of the screen
+     * @param projectToken The project token
+     * @param screenCode   The screen code
+     * @param gridId       The displayed grid ID
+     */
+    public void updateDisplayedGrid(final String sessionId, final String projectToken, final String screenCode,
+                                    final Long gridId) {
+        Optional<WebsocketClient> websocketClient = getWebsocketClientsByProjectToken(projectToken)
+            .stream()
+            .filter(client -> client.getSessionId().equals(sessionId) && client.getScreenCode().equals(screenCode))
+            .findFirst();
+
+        if (websocketClient.isEmpty()) {
+            log.debug("No client subscribed to the project {} for the screen {} of the session {}", projectToken,
+                screenCode.replaceAll("[\n\r\t]", "_"), sessionId);
+            return;
+        }
+
+        Optional<Project> project = projectService.getOneByToken(projectToken);
+        if (project.isEmpty() || project.get().getGrids().stream().noneMatch(grid -> grid.getId().equals(gridId))) {
+            log.debug("The grid {} does not belong to the project {}", gridId, projectToken);
+            return;
+        }
+
+        log.debug("The screen {} displays the grid {} of the project {}", screenCode.replaceAll("[\n\r\t]", "_"),
+            gridId, projectToken);
+
+        websocketClient.get().setDisplayedGridId(gridId);
+        jsExecutionScheduler.updateDisplayedGrids(project.get(), getDisplayedGridIds(projectToken));
+        jsExecutionScheduler.prewarmNextGrid(project.get(), gridId);
+    }
+
+    /**
+     * Get the grids of a project displayed by the connected screens.
+     *
+     * @param projectToken The project token
+     * @return The IDs of the displayed grids, or null if a screen does not report its displayed grid
+     */
+    private Set<Long> getDisplayedGridIds(final String projectToken) {
+        List<WebsocketClient> websocketClients = getWebsocketClientsByProjectToken(projectToken);
+
+        if (websocketClients.stream().anyMatch(websocketClient -> websocketClient.getDisplayedGridId() == null)) {
+            return null;
+        }
+
+        return websocketClients
+            .stream()
+            .map(WebsocketClient::getDisplayedGridId)
+            .collect(Collectors.toSet());
+    }
+
     /**
      * Get the list of every connected dashboard.
      *
@@ -222,6 +284,8 @@ public class DashboardWebSocketService {
 
     /**
      * Remove a given websocket from the project/connection map.
+     * Cancel the Js executions of the project if it was the last connected client,
+     * or update the grids displayed by the remaining clients otherwise.
      *
      * @param websocketClient The websocket to remove
      */
@@ -231,6 +295,10 @@ public class DashboardWebSocketService {
         if (!websocketClientByProjectToken.containsKey(websocketClient.getProjectToken())) {
             projectService.getOneByToken(websocketClient.getProjectToken())
                 .ifPresent(jsExecutionScheduler::cancelWidgetsExecutionByProject);
+        } else {
+            projectService.getOneByToken(websocketClient.getProjectToken())
+                .ifPresent(project -> jsExecutionScheduler.updateDisplayedGrids(project,
+                    getDisplayedGridIds(websocketClient.getProjectToken())));
         }
     }
 
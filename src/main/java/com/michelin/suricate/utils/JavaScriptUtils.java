@@ -37,20 +37,19 @@ public final class JavaScriptUtils {
     public static final String WIDGET_INSTANCE_ID_VARIABLE = "SURI_INSTANCE_ID";
 
     /**
-     * "Packages." constant used in Javascript to call REST API.
+     * Name of the widget property or category parameter used to set the time to live of the cached GET responses.
      */
-    private static final String PACKAGES_LITERAL = "Packages.";
+    public static final String HTTP_CACHE_TTL_VARIABLE = "SURI_HTTP_CACHE_TTL";
 
     /**
-     * Regex to find loop in script.
+     * Name of the widget property or category parameter used to enable or disable the memoization of the execution.
      */
-    private static final String REGEX_LOOP = "\\)\\s*\\{";
+    public static final String MEMOIZATION_VARIABLE = "SURI_MEMOIZATION";
 
     /**
-     * Full path to the checkInterrupted Java method.
+     * "Packages." constant used in Javascript to call REST API.
      */
-    private static final String INJECT_INTERRUPT_STRING =
-        JavaScriptUtils.PACKAGES_LITERAL + JsEndpoints.class.getName() + ".checkInterrupted();";
+    private static final String PACKAGES_LITERAL = "Packages.";
 
     /**
      * Method used to prepare Js execution and update path.
@@ -59,19 +58,8 @@ public final class JavaScriptUtils {
      * @return the script with all class path updated
      */
     public static String prepare(String data) {
-        return injectInterrupt(
-            StringUtils.trimToEmpty(data).replace(
-                JavaScriptUtils.PACKAGES_LITERAL,
-                JavaScriptUtils.PACKAGES_LITERAL + JsEndpoints.class.getName() + "."));
-    }
-
-    /**
-     * Method used to inject interruption in loop for javascript code.
-     *
-     * @param data javascript code
-     * @return the javascript code with interruption on it
-     */
-    public static String injectInterrupt(String data) {
-        return StringUtils.trimToEmpty(data).replaceAll(REGEX_LOOP, "){" + INJECT_INTERRUPT_STRING);
+        return StringUtils.trimToEmpty(data).replace(
+            JavaScriptUtils.PACKAGES_LITERAL,
+            JavaScriptUtils.PACKAGES_LITERAL + JsEndpoints.class.getName() + ".");
     }
 }
@@ -18,9 +18,11 @@
 
 package com.michelin.suricate.utils.http;
 
+import com.michelin.suricate.properties.ApplicationProperties;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocketFactory;
@@ -29,8 +31,11 @@ import javax.net.ssl.X509TrustManager;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
 import okhttp3.ConnectionSpec;
+import okhttp3.EventListener;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.logging.HttpLoggingInterceptor;
 
 /**
@@ -51,6 +56,18 @@ public final class OkHttpClientUtils {
      * @return An OkHttpClient instance
      */
     public static OkHttpClient getUnsafeOkHttpClient() {
+        return createUnsafeOkHttpClient(new ApplicationProperties.Http(), null);
+    }
+
+    /**
+     * Create an instance of OkHttpClient without certificates validation.
+     *
+     * @param properties           The HTTP client properties
+     * @param eventListenerFactory The factory of the listeners recording the metrics of the calls, can be null
+     * @return An OkHttpClient instance
+     */
+    public static OkHttpClient createUnsafeOkHttpClient(ApplicationProperties.Http properties,
+                                                        EventListener.Factory eventListenerFactory) {
         try {
             // Create a trust manager that does not validate certificates chain
             final TrustManager[] trustManager = new TrustManager[] {
@@ -61,6 +78,10 @@ public final class OkHttpClientUtils {
             final SSLContext sslContext = SSLContext.getInstance("TLS");
             sslContext.init(null, trustManager, new java.security.SecureRandom());
 
+            // Cache the TLS sessions, so the new connections to a known host resume the session
+            sslContext.getClientSessionContext().setSessionCacheSize(properties.getTlsSessionCacheSize());
+            sslContext.getClientSessionContext().setSessionTimeout(properties.getTlsSessionTimeout());
+
             // Create a ssl socket factory with our all-trusting manager
             final SSLSocketFactory sslSocketFactory = sslContext.getSocketFactory();
 
@@ -72,12 +93,20 @@ public final class OkHttpClientUtils {
                 .readTimeout(READ_TIMEOUT, TimeUnit.SECONDS)
                 .connectTimeout(CONNECT_TIMEOUT, TimeUnit.SECONDS)
                 .writeTimeout(WRITE_TIMEOUT, TimeUnit.SECONDS)
+                .connectionPool(new ConnectionPool(properties.getMaxIdleConnections(), properties.getKeepAlive(),
+                    TimeUnit.SECONDS))
+                .protocols(properties.isHttp2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                    : List.of(Protocol.HTTP_1_1))
                 .addInterceptor(loggingInterceptor)
                 .retryOnConnectionFailure(true)
                 .proxySelector(new WidgetProxySelector())
                 .connectionSpecs(Arrays.asList(ConnectionSpec.CLEARTEXT, ConnectionSpec.MODERN_TLS))
                 .hostnameVerifier((s, sslSession) -> true);
 
+            if (eventListenerFactory != null) {
+                builder.eventListenerFactory(eventListenerFactory);
+            }
+
             return builder.build();
         } catch (NoSuchAlgorithmException e) {
             log.error("An error occurred during the OKHttpClient configuration: TLS algorithm not found", e);
@@ -17,8 +17,8 @@
  */
 
 import { Component, OnDestroy, OnInit, ViewEncapsulation } from '@angular/core';
-import { mergeMap, takeUntil, tap } from 'rxjs/operators';
-import { Observable, Subject } from 'rxjs';
+import { filter, mergeMap, observeOn, takeUntil, tap } from 'rxjs/operators';
+import { asyncScheduler, BehaviorSubject, combineLatest, Observable, Subject } from 'rxjs';
 import { ActivatedRoute, Params, Router } from '@angular/router';
 import { Project } from '../../../shared/models/backend/project/project';
 import { WebsocketUpdateEvent } from '../../../shared/models/frontend/websocket/websocket-update-event';
@@ -30,7 +30,7 @@ import { DashboardService } from '../../services/dashboard/dashboard.service';
 import {
   HttpProjectWidgetService
 } from '../../../shared/services/backend/http-project-widget/http-project-widget.service';
-import { IMessage } from '@stomp/rx-stomp';
+import { IMessage, RxStompState } from '@stomp/rx-stomp';
 
 /**
  * Dashboard TV Management
@@ -72,6 +72,11 @@ export class DashboardTvComponent implements OnInit, OnDestroy {
    */
   public project: Project;
 
+  /**
+   * The ID of the displayed grid, null if no dashboard is displayed
+   */
+  private displayedGridId = new BehaviorSubject<number>(null);
+
   /**
    * The returned object of the setInterval rotation
    */
@@ -111,6 +116,7 @@ export class DashboardTvComponent implements OnInit, OnDestroy {
    */
   public ngOnInit(): void {
     this.listenForConnection();
+    this.publishDisplayedGrid();
 
     this.activatedRoute.queryParams.pipe(takeUntil(this.unsubscribe)).subscribe((queryParams: Params) => {
       if (queryParams['token']) {
@@ -153,6 +159,29 @@ export class DashboardTvComponent implements OnInit, OnDestroy {
       });
   }
 
+  /**
+   * Publish the displayed grid to the backend, so the widgets of the hidden grids are refreshed less often.
+   * Published at each rotation and each time the websocket connection is established, as the backend forgets
+   * the grid of a screen when its session is closed.
+   * Deferred to the next macrotask, so the screen subscription is opened before: by the dashboard screen
+   * rendered with the grid, or again by the websocket client on reconnection
+   */
+  private publishDisplayedGrid(): void {
+    combineLatest([this.websocketService.connectionState(), this.displayedGridId])
+      .pipe(
+        filter(([state, displayedGridId]) => state === RxStompState.OPEN && displayedGridId !== null),
+        observeOn(asyncScheduler),
+        filter(() => !!this.project),
+        takeUntil(this.unsubscribe)
+      )
+      .subscribe(([, displayedGridId]) =>
+        this.websocketService.publish(
+          `/app/project/${this.project.token}/screen/${this.screenCode}/grid`,
+          JSON.stringify(displayedGridId)
+        )
+      );
+  }
+
   /**
    * Initialise the component from the given project token
    */
@@ -232,6 +261,8 @@ export class DashboardTvComponent implements OnInit, OnDestroy {
    * Schedule the next rotation of dashboards
    */
   private scheduleRotation(): void {
+    this.notifyDisplayedGrid();
+
     if (this.project.grids.length > 1) {
       if (this.project.displayProgressBar) {
         this.startTimer();
@@ -247,10 +278,18 @@ export class DashboardTvComponent implements OnInit, OnDestroy {
     }
   }
 
+  /**
+   * Notify the backend of the displayed grid, published once the websocket connection is established
+   */
+  private notifyDisplayedGrid(): void {
+    this.displayedGridId.next(this.project.grids[this.rotationIndex].id);
+  }
+
   /**
    * Reset the current rotation
    */
   private resetRotation(): void {
+    this.displayedGridId.next(null);
     this.rotationIndex = 0;
     this.projectWidgetsByGrid.clear();
     clearInterval(this.rotationInterval);
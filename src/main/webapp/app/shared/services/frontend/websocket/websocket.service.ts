@@ -18,7 +18,7 @@ import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { EnvironmentService } from '../environment/environment.service';
 import * as SockJS from 'sockjs-client';
-import { IMessage, RxStompConfig } from '@stomp/rx-stomp';
+import { IMessage, RxStompConfig, RxStompState } from '@stomp/rx-stomp';
 import { RxStompService } from '../rx-stomp/rx-stomp.service';
 
 /**
@@ -72,6 +72,24 @@ export class WebsocketService {
     return this.rxStompService.watch(destination);
   }
 
+  /**
+   * Get the state of the connection.
+   * Emits the current state, then each change of state, including the reconnections
+   */
+  public connectionState(): Observable<RxStompState> {
+    return this.rxStompService.connectionState$;
+  }
+
+  /**
+   * Send a message to a destination
+   *
+   * @param {string} destination The destination url
+   * @param {string} body The message body
+   */
+  public publish(destination: string, body: string): void {
+    this.rxStompService.publish({ destination: destination, body: body });
+  }
+
   /**
    * Disconnect the client
    */
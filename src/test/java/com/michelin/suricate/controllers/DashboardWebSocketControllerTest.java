@@ -0,0 +1,31 @@
+package com.michelin.suricate.controllers;
+
+import static org.mockito.Mockito.verify;
+
+import com.michelin.suricate.services.websocket.DashboardWebSocketService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardWebSocketControllerTest {
+    @Mock
+    private DashboardWebSocketService dashboardWebSocketService;
+
+    @InjectMocks
+    private DashboardWebSocketController dashboardWebSocketController;
+
+    @Test
+    void shouldDisplayGrid() {
+        SimpMessageHeaderAccessor headerAccessor = SimpMessageHeaderAccessor.create();
+        headerAccessor.setSessionId("session");
+
+        dashboardWebSocketController.displayGrid("token", "screen", 1L, headerAccessor);
+
+        verify(dashboardWebSocketService)
+            .updateDisplayedGrid("session", "token", "screen", 1L);
+    }
+}
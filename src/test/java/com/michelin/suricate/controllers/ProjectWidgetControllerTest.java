@@ -3,8 +3,11 @@ package com.michelin.suricate.controllers;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetRefreshIntervalResponseDto;
 import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetRequestDto;
 import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
 import com.michelin.suricate.model.entities.Project;
@@ -12,9 +15,11 @@ import com.michelin.suricate.model.entities.ProjectGrid;
 import com.michelin.suricate.model.entities.ProjectWidget;
 import com.michelin.suricate.model.entities.Role;
 import com.michelin.suricate.model.entities.User;
+import com.michelin.suricate.model.entities.Widget;
 import com.michelin.suricate.security.LocalUser;
 import com.michelin.suricate.services.api.ProjectService;
 import com.michelin.suricate.services.api.ProjectWidgetService;
+import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.mapper.ProjectWidgetMapper;
 import com.michelin.suricate.utils.exceptions.ApiException;
 import com.michelin.suricate.utils.exceptions.ObjectNotFoundException;
@@ -43,6 +48,9 @@ class ProjectWidgetControllerTest {
     @Mock
     private ProjectService projectService;
 
+    @Mock
+    private JsExecutionScheduler jsExecutionScheduler;
+
     @InjectMocks
     private ProjectWidgetController projectWidgetController;
 
@@ -126,6 +134,67 @@ class ProjectWidgetControllerTest {
         assertThat(actual.getBody()).contains(projectWidgetResponseDto);
     }
 
+    @Test
+    void shouldGetRefreshIntervalsByProjectNotFound() {
+        when(projectService.getOneByToken(any()))
+            .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> projectWidgetController.getRefreshIntervalsByProject("token"))
+            .isInstanceOf(ObjectNotFoundException.class)
+            .hasMessage("Project 'token' not found");
+    }
+
+    @Test
+    void shouldGetRefreshIntervalsByProjectNoGrid() {
+        Project project = new Project();
+        project.setId(1L);
+
+        when(projectService.getOneByToken(any()))
+            .thenReturn(Optional.of(project));
+
+        ResponseEntity<List<ProjectWidgetRefreshIntervalResponseDto>> actual =
+            projectWidgetController.getRefreshIntervalsByProject("token");
+
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.NO_CONTENT);
+        assertThat(actual.getBody()).isNull();
+    }
+
+    @Test
+    void shouldGetRefreshIntervalsByProject() {
+        Widget widget = new Widget();
+        widget.setId(1L);
+        widget.setDelay(30L);
+
+        ProjectWidget projectWidget = new ProjectWidget();
+        projectWidget.setId(1L);
+        projectWidget.setWidget(widget);
+
+        ProjectGrid projectGrid = new ProjectGrid();
+        projectGrid.setId(1L);
+        projectGrid.setWidgets(Collections.singleton(projectWidget));
+
+        Project project = new Project();
+        project.setId(1L);
+        project.setGrids(Collections.singleton(projectGrid));
+
+        when(projectService.getOneByToken(any()))
+            .thenReturn(Optional.of(project));
+        when(jsExecutionScheduler.getRefreshInterval(any(), anyLong()))
+            .thenReturn(120L);
+
+        ResponseEntity<List<ProjectWidgetRefreshIntervalResponseDto>> actual =
+            projectWidgetController.getRefreshIntervalsByProject("token");
+
+        assertThat(actual.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(actual.getBody()).hasSize(1);
+        assertThat(actual.getBody().get(0).getProjectWidgetId()).isEqualTo(1L);
+        assertThat(actual.getBody().get(0).getDelay()).isEqualTo(30L);
+        assertThat(actual.getBody().get(0).getRefreshInterval()).isEqualTo(120L);
+
+        verify(jsExecutionScheduler)
+            .getRefreshInterval(1L, 30L);
+    }
+
     @Test
     void shouldEditByProjectNotFound() {
         Role role = new Role();
@@ -11,6 +11,7 @@ import com.michelin.suricate.model.entities.CategoryParameter_;
 import com.michelin.suricate.model.entities.WidgetParam;
 import com.michelin.suricate.model.enums.DataTypeEnum;
 import com.michelin.suricate.repositories.CategoryParametersRepository;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.specifications.CategoryParametersSearchSpecification;
 import jakarta.persistence.metamodel.SingularAttribute;
 import java.util.Collections;
@@ -39,6 +40,9 @@ class CategoryParametersServiceTest {
     @Mock
     private StringEncryptor stringEncryptor;
 
+    @Mock
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
     @InjectMocks
     private CategoryParametersService categoryParametersService;
 
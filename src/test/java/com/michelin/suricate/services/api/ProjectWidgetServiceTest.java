@@ -23,6 +23,7 @@ import com.michelin.suricate.model.enums.WidgetStateEnum;
 import com.michelin.suricate.repositories.ProjectWidgetRepository;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.js.services.DashboardScheduleService;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.websocket.DashboardWebSocketService;
 import java.io.StringReader;
 import java.time.Instant;
@@ -66,6 +67,9 @@ class ProjectWidgetServiceTest {
     @Mock
     private JsExecutionScheduler jsExecutionScheduler;
 
+    @Mock
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
     @InjectMocks
     private ProjectWidgetService projectWidgetService;
 
@@ -477,6 +481,44 @@ class ProjectWidgetServiceTest {
             .getWidgetParametersWithCategoryParameters(any());
     }
 
+    @Test
+    void shouldLoadWidgetParametersWhenGettingHtmlTemplate() {
+        WidgetParam widgetParam = new WidgetParam();
+        widgetParam.setId(1L);
+        widgetParam.setName("UNIT");
+        widgetParam.setDefaultValue("ms");
+        widgetParam.setRequired(true);
+        widgetParam.setType(DataTypeEnum.TEXT);
+
+        Widget widget = new Widget();
+        widget.setId(1L);
+        widget.setHtmlContent("<h1>{{DATA}} {{UNIT}}</h1>");
+        widget.setTechnicalName("technicalName");
+
+        ProjectWidget projectWidget = new ProjectWidget();
+        projectWidget.setId(1L);
+        projectWidget.setWidget(widget);
+
+        when(mustacheFactory.compile(any(), any()))
+            .thenReturn(new DefaultMustacheFactory().compile(new StringReader(widget.getHtmlContent()),
+                widget.getTechnicalName()));
+        when(widgetService.getWidgetParametersWithCategoryParameters(any()))
+            .thenReturn(Collections.singletonList(widgetParam));
+
+        ProjectWidgetService.HtmlTemplate actual = projectWidgetService.getHtmlTemplate(projectWidget);
+
+        verify(widgetService)
+            .getWidgetParametersWithCategoryParameters(widget);
+
+        assertThat(actual.render(null))
+            .isEqualTo("<h1>{{DATA}} {{UNIT}}</h1>");
+        assertThat(actual.render("{\"DATA\": \"1\"}"))
+            .isEqualTo("<h1>1 ms</h1>");
+
+        verify(widgetService)
+            .getWidgetParametersWithCategoryParameters(widget);
+    }
+
     @Test
     void shouldUpdateProjectWidget() {
         WidgetParam widgetParam = new WidgetParam();
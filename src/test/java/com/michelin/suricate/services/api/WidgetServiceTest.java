@@ -19,6 +19,7 @@ import com.michelin.suricate.model.enums.DataTypeEnum;
 import com.michelin.suricate.model.enums.WidgetAvailabilityEnum;
 import com.michelin.suricate.repositories.WidgetParamRepository;
 import com.michelin.suricate.repositories.WidgetRepository;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.specifications.WidgetSearchSpecification;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -50,6 +51,9 @@ class WidgetServiceTest {
     @Mock
     private CategoryService categoryService;
 
+    @Mock
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
     @InjectMocks
     private WidgetService widgetService;
 
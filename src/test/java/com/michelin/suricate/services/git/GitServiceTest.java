@@ -19,6 +19,7 @@ import com.michelin.suricate.services.api.RepositoryService;
 import com.michelin.suricate.services.api.WidgetService;
 import com.michelin.suricate.services.cache.CacheService;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
+import com.michelin.suricate.services.js.services.JsEngineService;
 import com.michelin.suricate.services.websocket.DashboardWebSocketService;
 import java.io.IOException;
 import java.util.Collections;
@@ -56,6 +57,9 @@ class GitServiceTest {
     @Mock
     private CacheService cacheService;
 
+    @Mock
+    private JsEngineService jsEngineService;
+
     @InjectMocks
     private GitService gitService;
 
@@ -182,6 +186,7 @@ class GitServiceTest {
                 argThat(allLibraries -> allLibraries.get(0).equals(library)),
                 argThat(repository::equals));
         verify(cacheService).clearAllCache();
+        verify(jsEngineService, atLeastOnce()).evictWidget(any());
     }
 
     @Test
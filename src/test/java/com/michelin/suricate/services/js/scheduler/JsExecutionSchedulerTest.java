@@ -1,33 +1,55 @@
 package com.michelin.suricate.services.js.scheduler;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.model.dto.js.WidgetVariableResponseDto;
 import com.michelin.suricate.model.entities.Project;
 import com.michelin.suricate.model.entities.ProjectGrid;
 import com.michelin.suricate.model.entities.ProjectWidget;
-import com.michelin.suricate.model.entities.Widget;
+import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
 import com.michelin.suricate.model.enums.WidgetStateEnum;
+import com.michelin.suricate.properties.ApplicationProperties;
 import com.michelin.suricate.services.api.ProjectWidgetService;
-import com.michelin.suricate.services.api.WidgetService;
+import com.michelin.suricate.services.js.services.JsCircuitBreakerService;
+import com.michelin.suricate.services.js.services.JsEngineService;
+import com.michelin.suricate.services.js.services.JsExecutionMemoService;
+import com.michelin.suricate.services.js.services.JsExecutionRegistryService;
 import com.michelin.suricate.services.js.services.JsExecutionService;
+import com.michelin.suricate.services.js.services.JsResultWriterService;
 import com.michelin.suricate.services.js.tasks.JsResultAsyncTask;
 import java.util.Collections;
-import java.util.Optional;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
 
 @ExtendWith(MockitoExtension.class)
 class JsExecutionSchedulerTest {
@@ -35,10 +57,16 @@ class JsExecutionSchedulerTest {
     private JsExecutionService jsExecutionService;
 
     @Mock
-    private ProjectWidgetService projectWidgetService;
+    private JsEngineService jsEngineService;
+
+    @Mock
+    private JsCircuitBreakerService jsCircuitBreakerService;
+
+    @Mock
+    private JsExecutionMemoService jsExecutionMemoService;
 
     @Mock
-    private WidgetService widgetService;
+    private ProjectWidgetService projectWidgetService;
 
     @Mock
     private JsResultAsyncTask jsResultAsyncTask;
@@ -46,6 +74,15 @@ class JsExecutionSchedulerTest {
     @Mock
     private ApplicationContext applicationContext;
 
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Mock
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
+    @Mock
+    private JsResultWriterService jsResultWriterService;
+
     @Spy
     @InjectMocks
     private JsExecutionScheduler scheduler;
@@ -70,8 +107,8 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService)
             .isJsExecutable(jsExecutionDto);
-        verify(projectWidgetService)
-            .updateState(argThat(WidgetStateEnum.STOPPED::equals),
+        verify(jsResultWriterService)
+            .writeState(argThat(WidgetStateEnum.STOPPED::equals),
                 argThat(projectWidgetId -> projectWidgetId.equals(1L)), any());
     }
 
@@ -80,18 +117,9 @@ class JsExecutionSchedulerTest {
         WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
         widgetVariableResponseDto.setName("name");
 
-        Widget widget = new Widget();
-        widget.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-        projectWidget.setWidget(widget);
-
         when(jsExecutionService.isJsExecutable(any()))
             .thenReturn(true);
-        when(projectWidgetService.getOne(any()))
-            .thenReturn(Optional.of(projectWidget));
-        when(widgetService.getWidgetParametersForJsExecution(any()))
+        when(jsExecutionRegistryService.getWidgetParameters(any()))
             .thenReturn(Collections.singletonList(widgetVariableResponseDto));
         when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
             .thenReturn(jsResultAsyncTask);
@@ -106,12 +134,10 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService)
             .isJsExecutable(jsExecutionDto);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(widgetService)
-            .getWidgetParametersForJsExecution(widget);
-        verify(projectWidgetService)
-            .updateState(argThat(WidgetStateEnum.RUNNING::equals),
+        verify(jsExecutionRegistryService)
+            .getWidgetParameters(1L);
+        verify(jsResultWriterService)
+            .writeState(argThat(WidgetStateEnum.RUNNING::equals),
                 argThat(projectWidgetId -> projectWidgetId.equals(1L)), any());
     }
 
@@ -120,18 +146,9 @@ class JsExecutionSchedulerTest {
         WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
         widgetVariableResponseDto.setName("name");
 
-        Widget widget = new Widget();
-        widget.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-        projectWidget.setWidget(widget);
-
         when(jsExecutionService.isJsExecutable(any()))
             .thenReturn(true);
-        when(projectWidgetService.getOne(any()))
-            .thenReturn(Optional.of(projectWidget));
-        when(widgetService.getWidgetParametersForJsExecution(any()))
+        when(jsExecutionRegistryService.getWidgetParameters(any()))
             .thenReturn(Collections.singletonList(widgetVariableResponseDto));
         when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
             .thenReturn(jsResultAsyncTask);
@@ -145,12 +162,111 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService)
             .isJsExecutable(jsExecutionDto);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(widgetService)
-            .getWidgetParametersForJsExecution(widget);
-        verify(projectWidgetService, times(0))
-            .updateState(any(), any(), any());
+        verify(jsExecutionRegistryService)
+            .getWidgetParameters(1L);
+        verify(jsResultWriterService, times(0))
+            .writeState(any(), any(), any());
+    }
+
+    @Test
+    void shouldProcessResultOnExecutionCompletion() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<JsResultDto> jsResult = new AtomicReference<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicReference<Thread> executionThread = new AtomicReference<>();
+        AtomicReference<Thread> resultThread = new AtomicReference<>();
+
+        when(jsExecutionService.isJsExecutable(any()))
+            .thenReturn(true);
+        when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
+            .thenReturn(jsResultAsyncTask);
+        when(jsEngineService.getSource(any(), any()))
+            .thenAnswer(invocation -> {
+                executionThread.set(Thread.currentThread());
+                return null;
+            });
+        doAnswer(invocation -> {
+            jsResult.set(invocation.getArgument(0));
+            failure.set(invocation.getArgument(1));
+            resultThread.set(Thread.currentThread());
+            latch.countDown();
+            return null;
+        }).when(jsResultAsyncTask).accept(any(), any());
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setWidgetState(WidgetStateEnum.RUNNING);
+
+        scheduler.init();
+        scheduler.schedule(jsExecutionDto, true);
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(jsResult.get().getProjectWidgetId()).isEqualTo(1L);
+        assertThat(failure.get()).isNull();
+        assertThat(resultThread.get()).isNotNull().isNotSameAs(executionThread.get());
+    }
+
+    @Test
+    void shouldScheduleWidgetOnTimingWheel() throws Exception {
+        applicationProperties.getJs().getScheduler().setTimingWheel(true);
+        applicationProperties.getJs().getScheduler().setTickDuration(100);
+
+        CountDownLatch latch = new CountDownLatch(1);
+
+        when(jsExecutionService.isJsExecutable(any()))
+            .thenReturn(true);
+        when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
+            .thenReturn(jsResultAsyncTask);
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(jsResultAsyncTask).accept(any(), any());
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setWidgetState(WidgetStateEnum.RUNNING);
+
+        scheduler.init();
+        scheduler.schedule(jsExecutionDto, true);
+
+        assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldScheduleWidgetOnVirtualThread() throws Exception {
+        applicationProperties.getJs().getScheduler().setVirtualThreads(true);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicBoolean virtualThread = new AtomicBoolean();
+
+        when(jsExecutionService.isJsExecutable(any()))
+            .thenReturn(true);
+        when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
+            .thenReturn(jsResultAsyncTask);
+        when(jsEngineService.getSource(any(), any()))
+            .thenAnswer(invocation -> {
+                virtualThread.set(Thread.currentThread().isVirtual());
+                return null;
+            });
+        doAnswer(invocation -> {
+            latch.countDown();
+            return null;
+        }).when(jsResultAsyncTask).accept(any(), any());
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setWidgetState(WidgetStateEnum.RUNNING);
+
+        try {
+            scheduler.init();
+            scheduler.schedule(jsExecutionDto, true);
+
+            assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(virtualThread).isTrue();
+        } finally {
+            scheduler.stopPinningDiagnostics();
+        }
     }
 
     @Test
@@ -158,18 +274,9 @@ class JsExecutionSchedulerTest {
         WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
         widgetVariableResponseDto.setName("name");
 
-        Widget widget = new Widget();
-        widget.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-        projectWidget.setWidget(widget);
-
         when(jsExecutionService.isJsExecutable(any()))
             .thenReturn(true);
-        when(projectWidgetService.getOne(any()))
-            .thenReturn(Optional.of(projectWidget));
-        when(widgetService.getWidgetParametersForJsExecution(any()))
+        when(jsExecutionRegistryService.getWidgetParameters(any()))
             .thenReturn(Collections.singletonList(widgetVariableResponseDto));
         when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
             .thenReturn(jsResultAsyncTask);
@@ -183,12 +290,62 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService)
             .isJsExecutable(jsExecutionDto);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(widgetService)
-            .getWidgetParametersForJsExecution(widget);
-        verify(projectWidgetService, times(0))
-            .updateState(any(), any(), any());
+        verify(jsExecutionRegistryService)
+            .getWidgetParameters(1L);
+        verify(jsResultWriterService, times(0))
+            .writeState(any(), any(), any());
+    }
+
+    @Test
+    void shouldStaggerJsExecRequestsOnSubscription() {
+        JsExecutionDto neverSucceeded = new JsExecutionDto();
+        neverSucceeded.setProjectWidgetId(1L);
+
+        JsExecutionDto oldest = new JsExecutionDto();
+        oldest.setProjectWidgetId(2L);
+        oldest.setLastSuccessDate(new Date(1000L));
+
+        JsExecutionDto newest = new JsExecutionDto();
+        newest.setProjectWidgetId(3L);
+        newest.setLastSuccessDate(new Date(2000L));
+
+        doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.scheduleJsRequestsOnSubscription(List.of(newest, neverSucceeded, oldest));
+
+        ArgumentCaptor<JsExecutionDto> jsExecutionDtoCaptor = ArgumentCaptor.forClass(JsExecutionDto.class);
+        ArgumentCaptor<Long> delayCaptor = ArgumentCaptor.forClass(Long.class);
+        verify(scheduler, times(3))
+            .schedule(jsExecutionDtoCaptor.capture(), delayCaptor.capture(), eq(TimeUnit.MILLISECONDS));
+
+        assertThat(jsExecutionDtoCaptor.getAllValues()).containsExactly(neverSucceeded, oldest, newest);
+        assertThat(delayCaptor.getAllValues().get(0)).isBetween(1000L, 4332L);
+        assertThat(delayCaptor.getAllValues().get(1)).isBetween(4333L, 7665L);
+        assertThat(delayCaptor.getAllValues().get(2)).isBetween(7666L, 10998L);
+    }
+
+    @Test
+    void shouldStartJsExecRequestsOnSubscriptionWithoutWindow() {
+        applicationProperties.getJs().getScheduler().setStartupWindow(0);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+
+        doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.scheduleJsRequestsOnSubscription(List.of(jsExecutionDto, jsExecutionDto));
+
+        verify(scheduler, times(2))
+            .schedule(jsExecutionDto, 1000L, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void shouldGetStaggeredDelay() {
+        assertThat(JsExecutionScheduler.getStaggeredDelay(0, 10, 0)).isZero();
+        assertThat(JsExecutionScheduler.getStaggeredDelay(0, 0, 1000)).isZero();
+        assertThat(JsExecutionScheduler.getStaggeredDelay(0, 10, 1000)).isBetween(0L, 99L);
+        assertThat(JsExecutionScheduler.getStaggeredDelay(9, 10, 1000)).isBetween(900L, 999L);
+        assertThat(JsExecutionScheduler.getStaggeredDelay(1999, 2000, 1000)).isEqualTo(999L);
     }
 
     @Test
@@ -196,13 +353,6 @@ class JsExecutionSchedulerTest {
         WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
         widgetVariableResponseDto.setName("name");
 
-        Widget widget = new Widget();
-        widget.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-        projectWidget.setWidget(widget);
-
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectWidgetId(1L);
         jsExecutionDto.setWidgetState(WidgetStateEnum.RUNNING);
@@ -214,12 +364,10 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService, times(0))
             .isJsExecutable(any());
-        verify(projectWidgetService, times(0))
-            .getOne(any());
-        verify(widgetService, times(0))
-            .getWidgetParametersForJsExecution(any());
-        verify(projectWidgetService, times(0))
-            .updateState(any(), any(), any());
+        verify(jsExecutionRegistryService, times(0))
+            .getWidgetParameters(any());
+        verify(jsResultWriterService, times(0))
+            .writeState(any(), any(), any());
     }
 
     @Test
@@ -227,18 +375,9 @@ class JsExecutionSchedulerTest {
         WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
         widgetVariableResponseDto.setName("name");
 
-        Widget widget = new Widget();
-        widget.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-        projectWidget.setWidget(widget);
-
         when(jsExecutionService.isJsExecutable(any()))
             .thenReturn(true);
-        when(projectWidgetService.getOne(any()))
-            .thenReturn(Optional.of(projectWidget));
-        when(widgetService.getWidgetParametersForJsExecution(any()))
+        when(jsExecutionRegistryService.getWidgetParameters(any()))
             .thenReturn(Collections.singletonList(widgetVariableResponseDto));
         when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
             .thenReturn(jsResultAsyncTask);
@@ -253,14 +392,12 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService, times(2))
             .isJsExecutable(jsExecutionDto);
-        verify(projectWidgetService, times(2))
-            .getOne(1L);
-        verify(widgetService, times(2))
-            .getWidgetParametersForJsExecution(widget);
-        verify(scheduler, times(2))
+        verify(jsExecutionRegistryService, times(2))
+            .getWidgetParameters(1L);
+        verify(scheduler)
             .cancelScheduledFutureTask(eq(1L), any());
-        verify(projectWidgetService)
-            .updateState(WidgetStateEnum.STOPPED, 1L);
+        verify(jsResultWriterService)
+            .writeState(WidgetStateEnum.STOPPED, 1L, null);
     }
 
     @Test
@@ -268,18 +405,9 @@ class JsExecutionSchedulerTest {
         WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
         widgetVariableResponseDto.setName("name");
 
-        Widget widget = new Widget();
-        widget.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-        projectWidget.setWidget(widget);
-
         when(jsExecutionService.isJsExecutable(any()))
             .thenReturn(true);
-        when(projectWidgetService.getOne(any()))
-            .thenReturn(Optional.of(projectWidget));
-        when(widgetService.getWidgetParametersForJsExecution(any()))
+        when(jsExecutionRegistryService.getWidgetParameters(any()))
             .thenReturn(Collections.singletonList(widgetVariableResponseDto));
         when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
             .thenReturn(jsResultAsyncTask);
@@ -293,14 +421,12 @@ class JsExecutionSchedulerTest {
 
         verify(jsExecutionService)
             .isJsExecutable(jsExecutionDto);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(widgetService)
-            .getWidgetParametersForJsExecution(widget);
+        verify(jsExecutionRegistryService)
+            .getWidgetParameters(1L);
         verify(scheduler, times(0))
             .cancelScheduledFutureTask(eq(1L), any());
-        verify(projectWidgetService)
-            .updateState(WidgetStateEnum.STOPPED, 1L);
+        verify(jsResultWriterService)
+            .writeState(WidgetStateEnum.STOPPED, 1L, null);
     }
 
     @Test
@@ -319,7 +445,292 @@ class JsExecutionSchedulerTest {
         scheduler.init();
         scheduler.cancelWidgetsExecutionByProject(project);
 
-        verify(projectWidgetService)
-            .updateState(WidgetStateEnum.STOPPED, 1L);
+        verify(jsResultWriterService)
+            .writeState(WidgetStateEnum.STOPPED, 1L, null);
+    }
+
+    @Test
+    void shouldScheduleWidgetOfDisplayedGridWithDelay() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectGridId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(15L);
+
+        Project project = new Project();
+        project.setId(1L);
+
+        doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.updateDisplayedGrids(project, Set.of(1L));
+        scheduler.schedule(jsExecutionDto, false);
+
+        verify(scheduler)
+            .schedule(jsExecutionDto, 15L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldSlowDownWidgetOfHiddenGrid() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectGridId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(15L);
+
+        Project project = new Project();
+        project.setId(1L);
+
+        doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.updateDisplayedGrids(project, Set.of(2L));
+        scheduler.schedule(jsExecutionDto, false);
+
+        verify(scheduler)
+            .schedule(jsExecutionDto, 60L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldPauseWidgetOfHiddenGridAndResumeItWhenDisplayed() {
+        applicationProperties.getJs().getScheduler().setHiddenGridDelayFactor(0);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectGridId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(15L);
+
+        Project project = new Project();
+        project.setId(1L);
+
+        lenient().doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.updateDisplayedGrids(project, Set.of(2L));
+        scheduler.schedule(jsExecutionDto, false);
+
+        verify(scheduler, times(0))
+            .schedule(any(), anyLong(), any());
+
+        scheduler.updateDisplayedGrids(project, null);
+
+        verify(scheduler)
+            .cancelScheduledFutureTask(1L, null);
+        verify(scheduler)
+            .schedule(jsExecutionDto, 1L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldNotResumeCanceledWidgetOfHiddenGrid() {
+        applicationProperties.getJs().getScheduler().setHiddenGridDelayFactor(0);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectGridId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(15L);
+
+        Project project = new Project();
+        project.setId(1L);
+
+        scheduler.updateDisplayedGrids(project, Set.of(2L));
+        scheduler.schedule(jsExecutionDto, false);
+        scheduler.cancelWidgetExecution(1L);
+        scheduler.updateDisplayedGrids(project, null);
+
+        verify(scheduler, times(0))
+            .schedule(any(), anyLong(), any());
+    }
+
+    @Test
+    void shouldPrewarmNextGrid() {
+        applicationProperties.getJs().getScheduler().setHiddenGridDelayFactor(0);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectGridId(2L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(15L);
+
+        ProjectGrid projectGrid = new ProjectGrid();
+        projectGrid.setId(1L);
+        projectGrid.setTime(5);
+
+        ProjectGrid projectGrid2 = new ProjectGrid();
+        projectGrid2.setId(2L);
+        projectGrid2.setTime(5);
+
+        Project project = new Project();
+        project.setId(1L);
+        project.getGrids().add(projectGrid);
+        project.getGrids().add(projectGrid2);
+
+        lenient().doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.init();
+        scheduler.updateDisplayedGrids(project, Set.of(1L));
+        scheduler.schedule(jsExecutionDto, false);
+        scheduler.prewarmNextGrid(project, 1L);
+
+        verify(scheduler, timeout(5000))
+            .schedule(jsExecutionDto, 1L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldBackOffRefreshIntervalWhenDataIsUnchanged() {
+        applicationProperties.getJs().getScheduler().setAdaptiveRefresh(true);
+        applicationProperties.getJs().getScheduler().setAdaptiveRefreshCeiling(100);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(30L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{\"value\": 1}");
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(30L);
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(60L);
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(100L);
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(100L);
+
+        jsResultDto.setData("{\"value\": 2}");
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(30L);
+    }
+
+    @Test
+    void shouldResetRefreshIntervalWhenResultIsNotValid() {
+        applicationProperties.getJs().getScheduler().setAdaptiveRefresh(true);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(30L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{}");
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(60L);
+
+        jsResultDto.setError(JsExecutionErrorTypeEnum.ERROR);
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(30L);
+    }
+
+    @Test
+    void shouldNotAdaptRefreshIntervalWhenDisabled() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(30L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{}");
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+
+        assertThat(scheduler.getRefreshInterval(1L, 30L)).isEqualTo(30L);
+    }
+
+    @Test
+    void shouldScheduleWidgetAfterAdaptedRefreshInterval() {
+        applicationProperties.getJs().getScheduler().setAdaptiveRefresh(true);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(30L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{}");
+
+        doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        scheduler.adaptRefreshInterval(jsResultDto, jsExecutionDto);
+        scheduler.schedule(jsExecutionDto, false);
+
+        verify(scheduler)
+            .schedule(jsExecutionDto, 60L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldDelayWidgetUntilOpenCircuitIsHalfOpen() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(15L);
+
+        when(jsCircuitBreakerService.getOpenCircuitDelay(1L))
+            .thenReturn(42500L);
+        doNothing().when(scheduler).schedule(any(), anyLong(), any());
+
+        scheduler.schedule(jsExecutionDto, false);
+
+        verify(scheduler)
+            .schedule(jsExecutionDto, 43L, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldForgetCircuitsOfCanceledWidget() {
+        scheduler.cancelWidgetExecution(1L);
+
+        verify(jsCircuitBreakerService)
+            .forgetWidget(1L);
+        verify(jsExecutionMemoService)
+            .forget(1L);
+    }
+
+    @Test
+    void shouldStopRunawayScriptWhenCanceled() {
+        applicationProperties.getJs().setStatementLimit(0);
+
+        JsEngineService realJsEngineService = spy(new JsEngineService());
+        ReflectionTestUtils.setField(realJsEngineService, "applicationProperties", applicationProperties);
+        realJsEngineService.init();
+        ReflectionTestUtils.setField(scheduler, "jsEngineService", realJsEngineService);
+
+        when(jsExecutionService.isJsExecutable(any()))
+            .thenReturn(true);
+        when(applicationContext.getBean(eq(JsResultAsyncTask.class), any(), any(), any(), any()))
+            .thenReturn(jsResultAsyncTask);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setWidgetState(WidgetStateEnum.RUNNING);
+        jsExecutionDto.setScript("function run() { while (true) {} }");
+
+        try {
+            scheduler.init();
+            scheduler.schedule(jsExecutionDto, true);
+
+            verify(realJsEngineService, timeout(10000))
+                .acquireContext(any(), any());
+
+            scheduler.cancelWidgetExecution(1L);
+
+            verify(realJsEngineService, timeout(10000))
+                .cancelContext(any());
+            verify(realJsEngineService, timeout(10000))
+                .releaseContext(any());
+            verify(jsResultAsyncTask)
+                .accept(any(), argThat(CancellationException.class::isInstance));
+            assertThat(realJsEngineService.countIdleContexts()).isZero();
+        } finally {
+            realJsEngineService.close();
+        }
     }
 }
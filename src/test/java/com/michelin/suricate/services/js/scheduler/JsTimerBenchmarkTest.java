@@ -0,0 +1,88 @@
+package com.michelin.suricate.services.js.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Compare the Js timer backends with tens of thousands of widget timers.
+ * Run with "mvn test -P benchmark".
+ */
+@Slf4j
+@Tag("benchmark")
+class JsTimerBenchmarkTest {
+    private static final String WARMUP = "warmup";
+
+    private static final int WARMUP_TIMERS = 10000;
+
+    private static final int RESCHEDULES_PER_TIMER = 5;
+
+    private static final int MAX_DELAY = 300;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10000, 50000, 100000})
+    void shouldCompareTimers(int timers) {
+        long[] delays = new Random(timers).longs(timers, 1, MAX_DELAY).toArray();
+
+        benchmark(WARMUP, ScheduledExecutorJsTimer::new, new long[WARMUP_TIMERS]);
+        benchmark(WARMUP, () -> new TimingWheelJsTimer(1, TimeUnit.SECONDS, 512), new long[WARMUP_TIMERS]);
+
+        benchmark("ScheduledExecutorJsTimer", ScheduledExecutorJsTimer::new, delays);
+        benchmark("TimingWheelJsTimer", () -> new TimingWheelJsTimer(1, TimeUnit.SECONDS, 512), delays);
+    }
+
+    /**
+     * Schedule one timer per widget, then cancel and reschedule each of them
+     * as the scheduler does after each Js execution, then cancel all of them.
+     *
+     * @param name   The name of the backend
+     * @param timer  The backend
+     * @param delays The delay of each widget timer, in seconds
+     */
+    private void benchmark(String name, Supplier<JsTimer> timer, long[] delays) {
+        JsTimer jsTimer = timer.get();
+
+        try {
+            List<JsTimer.Timeout> timeouts = new ArrayList<>(delays.length);
+
+            long start = System.nanoTime();
+            for (long delay : delays) {
+                timeouts.add(jsTimer.schedule(() -> { }, delay + 1, TimeUnit.SECONDS));
+            }
+            long scheduleTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int round = 0; round < RESCHEDULES_PER_TIMER; round++) {
+                for (int i = 0; i < delays.length; i++) {
+                    timeouts.get(i).cancel();
+                    timeouts.set(i, jsTimer.schedule(() -> { }, delays[i] + 1, TimeUnit.SECONDS));
+                }
+            }
+            long rescheduleTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            timeouts.forEach(JsTimer.Timeout::cancel);
+            long cancelTime = System.nanoTime() - start;
+
+            assertThat(jsTimer.countPendingTasks()).isZero();
+
+            if (!WARMUP.equals(name)) {
+                log.info("{} with {} timers: schedule {} ns/op, cancel and reschedule {} ns/op, cancel {} ns/op",
+                    name, delays.length,
+                    scheduleTime / delays.length,
+                    rescheduleTime / ((long) delays.length * RESCHEDULES_PER_TIMER),
+                    cancelTime / delays.length);
+            }
+        } finally {
+            jsTimer.stop();
+        }
+    }
+}
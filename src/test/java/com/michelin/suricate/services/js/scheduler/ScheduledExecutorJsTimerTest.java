@@ -0,0 +1,46 @@
+package com.michelin.suricate.services.js.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ScheduledExecutorJsTimerTest {
+    private final ScheduledExecutorJsTimer timer = new ScheduledExecutorJsTimer();
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    void shouldRunTaskAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        JsTimer.Timeout timeout = timer.schedule(latch::countDown, 10, TimeUnit.MILLISECONDS);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+    }
+
+    @Test
+    void shouldNotRunCancelledTask() throws InterruptedException {
+        AtomicBoolean run = new AtomicBoolean();
+
+        JsTimer.Timeout timeout = timer.schedule(() -> run.set(true), 50, TimeUnit.MILLISECONDS);
+
+        assertThat(timer.countPendingTasks()).isEqualTo(1);
+        assertThat(timeout.cancel()).isTrue();
+
+        Thread.sleep(200);
+
+        assertThat(run).isFalse();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(timeout.isExpired()).isFalse();
+        assertThat(timer.countPendingTasks()).isZero();
+    }
+}
@@ -0,0 +1,103 @@
+package com.michelin.suricate.services.js.scheduler;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelJsTimerTest {
+    private final TimingWheelJsTimer timer = new TimingWheelJsTimer(10, TimeUnit.MILLISECONDS, 8);
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    void shouldRunTaskAfterDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        JsTimer.Timeout timeout = timer.schedule(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+        assertThat(timeout.isExpired()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+        assertThat(timer.countPendingTasks()).isZero();
+    }
+
+    @Test
+    void shouldRunTaskAfterSeveralRounds() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        timer.schedule(latch::countDown, 300, TimeUnit.MILLISECONDS);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    void shouldRunAlreadyExpiredTask() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        timer.schedule(latch::countDown, 0, TimeUnit.MILLISECONDS);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldNotRunCancelledTask() throws InterruptedException {
+        AtomicBoolean run = new AtomicBoolean();
+
+        JsTimer.Timeout timeout = timer.schedule(() -> run.set(true), 50, TimeUnit.MILLISECONDS);
+
+        assertThat(timer.countPendingTasks()).isEqualTo(1);
+        assertThat(timeout.cancel()).isTrue();
+        assertThat(timeout.cancel()).isFalse();
+
+        Thread.sleep(200);
+
+        assertThat(run).isFalse();
+        assertThat(timeout.isCancelled()).isTrue();
+        assertThat(timeout.isExpired()).isFalse();
+        assertThat(timer.countPendingTasks()).isZero();
+    }
+
+    @Test
+    void shouldKeepRunningWhenTaskFails() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        timer.schedule(() -> {
+            throw new IllegalStateException("Error");
+        }, 10, TimeUnit.MILLISECONDS);
+        timer.schedule(latch::countDown, 20, TimeUnit.MILLISECONDS);
+
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void shouldNotScheduleWhenStopped() {
+        timer.stop();
+
+        assertThatThrownBy(() -> timer.schedule(() -> { }, 10, TimeUnit.MILLISECONDS))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("The timing wheel is stopped");
+    }
+
+    @Test
+    void shouldNotCreateInvalidWheel() {
+        assertThatThrownBy(() -> new TimingWheelJsTimer(0, TimeUnit.MILLISECONDS, 8))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("The tick duration must be positive");
+
+        assertThatThrownBy(() -> new TimingWheelJsTimer(10, TimeUnit.MILLISECONDS, 0))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("The wheel size must be between 1 and 2^30");
+    }
+}
@@ -5,30 +5,54 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.argThat;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.properties.ProxyProperties;
+import com.michelin.suricate.services.js.services.JsCircuitBreakerService;
+import com.michelin.suricate.services.js.services.JsHttpClientService;
+import com.michelin.suricate.services.js.services.JsHttpLimiterService;
+import com.michelin.suricate.services.js.services.JsResponseCacheService;
+import com.michelin.suricate.utils.SpringContextUtils;
 import com.michelin.suricate.utils.exceptions.js.FatalException;
 import com.michelin.suricate.utils.exceptions.js.RemoteException;
 import com.michelin.suricate.utils.exceptions.js.RequestException;
 import com.michelin.suricate.utils.http.OkHttpClientUtils;
+import com.sun.net.httpserver.HttpServer;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import okhttp3.Call;
+import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
+import okio.Timeout;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 
@@ -40,6 +64,21 @@ class JsEndpointsTest {
     @Mock
     private Call call;
 
+    @Mock
+    private ApplicationContext applicationContext;
+
+    @Mock
+    private JsResponseCacheService jsResponseCacheService;
+
+    @Mock
+    private JsHttpLimiterService jsHttpLimiterService;
+
+    @Mock
+    private JsCircuitBreakerService jsCircuitBreakerService;
+
+    @Mock
+    private JsHttpClientService jsHttpClientService;
+
     @Test
     void shouldGetSuccessful() throws IOException, RemoteException, RequestException {
         try (MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
@@ -535,6 +574,619 @@ class JsEndpointsTest {
         assertThatCode(JsEndpoints::checkInterrupted).doesNotThrowAnyException();
     }
 
+    @Test
+    void shouldGetSharedResponse() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mocked = mockStatic(SpringContextUtils.class)) {
+            mocked.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(true);
+            when(jsResponseCacheService.getResponse(any(), any()))
+                .thenReturn(new JsResponseCacheService.CachedResponse(HttpStatus.OK.value(),
+                    Headers.of("ETag", "v1"), "cached"));
+
+            assertThat(JsEndpoints.get("https://mocked.com")).isEqualTo("cached");
+            assertThat(JsEndpoints.get("https://mocked.com", "Authorization", "token", "ETag")).isEqualTo("v1");
+            assertThat(JsEndpoints.get("https://mocked.com", true)).isEqualTo("200");
+
+            verify(jsResponseCacheService, times(2)).getResponse(eq("GET https://mocked.com/"), any());
+            verify(jsResponseCacheService).getResponse(eq(JsResponseCacheService
+                .getKey("GET", "https://mocked.com/", "Authorization", "token")), any());
+            verify(client, never()).newCall(any());
+        }
+    }
+
+    @Test
+    void shouldLoadSharedResponse() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("response",
+                    MediaType.get(String.valueOf(org.springframework.http.MediaType.APPLICATION_JSON))))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getProperties()).thenReturn(new ApplicationProperties.Http());
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(true);
+            when(jsResponseCacheService.getResponse(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1, JsResponseCacheService.ResponseLoader.class)
+                    .load(null));
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.get("https://mocked.com");
+
+            assertThat(actual).isEqualTo("response");
+
+            verify(client)
+                .newCall(argThat(request -> request.url().toString().equals("https://mocked.com/")
+                    && request.method().equals(HttpMethod.GET.toString())));
+        }
+    }
+
+    @Test
+    void shouldRevalidateSharedResponse() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.NOT_MODIFIED.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create(EMPTY, null))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(true);
+            when(jsResponseCacheService.isRevalidation()).thenReturn(true);
+            when(jsResponseCacheService.getValidatedResponse("GET https://mocked.com/"))
+                .thenReturn(new JsResponseCacheService.CachedResponse(HttpStatus.OK.value(),
+                    Headers.of("ETag", "v1", "Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT"), "cached"));
+            when(jsResponseCacheService.getResponse(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1, JsResponseCacheService.ResponseLoader.class)
+                    .load(null));
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.get("https://mocked.com");
+
+            assertThat(actual).isEqualTo("cached");
+
+            verify(client)
+                .newCall(argThat(request -> "v1".equals(request.header("If-None-Match"))
+                    && "Wed, 21 Oct 2015 07:28:00 GMT".equals(request.header("If-Modified-Since"))));
+            verify(jsResponseCacheService).countRevalidated();
+            verify(jsResponseCacheService, never()).putValidatedResponse(any(), any());
+        }
+    }
+
+    @Test
+    void shouldHoldValidatedResponse() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .header("ETag", "v2")
+                .body(ResponseBody.create("response",
+                    MediaType.get(String.valueOf(org.springframework.http.MediaType.APPLICATION_JSON))))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getProperties()).thenReturn(new ApplicationProperties.Http());
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(true);
+            when(jsResponseCacheService.isRevalidation()).thenReturn(true);
+            when(jsResponseCacheService.getResponse(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1, JsResponseCacheService.ResponseLoader.class)
+                    .load(null));
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.get("https://mocked.com");
+
+            assertThat(actual).isEqualTo("response");
+
+            verify(client).newCall(argThat(request -> request.header("If-None-Match") == null));
+            verify(jsResponseCacheService).putValidatedResponse(eq("GET https://mocked.com/"),
+                argThat(validatedResponse -> "v2".equals(validatedResponse.getHeaders().get("ETag"))
+                    && "response".equals(validatedResponse.getBody())));
+        }
+    }
+
+    @Test
+    void shouldGetSharedServerError() throws IOException, RemoteException {
+        try (MockedStatic<SpringContextUtils> mocked = mockStatic(SpringContextUtils.class)) {
+            mocked.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(true);
+            when(jsResponseCacheService.getResponse(any(), any()))
+                .thenReturn(new JsResponseCacheService.CachedResponse(HttpStatus.INTERNAL_SERVER_ERROR.value(),
+                    Headers.of(), "response"));
+
+            assertThatThrownBy(() -> JsEndpoints.get("https://mocked.com"))
+                .isInstanceOf(RemoteException.class)
+                .hasMessage("A server error occurred during the execution of the request /GET https://mocked.com/ "
+                    + "(code 500).");
+        }
+    }
+
+    @Test
+    void shouldGetSharedRequestError() throws IOException, RemoteException {
+        try (MockedStatic<SpringContextUtils> mocked = mockStatic(SpringContextUtils.class)) {
+            mocked.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(true);
+            when(jsResponseCacheService.getResponse(any(), any()))
+                .thenReturn(new JsResponseCacheService.CachedResponse(HttpStatus.NOT_FOUND.value(),
+                    Headers.of(), "response"));
+
+            assertThatThrownBy(() -> JsEndpoints.get("https://mocked.com"))
+                .isInstanceOf(RequestException.class)
+                .hasMessage("A request error occurred during the execution of the request /GET https://mocked.com/ "
+                    + "(code 404). Error body details: response");
+        }
+    }
+
+    @Test
+    void shouldNotShareWhenDisabled() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("response",
+                    MediaType.get(String.valueOf(org.springframework.http.MediaType.APPLICATION_JSON))))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getProperties()).thenReturn(new ApplicationProperties.Http());
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+            when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+            when(jsResponseCacheService.isShared()).thenReturn(false);
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.get("https://mocked.com");
+
+            assertThat(actual).isEqualTo("response");
+
+            verify(jsResponseCacheService, never()).getResponse(any(), any());
+        }
+    }
+
+    @Test
+    void shouldNotCachePost() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("response",
+                    MediaType.get(String.valueOf(org.springframework.http.MediaType.APPLICATION_JSON))))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getProperties()).thenReturn(new ApplicationProperties.Http());
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.post("https://mocked.com", "body");
+
+            assertThat(actual).isEqualTo("response");
+
+            verify(applicationContext, never()).getBean(JsResponseCacheService.class);
+        }
+    }
+
+    @Test
+    void shouldFailFastWhenHostLimitsAreExceeded() throws RemoteException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            JsCircuitBreakerService.Attempt attempt = mock(JsCircuitBreakerService.Attempt.class);
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt("mocked.com")).thenReturn(attempt);
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire("mocked.com")).thenThrow(new RemoteException("Too many calls"));
+
+            assertThatThrownBy(() -> JsEndpoints.post("https://mocked.com", "body"))
+                .isInstanceOf(RemoteException.class)
+                .hasMessage("Too many calls");
+
+            verify(applicationContext, never()).getBean(JsHttpClientService.class);
+            verify(attempt, never()).failed();
+            verify(attempt).close();
+        }
+    }
+
+    @Test
+    void shouldFailFastWhenCircuitIsOpen() throws RemoteException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt("mocked.com")).thenThrow(new RemoteException("Circuit open"));
+
+            assertThatThrownBy(() -> JsEndpoints.post("https://mocked.com", "body"))
+                .isInstanceOf(RemoteException.class)
+                .hasMessage("Circuit open");
+
+            verify(applicationContext, never()).getBean(JsHttpLimiterService.class);
+            verify(applicationContext, never()).getBean(JsHttpClientService.class);
+        }
+    }
+
+    @Test
+    void shouldNotTripCircuitWhenCallIsCanceled() throws IOException, RemoteException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            JsCircuitBreakerService.Attempt attempt = mock(JsCircuitBreakerService.Attempt.class);
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt("mocked.com")).thenReturn(attempt);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute())
+                .thenThrow(new IOException("Canceled"))
+                .thenThrow(new IOException("Connection refused"));
+            when(call.isCanceled())
+                .thenReturn(true)
+                .thenReturn(false);
+
+            assertThatThrownBy(() -> JsEndpoints.post("https://mocked.com", "body"))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Canceled");
+
+            verify(attempt, never()).failed();
+            verify(attempt).close();
+
+            assertThatThrownBy(() -> JsEndpoints.post("https://mocked.com", "body"))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Connection refused");
+
+            verify(attempt).failed();
+        }
+    }
+
+    @Test
+    void shouldNotSendRequestAfterDeadline() throws IOException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class);
+             MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            JsEndpointsContext context = new JsEndpointsContext();
+            context.setDeadline(System.currentTimeMillis() - 1);
+            JsEndpointsContext.set(context);
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(null);
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+
+            assertThatThrownBy(() -> JsEndpoints.post("https://mocked.com", "body"))
+                .isInstanceOf(RemoteException.class)
+                .hasMessage("The request /POST https://mocked.com/ has not been sent, "
+                    + "the timeout of the widget execution is exceeded.");
+
+            verify(call, never()).execute();
+        } finally {
+            JsEndpointsContext.clear();
+        }
+    }
+
+    @Test
+    void shouldBoundCallByDeadlineAndAbortItOnCancel() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class);
+             MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            final Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("response", null))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            JsEndpointsContext context = new JsEndpointsContext();
+            context.setDeadline(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10));
+            JsEndpointsContext.set(context);
+            Timeout timeout = new Timeout();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(null);
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.timeout()).thenReturn(timeout);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.post("https://mocked.com", "body");
+
+            assertThat(actual).isEqualTo("response");
+            assertThat(timeout.timeoutNanos()).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(10));
+
+            context.cancel();
+
+            assertThat(context.isCanceled()).isTrue();
+            verify(call).cancel();
+        } finally {
+            JsEndpointsContext.clear();
+        }
+    }
+
+    @Test
+    void shouldRecordAndRevalidateCallsOfMemoizedExecution() throws IOException, RemoteException, RequestException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class);
+             MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(null);
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenAnswer(invocation -> new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("response", null))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build());
+
+            JsEndpointsContext context = new JsEndpointsContext();
+            context.setMemoization(true);
+            JsEndpointsContext.set(context);
+
+            final String actual = JsEndpoints.get("https://mocked.com", "Authorization", "token");
+            final List<JsEndpointsContext.Fetch> fetches = context.getFetches();
+            JsEndpoints.post("https://mocked.com", "body");
+
+            JsEndpointsContext nextContext = new JsEndpointsContext();
+            nextContext.setMemoization(true);
+            JsEndpointsContext.set(nextContext);
+
+            boolean revalidated = nextContext.revalidate(fetches.get(0));
+            String nextActual = JsEndpoints.get("https://mocked.com", "Authorization", "token");
+
+            assertThat(actual).isEqualTo("response");
+            assertThat(fetches).hasSize(1);
+            assertThat(fetches.get(0).getRequest().getUrl()).isEqualTo("https://mocked.com");
+            assertThat(fetches.get(0).getRequest().getHeaderValue()).isEqualTo("token");
+            assertThat(context.isReplayable()).isFalse();
+            assertThat(revalidated).isTrue();
+            assertThat(nextActual).isEqualTo("response");
+            assertThat(nextContext.getFetches()).hasSize(1);
+            assertThat(nextContext.isReplayable()).isTrue();
+
+            // The call sent by the revalidation is not sent again by the execution
+            verify(client, times(3))
+                .newCall(any());
+        } finally {
+            JsEndpointsContext.clear();
+        }
+    }
+
+    @Test
+    void shouldNotRevalidateChangedCall() throws IOException, RemoteException, RequestException, FatalException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class);
+             MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            final Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("{\"value\":1}", null))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            final Response changedResponse = response.newBuilder()
+                .body(ResponseBody.create("{\"value\":2}", null))
+                .build();
+
+            JsEndpointsContext context = new JsEndpointsContext();
+            context.setMemoization(true);
+            JsEndpointsContext.set(context);
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(null);
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute())
+                .thenReturn(response)
+                .thenReturn(changedResponse)
+                .thenThrow(new IOException("error"));
+
+            JsEndpoints.extract("https://mocked.com", List.of("/value"));
+            JsEndpointsContext.Fetch fetch = context.getFetches().get(0);
+
+            assertThat(fetch.getRequest().getPointers()).containsExactly("/value");
+            assertThat(context.revalidate(fetch)).isFalse();
+            assertThat(context.revalidate(fetch)).isFalse();
+        } finally {
+            JsEndpointsContext.clear();
+        }
+    }
+
+    @Test
+    void shouldRejectOversizedResponse() throws IOException, RemoteException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("response", null))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            ApplicationProperties applicationProperties = new ApplicationProperties();
+            applicationProperties.getJs().getHttp().setMaxResponseSize(4);
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(applicationContext);
+            when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+            when(jsHttpClientService.getProperties()).thenReturn(applicationProperties.getJs().getHttp());
+            when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+            when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+            when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+            when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+            when(jsHttpClientService.getClient()).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            assertThatThrownBy(() -> JsEndpoints.post("https://mocked.com", "body"))
+                .isInstanceOf(RemoteException.class)
+                .hasMessage("The response of the request /GET https://mocked.com/ exceeds the maximum size of 4 bytes.");
+        }
+    }
+
+    @Test
+    void shouldExtractJsonPointers() throws IOException, RemoteException, RequestException, FatalException {
+        try (MockedStatic<SpringContextUtils> mockedContext = mockStatic(SpringContextUtils.class);
+             MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            Response response = new Response.Builder()
+                .code(HttpStatus.OK.value())
+                .request(new Request.Builder()
+                    .url("https://mocked.com")
+                    .build())
+                .body(ResponseBody.create("{\"data\":[{\"name\":\"a\",\"tags\":[\"x\"]},{\"name\":\"b\"}],"
+                    + "\"total\":2,\"meta\":{\"page\":1}}", null))
+                .protocol(Protocol.HTTP_2)
+                .message(EMPTY)
+                .build();
+
+            mockedContext.when(SpringContextUtils::getApplicationContext).thenReturn(null);
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.execute()).thenReturn(response);
+
+            String actual = JsEndpoints.extract("https://mocked.com", "Authorization", "token",
+                List.of("/data/1/name", "/total", "/meta", "/meta/page", "/missing"));
+
+            assertThat(actual).isEqualTo("{\"/data/1/name\":\"b\",\"/total\":2,\"/meta\":{\"page\":1},"
+                + "\"/meta/page\":1}");
+
+            verify(client)
+                .newCall(argThat(request -> request.method().equals(HttpMethod.GET.toString())
+                    && "token".equals(request.header("Authorization"))));
+        }
+    }
+
+    @Test
+    void shouldNotExtractInvalidJsonPointer() {
+        assertThatThrownBy(() -> JsEndpoints.extract("https://mocked.com", List.of("data")))
+            .isInstanceOf(FatalException.class)
+            .hasMessageStartingWith("The JSON pointer data is invalid");
+    }
+
+    @Test
+    void shouldGetAllConcurrently() throws IOException, InterruptedException, RemoteException, RequestException {
+        CountDownLatch arrivals = new CountDownLatch(3);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            arrivals.countDown();
+            try {
+                // Answer only when all the requests have been received, so they must be sent concurrently
+                boolean concurrent = arrivals.await(5, TimeUnit.SECONDS);
+                byte[] response = (exchange.getRequestURI().getPath() + " "
+                    + exchange.getRequestHeaders().getFirst("Authorization")).getBytes(StandardCharsets.UTF_8);
+                int code = !concurrent || exchange.getRequestURI().getPath().equals("/error") ? 500 : 200;
+                exchange.sendResponseHeaders(code, response.length);
+                exchange.getResponseBody().write(response);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        ApplicationContext previousApplicationContext = SpringContextUtils.getApplicationContext();
+        when(applicationContext.getBean(ProxyProperties.class)).thenReturn(new ProxyProperties());
+        when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+        when(jsHttpClientService.getClient()).thenReturn(OkHttpClientUtils.getUnsafeOkHttpClient());
+        when(jsHttpClientService.getProperties()).thenReturn(new ApplicationProperties.Http());
+        when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+        when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+        when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+        when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+        when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+        when(jsResponseCacheService.isShared()).thenReturn(false);
+        new SpringContextUtils().setApplicationContext(applicationContext);
+
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort();
+
+            List<JsEndpoints.BatchResponse> actual = JsEndpoints.getAll(List.of(
+                url + "/first",
+                Map.of("url", url + "/second", "headerName", "Authorization", "headerValue", "token"),
+                url + "/error"));
+
+            assertThat(actual).hasSize(3);
+            assertThat(actual.get(0).url).isEqualTo(url + "/first");
+            assertThat(actual.get(0).body).isEqualTo("/first null");
+            assertThat(actual.get(0).error).isNull();
+            assertThat(actual.get(1).body).isEqualTo("/second token");
+            assertThat(actual.get(1).error).isNull();
+            assertThat(actual.get(2).body).isNull();
+            assertThat(actual.get(2).error)
+                .isEqualTo("A server error occurred during the execution of the request /GET " + url + "/error "
+                    + "(code 500).");
+        } finally {
+            new SpringContextUtils().setApplicationContext(previousApplicationContext);
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void shouldGetAllEmpty() throws InterruptedException, RemoteException, RequestException {
+        assertThat(JsEndpoints.getAll(Collections.emptyList())).isEmpty();
+        assertThat(JsEndpoints.getAll(null)).isEmpty();
+    }
+
     @Test
     void shouldBtoaNull() {
         String actual = JsEndpoints.btoa(null);
@@ -4,27 +4,25 @@ import static com.michelin.suricate.model.enums.UpdateType.REFRESH_WIDGET;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.argThat;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
 import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.js.JsResultDto;
-import com.michelin.suricate.model.entities.ProjectWidget;
 import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
 import com.michelin.suricate.model.enums.WidgetStateEnum;
-import com.michelin.suricate.services.api.ProjectService;
-import com.michelin.suricate.services.api.ProjectWidgetService;
+import com.michelin.suricate.properties.ApplicationProperties;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
-import com.michelin.suricate.services.mapper.ProjectWidgetMapper;
 import com.michelin.suricate.services.websocket.DashboardWebSocketService;
 import java.time.Instant;
 import java.util.Date;
-import java.util.Optional;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.context.ApplicationContext;
 
@@ -40,16 +38,16 @@ class DashboardScheduleServiceTest {
     private DashboardWebSocketService dashboardWebSocketService;
 
     @Mock
-    private ProjectWidgetService projectWidgetService;
+    private JsExecutionService jsExecutionService;
 
     @Mock
-    private ProjectWidgetMapper projectWidgetMapper;
+    private JsExecutionRegistryService jsExecutionRegistryService;
 
     @Mock
-    private JsExecutionService jsExecutionService;
+    private JsResultWriterService jsResultWriterService;
 
-    @Mock
-    private ProjectService projectService;
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
 
     @InjectMocks
     private DashboardScheduleService dashboardScheduleService;
@@ -61,9 +59,7 @@ class DashboardScheduleServiceTest {
 
         ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
         projectWidgetResponseDto.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
+        projectWidgetResponseDto.setProjectToken("token");
 
         JsResultDto jsResultDto = new JsResultDto();
         jsResultDto.setProjectId(1L);
@@ -72,31 +68,56 @@ class DashboardScheduleServiceTest {
         jsResultDto.setLog("log");
         jsResultDto.setLaunchDate(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")));
 
-        when(jsExecutionService.getJsExecutionByProjectWidgetId(any())).thenReturn(jsExecutionDto);
-        when(projectWidgetService.getOne(any())).thenReturn(Optional.of(projectWidget));
-        when(projectWidgetMapper.toProjectWidgetDto(any())).thenReturn(projectWidgetResponseDto);
-        when(projectService.getTokenByProjectId(any())).thenReturn("token");
+        when(jsExecutionRegistryService.updateJsExecution(any())).thenReturn(jsExecutionDto);
+        when(jsExecutionRegistryService.updateProjectWidgetDto(any(), any())).thenReturn(projectWidgetResponseDto);
 
         dashboardScheduleService.processJsResult(jsResultDto, jsExecutionScheduler);
 
-        verify(projectWidgetService)
-            .updateWidgetInstanceAfterSucceededExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")),
+        verify(jsResultWriterService)
+            .writeSucceededExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")),
                 "log", "{}", 1L, WidgetStateEnum.RUNNING);
-        verify(jsExecutionService)
-            .getJsExecutionByProjectWidgetId(1L);
+        verify(jsExecutionRegistryService)
+            .updateJsExecution(jsResultDto);
+        verify(jsExecutionScheduler)
+            .adaptRefreshInterval(jsResultDto, jsExecutionDto);
         verify(jsExecutionScheduler)
             .schedule(jsExecutionDto, false);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(projectWidgetMapper)
-            .toProjectWidgetDto(projectWidget);
-        verify(projectService)
-            .getTokenByProjectId(1L);
+        verify(jsExecutionRegistryService)
+            .updateProjectWidgetDto(eq(1L), any());
         verify(dashboardWebSocketService)
             .sendEventToWidgetInstanceSubscribers(eq("token"), eq(1L), argThat(event ->
                 event.getType().equals(REFRESH_WIDGET) && event.getContent().equals(projectWidgetResponseDto)));
     }
 
+    @Test
+    void shouldSkipUnchangedJsResult() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{}");
+        jsResultDto.setLog("log");
+        jsResultDto.setLaunchDate(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")));
+
+        when(jsExecutionRegistryService.isUnchanged(any())).thenReturn(true);
+        when(jsExecutionRegistryService.updateJsExecution(any())).thenReturn(jsExecutionDto);
+
+        dashboardScheduleService.processJsResult(jsResultDto, jsExecutionScheduler);
+
+        verify(jsResultWriterService)
+            .writeUnchangedExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")), 1L);
+        verify(jsResultWriterService, times(0))
+            .writeSucceededExecution(any(), any(), any(), any(), any());
+        verify(jsExecutionScheduler)
+            .schedule(jsExecutionDto, false);
+        verify(jsExecutionRegistryService, times(0))
+            .updateProjectWidgetDto(any(), any());
+        verify(dashboardWebSocketService, times(0))
+            .sendEventToWidgetInstanceSubscribers(any(), any(), any());
+    }
+
     @Test
     void shouldProcessErrorJsResult() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
@@ -104,9 +125,7 @@ class DashboardScheduleServiceTest {
 
         ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
         projectWidgetResponseDto.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
+        projectWidgetResponseDto.setProjectToken("token");
 
         JsResultDto jsResultDto = new JsResultDto();
         jsResultDto.setProjectId(1L);
@@ -116,21 +135,15 @@ class DashboardScheduleServiceTest {
         jsResultDto.setError(JsExecutionErrorTypeEnum.ERROR);
         jsResultDto.setLaunchDate(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")));
 
-        when(projectWidgetService.getOne(any())).thenReturn(Optional.of(projectWidget));
-        when(projectWidgetMapper.toProjectWidgetDto(any())).thenReturn(projectWidgetResponseDto);
-        when(projectService.getTokenByProjectId(any())).thenReturn("token");
+        when(jsExecutionRegistryService.updateProjectWidgetDto(any(), any())).thenReturn(projectWidgetResponseDto);
 
         dashboardScheduleService.processJsResult(jsResultDto, jsExecutionScheduler);
 
-        verify(projectWidgetService)
-            .updateWidgetInstanceAfterFailedExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")),
+        verify(jsResultWriterService)
+            .writeFailedExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")),
                 "log", 1L, WidgetStateEnum.WARNING);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(projectWidgetMapper)
-            .toProjectWidgetDto(projectWidget);
-        verify(projectService)
-            .getTokenByProjectId(1L);
+        verify(jsExecutionRegistryService)
+            .updateProjectWidgetDto(eq(1L), any());
         verify(dashboardWebSocketService)
             .sendEventToWidgetInstanceSubscribers(eq("token"), eq(1L), argThat(event ->
                 event.getType().equals(REFRESH_WIDGET) && event.getContent().equals(projectWidgetResponseDto)));
@@ -143,9 +156,7 @@ class DashboardScheduleServiceTest {
 
         ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
         projectWidgetResponseDto.setId(1L);
-
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
+        projectWidgetResponseDto.setProjectToken("token");
 
         JsResultDto jsResultDto = new JsResultDto();
         jsResultDto.setProjectId(1L);
@@ -155,21 +166,15 @@ class DashboardScheduleServiceTest {
         jsResultDto.setError(JsExecutionErrorTypeEnum.FATAL);
         jsResultDto.setLaunchDate(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")));
 
-        when(projectWidgetService.getOne(any())).thenReturn(Optional.of(projectWidget));
-        when(projectWidgetMapper.toProjectWidgetDto(any())).thenReturn(projectWidgetResponseDto);
-        when(projectService.getTokenByProjectId(any())).thenReturn("token");
+        when(jsExecutionRegistryService.updateProjectWidgetDto(any(), any())).thenReturn(projectWidgetResponseDto);
 
         dashboardScheduleService.processJsResult(jsResultDto, jsExecutionScheduler);
 
-        verify(projectWidgetService)
-            .updateWidgetInstanceAfterFailedExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")),
+        verify(jsResultWriterService)
+            .writeFailedExecution(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")),
                 "log", 1L, WidgetStateEnum.STOPPED);
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(projectWidgetMapper)
-            .toProjectWidgetDto(projectWidget);
-        verify(projectService)
-            .getTokenByProjectId(1L);
+        verify(jsExecutionRegistryService)
+            .updateProjectWidgetDto(eq(1L), any());
         verify(dashboardWebSocketService)
             .sendEventToWidgetInstanceSubscribers(eq("token"), eq(1L), argThat(event ->
                 event.getType().equals(REFRESH_WIDGET) && event.getContent().equals(projectWidgetResponseDto)));
@@ -179,25 +184,17 @@ class DashboardScheduleServiceTest {
     void shouldUpdateWidgetInstanceNoJsResult() {
         ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
         projectWidgetResponseDto.setId(1L);
+        projectWidgetResponseDto.setProjectToken("token");
 
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
-
-        when(projectWidgetService.getOne(any())).thenReturn(Optional.of(projectWidget));
-        when(projectWidgetMapper.toProjectWidgetDto(any())).thenReturn(projectWidgetResponseDto);
-        when(projectService.getTokenByProjectId(any())).thenReturn("token");
+        when(jsExecutionRegistryService.updateProjectWidgetDto(any(), any())).thenReturn(projectWidgetResponseDto);
 
-        dashboardScheduleService.updateWidgetInstanceNoJsResult("logs", 1L, 1L);
+        dashboardScheduleService.updateWidgetInstanceNoJsResult("logs", 1L);
 
-        verify(projectWidgetService)
-            .updateWidgetInstanceAfterFailedExecution(any(),
+        verify(jsResultWriterService)
+            .writeFailedExecution(any(),
                 eq("logs"), eq(1L), eq(WidgetStateEnum.STOPPED));
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(projectWidgetMapper)
-            .toProjectWidgetDto(projectWidget);
-        verify(projectService)
-            .getTokenByProjectId(1L);
+        verify(jsExecutionRegistryService)
+            .updateProjectWidgetDto(eq(1L), any());
         verify(dashboardWebSocketService)
             .sendEventToWidgetInstanceSubscribers(eq("token"), eq(1L), argThat(event ->
                 event.getType().equals(REFRESH_WIDGET) && event.getContent().equals(projectWidgetResponseDto)));
@@ -207,27 +204,32 @@ class DashboardScheduleServiceTest {
     void shouldSendWidgetUpdateNotification() {
         ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
         projectWidgetResponseDto.setId(1L);
+        projectWidgetResponseDto.setProjectToken("token");
 
-        ProjectWidget projectWidget = new ProjectWidget();
-        projectWidget.setId(1L);
+        when(jsExecutionRegistryService.updateProjectWidgetDto(any(), any())).thenReturn(projectWidgetResponseDto);
 
-        when(projectWidgetService.getOne(any())).thenReturn(Optional.of(projectWidget));
-        when(projectWidgetMapper.toProjectWidgetDto(any())).thenReturn(projectWidgetResponseDto);
-        when(projectService.getTokenByProjectId(any())).thenReturn("token");
+        JsResultWriterService.PendingWrite pendingWrite =
+            new JsResultWriterService.PendingWrite(null, null, WidgetStateEnum.RUNNING, null, null);
 
-        dashboardScheduleService.sendWidgetUpdateNotification(1L, 1L);
+        dashboardScheduleService.sendWidgetUpdateNotification(1L, pendingWrite);
 
-        verify(projectWidgetService)
-            .getOne(1L);
-        verify(projectWidgetMapper)
-            .toProjectWidgetDto(projectWidget);
-        verify(projectService)
-            .getTokenByProjectId(1L);
+        verify(jsExecutionRegistryService)
+            .updateProjectWidgetDto(1L, pendingWrite);
         verify(dashboardWebSocketService)
             .sendEventToWidgetInstanceSubscribers(eq("token"), eq(1L), argThat(event ->
                 event.getType().equals(REFRESH_WIDGET) && event.getContent().equals(projectWidgetResponseDto)));
     }
 
+    @Test
+    void shouldNotSendWidgetUpdateNotificationOfDeletedWidgetInstance() {
+        dashboardScheduleService.sendWidgetUpdateNotification(1L, null);
+
+        verify(jsExecutionRegistryService)
+            .updateProjectWidgetDto(1L, null);
+        verify(dashboardWebSocketService, times(0))
+            .sendEventToWidgetInstanceSubscribers(any(), any(), any());
+    }
+
     @Test
     void shouldScheduleWidget() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
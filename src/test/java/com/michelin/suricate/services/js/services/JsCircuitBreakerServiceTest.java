@@ -0,0 +1,161 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsCircuitBreakerServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @InjectMocks
+    private JsCircuitBreakerService jsCircuitBreakerService;
+
+    @AfterEach
+    void tearDown() {
+        JsEndpointsContext.clear();
+    }
+
+    @Test
+    void shouldOpenCircuitAfterConsecutiveFailures() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(2);
+
+        jsCircuitBreakerService.attempt("host").failed();
+        jsCircuitBreakerService.attempt("host").succeeded();
+        jsCircuitBreakerService.attempt("host").failed();
+
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getStatus())
+            .isEqualTo(JsCircuitBreakerService.CircuitStatus.CLOSED);
+
+        jsCircuitBreakerService.attempt("host").failed();
+
+        JsCircuitBreakerService.CircuitBreakerState state = jsCircuitBreakerService.getCircuitBreakers().get("host");
+        assertThat(state.getStatus()).isEqualTo(JsCircuitBreakerService.CircuitStatus.OPEN);
+        assertThat(state.getFailures()).isEqualTo(2);
+        assertThat(state.getRemainingOpenDuration()).isPositive();
+        assertThatThrownBy(() -> jsCircuitBreakerService.attempt("host"))
+            .isInstanceOf(RemoteException.class)
+            .hasMessage("The circuit of the host host is open after 2 consecutive failed calls, "
+                + "the call has been rejected.");
+        assertThat(jsCircuitBreakerService.attempt("otherHost")).isNotNull();
+    }
+
+    @Test
+    void shouldLetSingleTrialThroughHalfOpenCircuit() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(1);
+        applicationProperties.getJs().getHttp().setCircuitBreakerOpenDuration(0);
+
+        jsCircuitBreakerService.attempt("host").failed();
+
+        JsCircuitBreakerService.Attempt trial = jsCircuitBreakerService.attempt("host");
+
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getStatus())
+            .isEqualTo(JsCircuitBreakerService.CircuitStatus.HALF_OPEN);
+        assertThatThrownBy(() -> jsCircuitBreakerService.attempt("host"))
+            .isInstanceOf(RemoteException.class);
+
+        trial.succeeded();
+
+        JsCircuitBreakerService.CircuitBreakerState state = jsCircuitBreakerService.getCircuitBreakers().get("host");
+        assertThat(state.getStatus()).isEqualTo(JsCircuitBreakerService.CircuitStatus.CLOSED);
+        assertThat(state.getFailures()).isZero();
+    }
+
+    @Test
+    void shouldNotCountReleasedAttempts() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(1);
+        applicationProperties.getJs().getHttp().setCircuitBreakerOpenDuration(0);
+
+        try (JsCircuitBreakerService.Attempt attempt = jsCircuitBreakerService.attempt("host")) {
+            assertThat(attempt).isNotNull();
+        }
+
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getStatus())
+            .isEqualTo(JsCircuitBreakerService.CircuitStatus.CLOSED);
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getFailures()).isZero();
+
+        jsCircuitBreakerService.attempt("host").failed();
+        jsCircuitBreakerService.attempt("host").close();
+
+        JsCircuitBreakerService.Attempt trial = jsCircuitBreakerService.attempt("host");
+        trial.succeeded();
+
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getStatus())
+            .isEqualTo(JsCircuitBreakerService.CircuitStatus.CLOSED);
+    }
+
+    @Test
+    void shouldNotReleaseTrialWhenAttemptOfClosedCircuitIsReleased() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(1);
+        applicationProperties.getJs().getHttp().setCircuitBreakerOpenDuration(0);
+
+        JsCircuitBreakerService.Attempt attemptOfClosedCircuit = jsCircuitBreakerService.attempt("host");
+        jsCircuitBreakerService.attempt("host").failed();
+
+        JsCircuitBreakerService.Attempt trial = jsCircuitBreakerService.attempt("host");
+        attemptOfClosedCircuit.close();
+
+        assertThatThrownBy(() -> jsCircuitBreakerService.attempt("host"))
+            .isInstanceOf(RemoteException.class);
+
+        trial.close();
+
+        assertThat(jsCircuitBreakerService.attempt("host")).isNotNull();
+    }
+
+    @Test
+    void shouldReopenCircuitWhenTrialFails() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(3);
+        applicationProperties.getJs().getHttp().setCircuitBreakerOpenDuration(0);
+
+        jsCircuitBreakerService.attempt("host").failed();
+        jsCircuitBreakerService.attempt("host").failed();
+        jsCircuitBreakerService.attempt("host").failed();
+        jsCircuitBreakerService.attempt("host").failed();
+
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getFailures()).isEqualTo(4);
+        assertThat(jsCircuitBreakerService.getCircuitBreakers().get("host").getStatus())
+            .isEqualTo(JsCircuitBreakerService.CircuitStatus.OPEN);
+    }
+
+    @Test
+    void shouldGetOpenCircuitDelayOfWidget() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(1);
+
+        JsEndpointsContext context = new JsEndpointsContext();
+        context.setProjectWidgetId(1L);
+        JsEndpointsContext.set(context);
+
+        jsCircuitBreakerService.attempt("host").failed();
+        jsCircuitBreakerService.attempt("otherHost").succeeded();
+
+        assertThat(jsCircuitBreakerService.getOpenCircuitDelay(1L)).isPositive().isLessThanOrEqualTo(60000);
+        assertThat(jsCircuitBreakerService.getOpenCircuitDelay(2L)).isZero();
+        assertThat(jsCircuitBreakerService.getOpenCircuitDelay(null)).isZero();
+
+        jsCircuitBreakerService.forgetWidget(1L);
+
+        assertThat(jsCircuitBreakerService.getOpenCircuitDelay(1L)).isZero();
+    }
+
+    @Test
+    void shouldNotWatchCallsWhenDisabled() throws RemoteException {
+        applicationProperties.getJs().getHttp().setCircuitBreakerFailureThreshold(0);
+
+        JsCircuitBreakerService.Attempt attempt = jsCircuitBreakerService.attempt("host");
+        attempt.close();
+
+        assertThat(attempt).isSameAs(JsCircuitBreakerService.Attempt.NONE);
+        assertThat(jsCircuitBreakerService.getCircuitBreakers()).isEmpty();
+    }
+}
@@ -0,0 +1,254 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsEngineServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @InjectMocks
+    private JsEngineService jsEngineService;
+
+    @BeforeEach
+    void setUp() {
+        jsEngineService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jsEngineService.close();
+    }
+
+    @Test
+    void shouldRunInInterpreterOnlyModeOnStockJdk() {
+        jsEngineService.checkRuntime();
+
+        assertThat(jsEngineService.isOptimizingRuntime()).isFalse();
+    }
+
+    @Test
+    void shouldReuseCachedSource() {
+        Source first = jsEngineService.getSource("widget", "function run() { return '{}'; }");
+        Source second = jsEngineService.getSource("widget", "function run() { return '{}'; }");
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getName()).isEqualTo("widget");
+        assertThat(jsEngineService.countSources()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCacheNewSourceWhenScriptChanges() {
+        Source first = jsEngineService.getSource("widget", "function run() { return '{}'; }");
+        Source second = jsEngineService.getSource("widget", "function run() { return '[]'; }");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(jsEngineService.countSources()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldPrepareSource() {
+        Source actual = jsEngineService.getSource(null, "Packages.btoa('test')");
+
+        assertThat(actual.getName()).isEqualTo("widget.js");
+        assertThat(actual.getCharacters().toString())
+            .isEqualTo("Packages.com.michelin.suricate.services.js.script.JsEndpoints.btoa('test')");
+    }
+
+    @Test
+    void shouldReuseReleasedContext() {
+        JsEngineService.PooledContext first = jsEngineService.acquireContext("widget", "script");
+        first.setReusable(true);
+        first.close();
+
+        JsEngineService.PooledContext second = jsEngineService.acquireContext("widget", "script");
+
+        assertThat(second).isSameAs(first);
+        assertThat(second.isWarm()).isTrue();
+        assertThat(second.isReusable()).isFalse();
+        assertThat(jsEngineService.getContextPoolHits()).hasValue(1);
+        assertThat(jsEngineService.getContextPoolMisses()).hasValue(1);
+    }
+
+    @Test
+    void shouldNotReuseContextOfAnotherScript() {
+        JsEngineService.PooledContext first = jsEngineService.acquireContext("widget", "script");
+        first.setReusable(true);
+        first.close();
+
+        JsEngineService.PooledContext second = jsEngineService.acquireContext("widget", "otherScript");
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.isWarm()).isFalse();
+        assertThat(jsEngineService.countIdleContexts()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCloseNotReusableContext() {
+        JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget", "script");
+        pooledContext.close();
+
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldNotPoolContextsWhenDisabled() {
+        applicationProperties.getJs().getContextPool().setEnabled(false);
+
+        JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget", "script");
+        pooledContext.setReusable(true);
+        pooledContext.close();
+
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldBoundIdleContextsPerWidget() {
+        applicationProperties.getJs().getContextPool().setMaxIdlePerWidget(1);
+
+        JsEngineService.PooledContext first = jsEngineService.acquireContext("widget", "script");
+        JsEngineService.PooledContext second = jsEngineService.acquireContext("widget", "script");
+        first.setReusable(true);
+        second.setReusable(true);
+        first.close();
+        second.close();
+
+        assertThat(jsEngineService.countIdleContexts()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvictIdleContexts() {
+        applicationProperties.getJs().getContextPool().setIdleTimeout(0);
+
+        JsEngineService.PooledContext first = jsEngineService.acquireContext("widget", "script");
+        first.setReusable(true);
+        first.close();
+
+        JsEngineService.PooledContext second = jsEngineService.acquireContext("otherWidget", "script");
+        second.setReusable(true);
+        second.close();
+
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldResetGlobalsOfReleasedContext() {
+        JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget", "script");
+        Context context = pooledContext.getContext();
+        context.eval("js", "var leaked = 'leaked'; JSON = null; print('output');");
+        pooledContext.setReusable(true);
+        pooledContext.close();
+
+        pooledContext = jsEngineService.acquireContext("widget", "script");
+
+        assertThat(pooledContext.getOutput().size()).isZero();
+        assertThat(context.eval("js", "typeof leaked").asString()).isEqualTo("undefined");
+        assertThat(context.eval("js", "typeof JSON.stringify").asString()).isEqualTo("function");
+    }
+
+    @Test
+    void shouldResetBuiltinsOfReleasedContext() {
+        JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget", "script");
+        Context context = pooledContext.getContext();
+        context.eval("js", "Array.prototype.leaked = 'leaked'; Object.prototype.toString = function () { return 'x'; };"
+            + "Math.max = Math.min; Object.setPrototypeOf(String.prototype, null);");
+        pooledContext.setReusable(true);
+        pooledContext.close();
+
+        pooledContext = jsEngineService.acquireContext("widget", "script");
+
+        assertThat(pooledContext.getContext()).isSameAs(context);
+        assertThat(context.eval("js", "typeof [].leaked").asString()).isEqualTo("undefined");
+        assertThat(context.eval("js", "({}).toString()").asString()).isEqualTo("[object Object]");
+        assertThat(context.eval("js", "Math.max(1, 2)").asInt()).isEqualTo(2);
+        assertThat(context.eval("js", "'a'.hasOwnProperty('length')").asBoolean()).isTrue();
+    }
+
+    @Test
+    void shouldNotPoolContextWithFrozenBuiltins() {
+        JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget", "script");
+        pooledContext.getContext().eval("js", "Array.prototype.leaked = 'leaked'; Object.freeze(Array.prototype);");
+        pooledContext.setReusable(true);
+        pooledContext.close();
+
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldExcludeFromPool() {
+        JsEngineService.PooledContext first = jsEngineService.acquireContext("widget", "script");
+        JsEngineService.PooledContext second = jsEngineService.acquireContext("widget", "script");
+        first.setReusable(true);
+        first.close();
+
+        jsEngineService.excludeFromPool(second);
+        second.setReusable(true);
+        second.close();
+
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedSources() {
+        applicationProperties.getJs().setSourceCacheMaxEntries(1);
+        jsEngineService.init();
+
+        jsEngineService.getSource("widget", "function run() { return '{}'; }");
+        JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget",
+            "function run() { return '{}'; }");
+        pooledContext.setReusable(true);
+        pooledContext.close();
+
+        jsEngineService.getSource("otherWidget", "function run() { return '{}'; }");
+
+        assertThat(jsEngineService.countSources()).isEqualTo(1);
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldEvictWidget() {
+        jsEngineService.getSource("widget", "function run() { return '{}'; }");
+        jsEngineService.getSource("widget", "function run() { return '[]'; }");
+        jsEngineService.getSource("otherWidget", "function run() { return '{}'; }");
+
+        JsEngineService.PooledContext first = jsEngineService.acquireContext("widget", "script");
+        JsEngineService.PooledContext second = jsEngineService.acquireContext("otherWidget", "script");
+        first.setReusable(true);
+        second.setReusable(true);
+        first.close();
+        second.close();
+
+        jsEngineService.evictWidget("widget");
+
+        assertThat(jsEngineService.countSources()).isEqualTo(1);
+        assertThat(jsEngineService.countIdleContexts()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldEvaluateSourceInContextsBoundToSharedEngine() {
+        Source source = jsEngineService.getSource("widget", "function run() { return '{}'; }");
+
+        for (int i = 0; i < 2; i++) {
+            try (JsEngineService.PooledContext pooledContext = jsEngineService.acquireContext("widget", "script")) {
+                Context context = pooledContext.getContext();
+                context.eval(source);
+
+                assertThat(context.getBindings("js").getMember("run").execute().asString()).isEqualTo("{}");
+                pooledContext.setReusable(true);
+            }
+        }
+
+        assertThat(jsEngineService.getContextPoolHits()).hasValue(1);
+    }
+}
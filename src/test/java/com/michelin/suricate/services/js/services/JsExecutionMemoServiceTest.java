@@ -0,0 +1,203 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.hash.HashCode;
+import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.dto.js.JsResultDto;
+import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsExecutionMemoServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private JsExecutionMemoService jsExecutionMemoService;
+
+    @Test
+    void shouldEnableMemoization() {
+        assertThat(jsExecutionMemoService.isEnabled(Map.of())).isFalse();
+        assertThat(jsExecutionMemoService.isEnabled(Map.of("SURI_MEMOIZATION", "true"))).isTrue();
+
+        applicationProperties.getJs().setMemoization(true);
+
+        assertThat(jsExecutionMemoService.isEnabled(Map.of())).isTrue();
+        assertThat(jsExecutionMemoService.isEnabled(Map.of("SURI_MEMOIZATION", " false "))).isFalse();
+    }
+
+    @Test
+    void shouldReuseResultWhenCallsAreUnchanged() {
+        jsExecutionMemoService.init();
+
+        final JsExecutionDto jsExecutionDto = mockJsExecution();
+        JsEndpointsContext.Fetch fetch = mockFetch();
+        JsEndpointsContext context = mock(JsEndpointsContext.class);
+        JsEndpointsContext nextContext = mock(JsEndpointsContext.class);
+
+        when(context.getFetches()).thenReturn(List.of(fetch));
+        when(context.isReplayable()).thenReturn(true);
+        when(nextContext.revalidate(fetch)).thenReturn(true);
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of("SURI_TITLE", "title"), context, mockJsResult());
+        JsResultDto actual =
+            jsExecutionMemoService.getMemoizedResult(jsExecutionDto, Map.of("SURI_TITLE", "title"), nextContext);
+
+        assertThat(actual.getData()).isEqualTo("{\"value\":1}");
+        assertThat(actual.getLog()).isEqualTo("log");
+        assertThat(jsExecutionMemoService.getHits()).hasValue(1);
+        assertThat(jsExecutionMemoService.countMemos()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.memo.hits").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotReuseResultWhenCallsAreChanged() {
+        final JsExecutionDto jsExecutionDto = mockJsExecution();
+        JsEndpointsContext.Fetch fetch = mockFetch();
+        JsEndpointsContext context = mock(JsEndpointsContext.class);
+        JsEndpointsContext nextContext = mock(JsEndpointsContext.class);
+
+        when(context.getFetches()).thenReturn(List.of(fetch, fetch));
+        when(context.isReplayable()).thenReturn(true);
+        when(nextContext.revalidate(fetch)).thenReturn(false);
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of(), context, mockJsResult());
+
+        assertThat(jsExecutionMemoService.getMemoizedResult(jsExecutionDto, Map.of(), nextContext)).isNull();
+        assertThat(jsExecutionMemoService.getMisses()).hasValue(1);
+        assertThat(jsExecutionMemoService.countMemos()).isZero();
+
+        // The revalidation stops at the first changed call
+        verify(nextContext, times(1))
+            .revalidate(fetch);
+    }
+
+    @Test
+    void shouldNotReuseResultWhenInputsAreChanged() {
+        JsExecutionDto jsExecutionDto = mockJsExecution();
+        JsEndpointsContext context = mock(JsEndpointsContext.class);
+        final JsEndpointsContext nextContext = mock(JsEndpointsContext.class);
+
+        when(context.getFetches()).thenReturn(List.of(mockFetch()));
+        when(context.isReplayable()).thenReturn(true);
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of("SURI_TITLE", "title"), context, mockJsResult());
+
+        assertThat(jsExecutionMemoService.getMemoizedResult(jsExecutionDto, Map.of("SURI_TITLE", "other"),
+            nextContext)).isNull();
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of("SURI_TITLE", "title"), context, mockJsResult());
+        jsExecutionDto.setPreviousData("{\"value\":1}");
+
+        assertThat(jsExecutionMemoService.getMemoizedResult(jsExecutionDto, Map.of("SURI_TITLE", "title"),
+            nextContext)).isNull();
+        assertThat(jsExecutionMemoService.getMisses()).hasValue(2);
+
+        verify(nextContext, times(0))
+            .revalidate(any());
+    }
+
+    @Test
+    void shouldNotMemoizeUnreplayableExecution() {
+        JsExecutionDto jsExecutionDto = mockJsExecution();
+        JsEndpointsContext context = mock(JsEndpointsContext.class);
+
+        when(context.getFetches()).thenReturn(List.of(mockFetch()));
+        when(context.isReplayable()).thenReturn(false);
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of(), context, mockJsResult());
+
+        assertThat(jsExecutionMemoService.countMemos()).isZero();
+    }
+
+    @Test
+    void shouldNotMemoizeExecutionWithoutCallsOrFailed() {
+        JsExecutionDto jsExecutionDto = mockJsExecution();
+        JsEndpointsContext context = mock(JsEndpointsContext.class);
+
+        when(context.getFetches())
+            .thenReturn(List.of())
+            .thenReturn(List.of(mockFetch()));
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of(), context, mockJsResult());
+
+        JsResultDto jsResultDto = mockJsResult();
+        jsResultDto.setError(JsExecutionErrorTypeEnum.ERROR);
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of(), context, jsResultDto);
+
+        assertThat(jsExecutionMemoService.countMemos()).isZero();
+    }
+
+    @Test
+    void shouldForgetMemo() {
+        JsExecutionDto jsExecutionDto = mockJsExecution();
+        JsEndpointsContext context = mock(JsEndpointsContext.class);
+
+        when(context.getFetches()).thenReturn(List.of(mockFetch()));
+        when(context.isReplayable()).thenReturn(true);
+
+        jsExecutionMemoService.memoize(jsExecutionDto, Map.of(), context, mockJsResult());
+        jsExecutionMemoService.forget(null);
+
+        assertThat(jsExecutionMemoService.countMemos()).isEqualTo(1);
+
+        jsExecutionMemoService.forget(1L);
+
+        assertThat(jsExecutionMemoService.countMemos()).isZero();
+    }
+
+    /**
+     * Mock a Js execution.
+     *
+     * @return The Js execution
+     */
+    private JsExecutionDto mockJsExecution() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setScript("function run() { return Packages.get('https://mocked.com'); }");
+        jsExecutionDto.setPreviousData("{}");
+        return jsExecutionDto;
+    }
+
+    /**
+     * Mock a recorded call.
+     *
+     * @return The recorded call
+     */
+    private JsEndpointsContext.Fetch mockFetch() {
+        return new JsEndpointsContext.Fetch(
+            new JsEndpointsContext.FetchRequest("https://mocked.com", null, null, null, false, null),
+            HashCode.fromInt(1));
+    }
+
+    /**
+     * Mock a valid Js result.
+     *
+     * @return The Js result
+     */
+    private JsResultDto mockJsResult() {
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setData("{\"value\":1}");
+        jsResultDto.setLog("log");
+        return jsResultDto;
+    }
+}
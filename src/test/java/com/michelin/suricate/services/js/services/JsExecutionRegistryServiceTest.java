@@ -0,0 +1,343 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.github.mustachejava.DefaultMustacheFactory;
+import com.google.common.base.Suppliers;
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
+import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.dto.js.JsResultDto;
+import com.michelin.suricate.model.dto.js.WidgetVariableResponseDto;
+import com.michelin.suricate.model.entities.Category;
+import com.michelin.suricate.model.entities.ProjectWidget;
+import com.michelin.suricate.model.entities.Widget;
+import com.michelin.suricate.model.entities.WidgetParam;
+import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
+import com.michelin.suricate.model.enums.WidgetStateEnum;
+import com.michelin.suricate.services.api.ProjectWidgetService;
+import com.michelin.suricate.services.api.WidgetService;
+import com.michelin.suricate.services.mapper.ProjectWidgetMapper;
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsExecutionRegistryServiceTest {
+    @Mock
+    private ProjectWidgetService projectWidgetService;
+
+    @Mock
+    private WidgetService widgetService;
+
+    @Mock
+    private JsExecutionService jsExecutionService;
+
+    @Mock
+    private JsResultWriterService jsResultWriterService;
+
+    @Mock
+    private ProjectWidgetMapper projectWidgetMapper;
+
+    @InjectMocks
+    private JsExecutionRegistryService jsExecutionRegistryService;
+
+    @Test
+    void shouldLoadDescriptorOnce() {
+        WidgetVariableResponseDto widgetVariableResponseDto = new WidgetVariableResponseDto();
+        widgetVariableResponseDto.setName("name");
+
+        ProjectWidget projectWidget = mockProjectWidget(1L, 1L, 1L);
+        when(widgetService.getWidgetParametersForJsExecution(any()))
+            .thenReturn(Collections.singletonList(widgetVariableResponseDto));
+
+        JsExecutionDto first = jsExecutionRegistryService.getJsExecution(1L);
+        JsExecutionDto second = jsExecutionRegistryService.getJsExecution(1L);
+        List<WidgetVariableResponseDto> actual = jsExecutionRegistryService.getWidgetParameters(1L);
+
+        assertThat(first).isEqualTo(second).isNotSameAs(second);
+        assertThat(first.getProjectWidgetId()).isEqualTo(1L);
+        assertThat(first.getScript()).isEqualTo("script");
+        assertThat(actual).containsExactly(widgetVariableResponseDto);
+        assertThat(jsExecutionRegistryService.countDescriptors()).isEqualTo(1);
+
+        verify(projectWidgetService)
+            .getOne(1L);
+        verify(jsExecutionService)
+            .createJsExecutionByProjectWidget(projectWidget);
+        verify(widgetService)
+            .getWidgetParametersForJsExecution(projectWidget.getWidget());
+    }
+
+    @Test
+    void shouldNotLoadDescriptorOfUnknownWidgetInstance() {
+        when(projectWidgetService.getOne(any()))
+            .thenReturn(Optional.empty());
+
+        assertThat(jsExecutionRegistryService.getJsExecution(1L)).isNull();
+        assertThat(jsExecutionRegistryService.getWidgetParameters(1L)).isEmpty();
+        assertThat(jsExecutionRegistryService.getJsExecution(null)).isNull();
+        assertThat(jsExecutionRegistryService.countDescriptors()).isZero();
+    }
+
+    @Test
+    void shouldUpdateDescriptorWithValidResult() {
+        mockProjectWidget(1L, 1L, 1L);
+        jsExecutionRegistryService.getJsExecution(1L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{\"value\":1}");
+        jsResultDto.setLaunchDate(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")));
+
+        JsExecutionDto actual = jsExecutionRegistryService.updateJsExecution(jsResultDto);
+
+        assertThat(actual.getPreviousData()).isEqualTo("{\"value\":1}");
+        assertThat(actual.getWidgetState()).isEqualTo(WidgetStateEnum.RUNNING);
+        assertThat(actual.getLastSuccessDate()).isEqualTo(Date.from(Instant.parse("2000-01-01T01:00:00.00Z")));
+        assertThat(actual.isAlreadySuccess()).isTrue();
+        assertThat(jsExecutionRegistryService.getJsExecution(1L)).isEqualTo(actual);
+
+        verify(projectWidgetService)
+            .getOne(1L);
+    }
+
+    @Test
+    void shouldUpdateDescriptorWithFailedResult() {
+        mockProjectWidget(1L, 1L, 1L);
+        jsExecutionRegistryService.getJsExecution(1L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setError(JsExecutionErrorTypeEnum.ERROR);
+
+        JsExecutionDto actual = jsExecutionRegistryService.updateJsExecution(jsResultDto);
+
+        assertThat(actual.getPreviousData()).isEqualTo("{}");
+        assertThat(actual.getWidgetState()).isEqualTo(WidgetStateEnum.WARNING);
+        assertThat(actual.isAlreadySuccess()).isFalse();
+    }
+
+    @Test
+    void shouldDetectUnchangedResult() {
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectId(1L);
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{}");
+
+        assertThat(jsExecutionRegistryService.isUnchanged(jsResultDto)).isFalse();
+
+        mockProjectWidget(1L, 1L, 1L);
+        jsExecutionRegistryService.getJsExecution(1L);
+
+        assertThat(jsExecutionRegistryService.isUnchanged(jsResultDto)).isFalse();
+
+        jsExecutionRegistryService.updateJsExecution(jsResultDto);
+
+        assertThat(jsExecutionRegistryService.isUnchanged(jsResultDto)).isTrue();
+
+        jsResultDto.setData("{\"value\":1}");
+
+        assertThat(jsExecutionRegistryService.isUnchanged(jsResultDto)).isFalse();
+
+        jsResultDto.setData("{}");
+        jsResultDto.setError(JsExecutionErrorTypeEnum.ERROR);
+
+        assertThat(jsExecutionRegistryService.isUnchanged(jsResultDto)).isFalse();
+    }
+
+    @Test
+    void shouldLoadDescriptorOnUpdateWhenMissing() {
+        mockProjectWidget(1L, 1L, 1L);
+
+        JsResultDto jsResultDto = new JsResultDto();
+        jsResultDto.setProjectWidgetId(1L);
+        jsResultDto.setData("{\"value\":1}");
+
+        JsExecutionDto actual = jsExecutionRegistryService.updateJsExecution(jsResultDto);
+
+        assertThat(actual.getPreviousData()).isEqualTo("{}");
+        assertThat(jsExecutionRegistryService.countDescriptors()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldUpdateProjectWidgetDto() {
+        final ProjectWidget projectWidget = mockProjectWidget(1L, 1L, 1L);
+        final ProjectWidgetService.HtmlTemplate htmlTemplate = mock(ProjectWidgetService.HtmlTemplate.class);
+
+        ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
+        projectWidgetResponseDto.setId(1L);
+        projectWidgetResponseDto.setData("{}");
+        projectWidgetResponseDto.setInstantiateHtml("<h1>{}</h1>");
+
+        when(projectWidgetMapper.toProjectWidgetDto(projectWidget))
+            .thenReturn(projectWidgetResponseDto);
+        when(projectWidgetService.getHtmlTemplate(projectWidget))
+            .thenReturn(htmlTemplate);
+        when(htmlTemplate.render("{\"value\":1}"))
+            .thenReturn("<h1>1</h1>");
+
+        Date date = Date.from(Instant.parse("2000-01-01T01:00:00.00Z"));
+        JsResultWriterService.PendingWrite pendingWrite =
+            new JsResultWriterService.PendingWrite(date, date, WidgetStateEnum.RUNNING, "log", "{\"value\":1}");
+
+        ProjectWidgetResponseDto first = jsExecutionRegistryService.updateProjectWidgetDto(1L, null);
+        ProjectWidgetResponseDto second = jsExecutionRegistryService.updateProjectWidgetDto(1L, pendingWrite);
+
+        assertThat(first).isSameAs(projectWidgetResponseDto);
+        assertThat(first.getData()).isEqualTo("{}");
+        assertThat(second.getData()).isEqualTo("{\"value\":1}");
+        assertThat(second.getLog()).isEqualTo("log");
+        assertThat(second.getLastExecutionDate()).isEqualTo(date);
+        assertThat(second.getInstantiateHtml()).isEqualTo("<h1>1</h1>");
+        assertThat(jsExecutionRegistryService.updateProjectWidgetDto(2L, null)).isNull();
+
+        verify(projectWidgetService, times(2))
+            .getOne(1L);
+        verify(projectWidgetMapper)
+            .toProjectWidgetDto(projectWidget);
+        verify(jsResultWriterService, times(2))
+            .getPendingWrite(1L);
+    }
+
+    @Test
+    void shouldBuildProjectWidgetDtoAgainWhenDescriptorIsReplaced() {
+        final ProjectWidget projectWidget = mockProjectWidget(1L, 1L, 1L);
+        final ProjectWidgetService.HtmlTemplate htmlTemplate = mock(ProjectWidgetService.HtmlTemplate.class);
+        final ProjectWidgetResponseDto stale = new ProjectWidgetResponseDto();
+        final ProjectWidgetResponseDto fresh = new ProjectWidgetResponseDto();
+
+        when(projectWidgetMapper.toProjectWidgetDto(projectWidget))
+            .thenAnswer(invocation -> {
+                // The descriptor is evicted while the view is built from it
+                jsExecutionRegistryService.evict(1L);
+                return stale;
+            })
+            .thenReturn(fresh);
+        when(projectWidgetService.getHtmlTemplate(projectWidget))
+            .thenReturn(htmlTemplate);
+
+        ProjectWidgetResponseDto actual = jsExecutionRegistryService.updateProjectWidgetDto(1L, null);
+
+        assertThat(actual).isSameAs(fresh);
+        assertThat(jsExecutionRegistryService.updateProjectWidgetDto(1L, null)).isSameAs(fresh);
+
+        verify(projectWidgetMapper, times(2))
+            .toProjectWidgetDto(projectWidget);
+        verify(jsExecutionService, times(2))
+            .createJsExecutionByProjectWidget(projectWidget);
+    }
+
+    @Test
+    void shouldRenderProjectWidgetDtoOfWidgetInstanceWithoutData() {
+        final ProjectWidget projectWidget = mockProjectWidget(1L, 1L, 1L);
+
+        WidgetParam widgetParam = new WidgetParam();
+        widgetParam.setName("UNIT");
+        widgetParam.setDefaultValue("ms");
+        widgetParam.setRequired(true);
+
+        String htmlContent = "<h1>{{value}} {{UNIT}}</h1>";
+        ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
+        projectWidgetResponseDto.setId(1L);
+        projectWidgetResponseDto.setInstantiateHtml(htmlContent);
+
+        ProjectWidgetService.HtmlTemplate htmlTemplate = new ProjectWidgetService.HtmlTemplate(htmlContent, "widget",
+            new DefaultMustacheFactory().compile(new StringReader(htmlContent), "widget"), Map.of(),
+            Suppliers.ofInstance(List.of(widgetParam)));
+
+        when(projectWidgetMapper.toProjectWidgetDto(projectWidget))
+            .thenReturn(projectWidgetResponseDto);
+        when(projectWidgetService.getHtmlTemplate(projectWidget))
+            .thenReturn(htmlTemplate);
+
+        Date date = Date.from(Instant.parse("2000-01-01T01:00:00.00Z"));
+        JsResultWriterService.PendingWrite pendingWrite =
+            new JsResultWriterService.PendingWrite(date, date, WidgetStateEnum.RUNNING, "log", "{\"value\":1}");
+
+        ProjectWidgetResponseDto first = jsExecutionRegistryService.updateProjectWidgetDto(1L, null);
+        ProjectWidgetResponseDto second = jsExecutionRegistryService.updateProjectWidgetDto(1L, pendingWrite);
+
+        assertThat(first.getData()).isNull();
+        assertThat(first.getInstantiateHtml()).isEqualTo(htmlContent);
+        assertThat(second.getData()).isEqualTo("{\"value\":1}");
+        assertThat(second.getInstantiateHtml()).isEqualTo("<h1>1 ms</h1>");
+
+        verify(projectWidgetService)
+            .getHtmlTemplate(projectWidget);
+    }
+
+    @Test
+    void shouldEvictDescriptors() {
+        mockProjectWidget(1L, 1L, 1L);
+        mockProjectWidget(2L, 2L, 1L);
+        mockProjectWidget(3L, 3L, 2L);
+        jsExecutionRegistryService.getJsExecution(1L);
+        jsExecutionRegistryService.getJsExecution(2L);
+        jsExecutionRegistryService.getJsExecution(3L);
+
+        jsExecutionRegistryService.evict(1L);
+        assertThat(jsExecutionRegistryService.countDescriptors()).isEqualTo(2);
+
+        jsExecutionRegistryService.evictByWidget(2L);
+        assertThat(jsExecutionRegistryService.countDescriptors()).isEqualTo(1);
+
+        jsExecutionRegistryService.evictByCategory(1L);
+        assertThat(jsExecutionRegistryService.countDescriptors()).isEqualTo(1);
+
+        jsExecutionRegistryService.evictByCategory(2L);
+        assertThat(jsExecutionRegistryService.countDescriptors()).isZero();
+
+        jsExecutionRegistryService.getJsExecution(1L);
+        jsExecutionRegistryService.evictAll();
+        assertThat(jsExecutionRegistryService.countDescriptors()).isZero();
+
+        verify(projectWidgetService, times(2))
+            .getOne(1L);
+    }
+
+    /**
+     * Mock the loading of a widget instance.
+     *
+     * @param projectWidgetId The widget instance ID
+     * @param widgetId        The widget ID
+     * @param categoryId      The category ID
+     * @return The widget instance
+     */
+    private ProjectWidget mockProjectWidget(Long projectWidgetId, Long widgetId, Long categoryId) {
+        Category category = new Category();
+        category.setId(categoryId);
+
+        Widget widget = new Widget();
+        widget.setId(widgetId);
+        widget.setCategory(category);
+
+        ProjectWidget projectWidget = new ProjectWidget();
+        projectWidget.setId(projectWidgetId);
+        projectWidget.setWidget(widget);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto("properties", "script", "widget", "{}", 1L, 1L,
+            projectWidgetId, 10L, 60L, WidgetStateEnum.STOPPED, null);
+
+        when(projectWidgetService.getOne(projectWidgetId))
+            .thenReturn(Optional.of(projectWidget));
+        when(jsExecutionService.createJsExecutionByProjectWidget(projectWidget))
+            .thenReturn(jsExecutionDto);
+
+        return projectWidget;
+    }
+}
@@ -46,6 +46,7 @@ class JsExecutionServiceTest {
         Widget widget = new Widget();
         widget.setId(1L);
         widget.setCategory(category);
+        widget.setTechnicalName("widgetTechnicalName");
         widget.setBackendJs("backendJs");
         widget.setDelay(10L);
         widget.setTimeout(15L);
@@ -72,6 +73,7 @@ class JsExecutionServiceTest {
 
         assertThat(actual.get(0).getProperties()).isEqualTo("key=value\ncategoryKey=categoryValue\n");
         assertThat(actual.get(0).getScript()).isEqualTo("backendJs");
+        assertThat(actual.get(0).getWidgetTechnicalName()).isEqualTo("widgetTechnicalName");
         assertThat(actual.get(0).getPreviousData()).isEqualTo("data");
         assertThat(actual.get(0).getProjectId()).isEqualTo(1L);
         assertThat(actual.get(0).getProjectWidgetId()).isEqualTo(1L);
@@ -98,6 +100,7 @@ class JsExecutionServiceTest {
         Widget widget = new Widget();
         widget.setId(1L);
         widget.setCategory(category);
+        widget.setTechnicalName("widgetTechnicalName");
         widget.setBackendJs("backendJs");
         widget.setDelay(10L);
         widget.setTimeout(15L);
@@ -126,6 +129,7 @@ class JsExecutionServiceTest {
 
         assertThat(actual.getProperties()).isEqualTo("key=value\ncategoryKey=categoryValue\n");
         assertThat(actual.getScript()).isEqualTo("backendJs");
+        assertThat(actual.getWidgetTechnicalName()).isEqualTo("widgetTechnicalName");
         assertThat(actual.getPreviousData()).isEqualTo("data");
         assertThat(actual.getProjectId()).isEqualTo(1L);
         assertThat(actual.getProjectWidgetId()).isEqualTo(1L);
@@ -143,6 +147,7 @@ class JsExecutionServiceTest {
         Widget widget = new Widget();
         widget.setId(1L);
         widget.setCategory(category);
+        widget.setTechnicalName("widgetTechnicalName");
         widget.setBackendJs("backendJs");
         widget.setDelay(10L);
         widget.setTimeout(15L);
@@ -171,6 +176,7 @@ class JsExecutionServiceTest {
 
         assertThat(actual.getProperties()).isEqualTo("key=value");
         assertThat(actual.getScript()).isEqualTo("backendJs");
+        assertThat(actual.getWidgetTechnicalName()).isEqualTo("widgetTechnicalName");
         assertThat(actual.getPreviousData()).isEqualTo("data");
         assertThat(actual.getProjectId()).isEqualTo(1L);
         assertThat(actual.getProjectWidgetId()).isEqualTo(1L);
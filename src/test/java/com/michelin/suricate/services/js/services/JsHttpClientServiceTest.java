@@ -0,0 +1,48 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsHttpClientServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Mock
+    private JsHttpMetricsService jsHttpMetricsService;
+
+    @InjectMocks
+    private JsHttpClientService jsHttpClientService;
+
+    @Test
+    void shouldCreateSharedClient() {
+        applicationProperties.getJs().getHttp().setHttp2(false);
+
+        jsHttpClientService.init();
+
+        OkHttpClient actual = jsHttpClientService.getClient();
+        assertThat(actual.protocols()).containsExactly(Protocol.HTTP_1_1);
+        assertThat(actual.eventListenerFactory()).isSameAs(jsHttpMetricsService);
+        assertThat(jsHttpClientService.getProperties()).isSameAs(applicationProperties.getJs().getHttp());
+    }
+
+    @Test
+    void shouldCloseSharedClient() {
+        jsHttpClientService.init();
+
+        OkHttpClient actual = jsHttpClientService.getClient();
+        jsHttpClientService.close();
+
+        assertThat(actual.dispatcher().executorService().isShutdown()).isTrue();
+        assertThat(actual.connectionPool().connectionCount()).isZero();
+    }
+}
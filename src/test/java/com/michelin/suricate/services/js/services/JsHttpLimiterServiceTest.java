@@ -0,0 +1,114 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsHttpLimiterServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private JsHttpLimiterService jsHttpLimiterService;
+
+    @Test
+    void shouldLimitConcurrentCalls() throws RemoteException {
+        applicationProperties.getJs().getHttp().setMaxConcurrentCallsPerHost(1);
+        applicationProperties.getJs().getHttp().setMaxCallsPerSecondPerHost(0);
+
+        final JsHttpLimiterService.Permit permit = jsHttpLimiterService.acquire("host");
+
+        assertThat(jsHttpLimiterService.countCallsInProgress("host")).isEqualTo(1);
+        assertThatThrownBy(() -> jsHttpLimiterService.acquire("host"))
+            .isInstanceOf(RemoteException.class)
+            .hasMessage("Too many concurrent calls to the host host (limit of 1 calls), the call has been rejected.");
+        assertThat(meterRegistry.get("suricate.js.http.rejected")
+            .tag("host", "host")
+            .tag("reason", "concurrency")
+            .counter().count()).isEqualTo(1);
+
+        permit.close();
+        permit.close();
+
+        assertThat(jsHttpLimiterService.countCallsInProgress("host")).isZero();
+        assertThat(jsHttpLimiterService.acquire("otherHost")).isNotNull();
+        assertThat(jsHttpLimiterService.acquire("host")).isNotNull();
+        assertThatThrownBy(() -> jsHttpLimiterService.acquire("host"))
+            .isInstanceOf(RemoteException.class);
+    }
+
+    @Test
+    void shouldLimitCallRate() throws RemoteException {
+        applicationProperties.getJs().getHttp().setMaxCallsPerSecondPerHost(0.1);
+
+        jsHttpLimiterService.acquire("host").close();
+
+        assertThatThrownBy(() -> jsHttpLimiterService.acquire("host"))
+            .isInstanceOf(RemoteException.class)
+            .hasMessage("Too many calls to the host host (limit of 0.1 calls per second), the call has been rejected.");
+        assertThat(meterRegistry.get("suricate.js.http.rejected")
+            .tag("host", "host")
+            .tag("reason", "rate")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldUseHostLimits() throws RemoteException {
+        ApplicationProperties.HostLimits hostLimits = new ApplicationProperties.HostLimits();
+        hostLimits.setMaxConcurrentCalls(0);
+        hostLimits.setMaxCallsPerSecond(0.0);
+        applicationProperties.getJs().getHttp().setMaxConcurrentCallsPerHost(1);
+        applicationProperties.getJs().getHttp().getHostLimits().put("unlimited", hostLimits);
+
+        for (int i = 0; i < 10; i++) {
+            jsHttpLimiterService.acquire("unlimited");
+        }
+
+        assertThat(jsHttpLimiterService.countCallsInProgress("unlimited")).isZero();
+        assertThat(jsHttpLimiterService.acquire("host")).isNotNull();
+        assertThatThrownBy(() -> jsHttpLimiterService.acquire("host"))
+            .isInstanceOf(RemoteException.class);
+    }
+
+    @Test
+    void shouldOnlyLimitConcurrentCallsByDefault() throws RemoteException {
+        for (int i = 0; i < 100; i++) {
+            jsHttpLimiterService.acquire("host").close();
+        }
+
+        for (int i = 0; i < 20; i++) {
+            jsHttpLimiterService.acquire("host");
+        }
+
+        assertThat(jsHttpLimiterService.countCallsInProgress("host")).isEqualTo(20);
+        assertThatThrownBy(() -> jsHttpLimiterService.acquire("host"))
+            .isInstanceOf(RemoteException.class)
+            .hasMessage("Too many concurrent calls to the host host (limit of 20 calls), the call has been rejected.");
+    }
+
+    @Test
+    void shouldReleaseConcurrencyPermitWhenCallRateIsExceeded() throws RemoteException {
+        applicationProperties.getJs().getHttp().setMaxConcurrentCallsPerHost(1);
+        applicationProperties.getJs().getHttp().setMaxCallsPerSecondPerHost(0.1);
+
+        jsHttpLimiterService.acquire("host").close();
+
+        assertThatThrownBy(() -> jsHttpLimiterService.acquire("host"))
+            .isInstanceOf(RemoteException.class)
+            .hasMessage("Too many calls to the host host (limit of 0.1 calls per second), the call has been rejected.");
+        assertThat(jsHttpLimiterService.countCallsInProgress("host")).isZero();
+    }
+}
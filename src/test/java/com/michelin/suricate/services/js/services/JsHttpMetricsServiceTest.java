@@ -0,0 +1,186 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsHttpMetricsServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Mock
+    private Call call;
+
+    @Mock
+    private Connection connection;
+
+    @InjectMocks
+    private JsHttpMetricsService jsHttpMetricsService;
+
+    @AfterEach
+    void tearDown() {
+        JsEndpointsContext.clear();
+    }
+
+    @Test
+    void shouldRecordCallMetrics() {
+        Request request = new Request.Builder().url("https://host.com/path").build();
+        when(call.request()).thenReturn(request);
+
+        EventListener listener = jsHttpMetricsService.create(call);
+        listener.callStart(call);
+        listener.connectStart(call, InetSocketAddress.createUnresolved("host.com", 443), Proxy.NO_PROXY);
+        listener.connectionAcquired(call, connection);
+        listener.requestBodyEnd(call, 10);
+        listener.responseHeadersEnd(call, new Response.Builder()
+            .request(request)
+            .code(200)
+            .protocol(Protocol.HTTP_1_1)
+            .message("OK")
+            .build());
+        listener.responseBodyEnd(call, 100);
+        listener.callEnd(call);
+
+        EventListener secondListener = jsHttpMetricsService.create(call);
+        secondListener.callStart(call);
+        secondListener.connectionAcquired(call, connection);
+
+        assertThat(meterRegistry.get("suricate.js.http.client.requests")
+            .tag("host", "host.com")
+            .tag("status", "200")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.http.client.bytes.sent")
+            .tag("host", "host.com")
+            .summary().totalAmount()).isEqualTo(10);
+        assertThat(meterRegistry.get("suricate.js.http.client.bytes.received")
+            .tag("host", "host.com")
+            .summary().totalAmount()).isEqualTo(100);
+        assertThat(meterRegistry.get("suricate.js.http.client.connections")
+            .tag("host", "host.com")
+            .tag("reused", "false")
+            .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.http.client.connections")
+            .tag("host", "host.com")
+            .tag("reused", "true")
+            .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountTimeouts() {
+        when(call.request()).thenReturn(new Request.Builder().url("https://host.com").build());
+
+        EventListener listener = jsHttpMetricsService.create(call);
+        listener.callStart(call);
+        listener.callFailed(call, new InterruptedIOException("timeout"));
+
+        assertThat(meterRegistry.get("suricate.js.http.client.timeouts")
+            .tag("host", "host.com")
+            .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.http.client.requests")
+            .tag("host", "host.com")
+            .tag("status", "TIMEOUT")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldTagByWidget() {
+        applicationProperties.getJs().getHttp().setMetricsWidgetTag(true);
+
+        JsEndpointsContext context = new JsEndpointsContext();
+        context.setWidgetTechnicalName("widget");
+        JsEndpointsContext.set(context);
+
+        when(call.request()).thenReturn(new Request.Builder().url("https://host.com").build());
+
+        EventListener listener = jsHttpMetricsService.create(call);
+        listener.callStart(call);
+        context.cancel();
+        listener.callFailed(call, new IOException("Canceled"));
+
+        assertThat(meterRegistry.get("suricate.js.http.client.requests")
+            .tag("host", "host.com")
+            .tag("widget", "widget")
+            .tag("status", "CANCELED")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("suricate.js.http.client.timeouts").counter()).isNull();
+    }
+
+    @Test
+    void shouldCountCallTimeoutsAsTimeouts() throws IOException {
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", exchange -> {
+            try {
+                // Answer after the timeout of the call
+                release.await(5, TimeUnit.SECONDS);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        try {
+            OkHttpClient client = new OkHttpClient.Builder()
+                .eventListenerFactory(jsHttpMetricsService)
+                .build();
+            Call timedOutCall = client.newCall(new Request.Builder()
+                .url("http://localhost:" + server.getAddress().getPort())
+                .build());
+            timedOutCall.timeout().timeout(100, TimeUnit.MILLISECONDS);
+
+            assertThatThrownBy(timedOutCall::execute)
+                .isInstanceOf(InterruptedIOException.class);
+            // The call timeout cancels the call
+            assertThat(timedOutCall.isCanceled()).isTrue();
+        } finally {
+            release.countDown();
+            server.stop(0);
+        }
+
+        assertThat(meterRegistry.get("suricate.js.http.client.timeouts")
+            .tag("host", "localhost")
+            .counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.http.client.requests")
+            .tag("host", "localhost")
+            .tag("status", "TIMEOUT")
+            .timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.find("suricate.js.http.client.requests").tag("status", "CANCELED").timer())
+            .isNull();
+    }
+}
@@ -0,0 +1,414 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import okhttp3.Call;
+import okhttp3.Headers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class JsResponseCacheServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private JsResponseCacheService jsResponseCacheService;
+
+    @AfterEach
+    void tearDown() {
+        JsEndpointsContext.clear();
+    }
+
+    @Test
+    void shouldGetCachedResponse() {
+        jsResponseCacheService.init();
+        jsResponseCacheService.put("key",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v1"), "body"), 60);
+
+        JsResponseCacheService.CachedResponse actual = jsResponseCacheService.get("key", 60);
+
+        assertThat(actual.getCode()).isEqualTo(200);
+        assertThat(actual.getHeaders().get("ETag")).isEqualTo("v1");
+        assertThat(actual.getBody()).isEqualTo("body");
+        assertThat(jsResponseCacheService.getHits()).hasValue(1);
+        assertThat(jsResponseCacheService.getMisses()).hasValue(0);
+        assertThat(jsResponseCacheService.getHitRatio()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotGetExpiredResponse() {
+        jsResponseCacheService.init();
+        jsResponseCacheService.put("key", new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"), 60);
+        jsResponseCacheService.put("expiredKey",
+            new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"), 0);
+
+        assertThat(jsResponseCacheService.get("expiredKey", 60)).isNull();
+        assertThat(jsResponseCacheService.get("unknownKey", 60)).isNull();
+        assertThat(jsResponseCacheService.get("key", 60)).isNotNull();
+        assertThat(jsResponseCacheService.countResponses()).isEqualTo(1);
+        assertThat(jsResponseCacheService.getHitRatio()).isEqualTo(1.0 / 3);
+    }
+
+    @Test
+    void shouldCompareAgeOfResponseWithTimeToLiveOfReader() throws InterruptedException {
+        jsResponseCacheService.init();
+        jsResponseCacheService.put("key", new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"), 1);
+
+        Thread.sleep(1100);
+
+        assertThat(jsResponseCacheService.get("key", 1)).isNull();
+        assertThat(jsResponseCacheService.get("key", 60)).isNotNull();
+        assertThat(jsResponseCacheService.countResponses()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldBoundCachedResponses() {
+        applicationProperties.getJs().getHttp().setCacheMaxEntries(2);
+        jsResponseCacheService.init();
+
+        for (int i = 0; i < 10; i++) {
+            jsResponseCacheService.put("key" + i,
+                new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"), 60);
+        }
+
+        assertThat(jsResponseCacheService.countResponses()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void shouldCacheLoadedResponse() throws IOException, RemoteException {
+        jsResponseCacheService.init();
+        JsEndpointsContext context = new JsEndpointsContext();
+        context.setCacheTtl(60L);
+        JsEndpointsContext.set(context);
+        AtomicInteger loads = new AtomicInteger();
+
+        JsResponseCacheService.CachedResponse first = jsResponseCacheService.getResponse("key", inFlightRequest -> {
+            loads.incrementAndGet();
+            return new JsResponseCacheService.CachedResponse(200, Headers.of(), "body");
+        });
+        JsResponseCacheService.CachedResponse second = jsResponseCacheService.getResponse("key", inFlightRequest -> {
+            loads.incrementAndGet();
+            return new JsResponseCacheService.CachedResponse(200, Headers.of(), "body");
+        });
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void shouldNotCacheFailedResponse() throws IOException, RemoteException {
+        jsResponseCacheService.init();
+        JsEndpointsContext context = new JsEndpointsContext();
+        context.setCacheTtl(60L);
+        JsEndpointsContext.set(context);
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            JsResponseCacheService.CachedResponse actual = jsResponseCacheService.getResponse("key",
+                inFlightRequest -> {
+                    loads.incrementAndGet();
+                    return new JsResponseCacheService.CachedResponse(500, Headers.of(), "error");
+                });
+
+            assertThat(actual.getCode()).isEqualTo(500);
+            assertThat(actual.isSuccessful()).isFalse();
+        }
+
+        assertThat(loads).hasValue(2);
+        assertThat(jsResponseCacheService.countResponses()).isZero();
+    }
+
+    @Test
+    void shouldCoalesceIdenticalRequestsInFlight() throws Exception {
+        jsResponseCacheService.init();
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<JsResponseCacheService.CachedResponse> first = executorService.submit(() ->
+                jsResponseCacheService.getResponse("key", inFlightRequest -> {
+                    loads.incrementAndGet();
+                    loading.countDown();
+                    release.join();
+                    return new JsResponseCacheService.CachedResponse(200, Headers.of(), "body");
+                }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final Future<JsResponseCacheService.CachedResponse> second = executorService.submit(() ->
+                jsResponseCacheService.getResponse("key", inFlightRequest -> {
+                    loads.incrementAndGet();
+                    return new JsResponseCacheService.CachedResponse(200, Headers.of(), "other");
+                }));
+            while (jsResponseCacheService.getCoalesced().get() == 0) {
+                Thread.sleep(10);
+            }
+            release.complete(null);
+
+            assertThat(first.get(5, TimeUnit.SECONDS).getBody()).isEqualTo("body");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get());
+            assertThat(loads).hasValue(1);
+            assertThat(jsResponseCacheService.getCoalesced()).hasValue(1);
+            assertThat(meterRegistry.get("suricate.js.http.coalesced").functionCounter().count()).isEqualTo(1);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateErrorToCoalescedRequests() throws Exception {
+        jsResponseCacheService.init();
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<JsResponseCacheService.CachedResponse> first = executorService.submit(() ->
+                jsResponseCacheService.getResponse("key", inFlightRequest -> {
+                    loading.countDown();
+                    release.join();
+                    throw new IOException("Connection refused");
+                }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final Future<JsResponseCacheService.CachedResponse> second = executorService.submit(() ->
+                jsResponseCacheService.getResponse("key",
+                    inFlightRequest -> new JsResponseCacheService.CachedResponse(200, Headers.of(), "body")));
+            while (jsResponseCacheService.getCoalesced().get() == 0) {
+                Thread.sleep(10);
+            }
+            release.complete(null);
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IOException.class)
+                .hasMessageContaining("Connection refused");
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IOException.class)
+                .hasMessageContaining("Connection refused");
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldCancelCoalescedCallWhenAllCallersAreCanceled() throws Exception {
+        jsResponseCacheService.init();
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+        JsEndpointsContext firstContext = new JsEndpointsContext();
+        JsEndpointsContext secondContext = new JsEndpointsContext();
+        Call call = mock(Call.class);
+        doAnswer(invocation -> release.complete(null)).when(call).cancel();
+        ExecutorService executorService = Executors.newFixedThreadPool(2);
+
+        try {
+            final Future<JsResponseCacheService.CachedResponse> first = executorService.submit(() -> {
+                JsEndpointsContext.set(firstContext);
+                return jsResponseCacheService.getResponse("key", inFlightRequest -> {
+                    inFlightRequest.watch(call);
+                    loading.countDown();
+                    release.join();
+                    throw new IOException("Canceled");
+                });
+            });
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            final Future<JsResponseCacheService.CachedResponse> second = executorService.submit(() -> {
+                JsEndpointsContext.set(secondContext);
+                return jsResponseCacheService.getResponse("key",
+                    inFlightRequest -> new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"));
+            });
+            while (jsResponseCacheService.getCoalesced().get() == 0) {
+                Thread.sleep(10);
+            }
+
+            secondContext.cancel();
+
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(InterruptedIOException.class);
+            verify(call, never()).cancel();
+
+            firstContext.cancel();
+
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IOException.class)
+                .hasMessageContaining("Canceled");
+            verify(call).cancel();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotCoalesceWhenDisabled() throws IOException, RemoteException {
+        applicationProperties.getJs().getHttp().setCoalescing(false);
+        jsResponseCacheService.init();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            jsResponseCacheService.getResponse("key", inFlightRequest -> {
+                loads.incrementAndGet();
+                return new JsResponseCacheService.CachedResponse(200, Headers.of(), "body");
+            });
+        }
+
+        assertThat(loads).hasValue(2);
+        assertThat(jsResponseCacheService.isShared()).isFalse();
+    }
+
+    @Test
+    void shouldHoldValidatedResponses() {
+        jsResponseCacheService.init();
+
+        jsResponseCacheService.putValidatedResponse("etag",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v1"), "body"));
+        jsResponseCacheService.putValidatedResponse("lastModified",
+            new JsResponseCacheService.CachedResponse(200,
+                Headers.of("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT"), "body"));
+        jsResponseCacheService.putValidatedResponse("noValidator",
+            new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"));
+        jsResponseCacheService.putValidatedResponse("error",
+            new JsResponseCacheService.CachedResponse(500, Headers.of("ETag", "v1"), "body"));
+
+        assertThat(jsResponseCacheService.getValidatedResponse("etag").getBody()).isEqualTo("body");
+        assertThat(jsResponseCacheService.getValidatedResponse("lastModified")).isNotNull();
+        assertThat(jsResponseCacheService.getValidatedResponse("noValidator")).isNull();
+        assertThat(jsResponseCacheService.getValidatedResponse("error")).isNull();
+        assertThat(jsResponseCacheService.countValidatedResponses()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRemoveValidatedResponseWithoutValidators() {
+        jsResponseCacheService.init();
+
+        jsResponseCacheService.putValidatedResponse("key",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v1"), "body"));
+        jsResponseCacheService.putValidatedResponse("key",
+            new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"));
+
+        assertThat(jsResponseCacheService.getValidatedResponse("key")).isNull();
+    }
+
+    @Test
+    void shouldOverflowValidatedResponsesToDisk(@TempDir Path overflowDirectory) throws IOException {
+        Files.writeString(overflowDirectory.resolve("previous.json"), "{}");
+        applicationProperties.getJs().getHttp().setRevalidationMaxEntries(1);
+        applicationProperties.getJs().getHttp().setRevalidationOverflowDirectory(overflowDirectory.toString());
+        jsResponseCacheService.init();
+
+        assertThat(overflowDirectory).isEmptyDirectory();
+
+        jsResponseCacheService.putValidatedResponse("first",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v1"), "first"));
+        jsResponseCacheService.putValidatedResponse("second",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v2"), "second"));
+
+        assertThat(jsResponseCacheService.countValidatedResponses()).isEqualTo(1);
+        try (Stream<Path> files = Files.list(overflowDirectory)) {
+            assertThat(files).hasSize(1);
+        }
+
+        JsResponseCacheService.CachedResponse actual = jsResponseCacheService.getValidatedResponse("first");
+
+        assertThat(actual.getCode()).isEqualTo(200);
+        assertThat(actual.getHeaders().get("ETag")).isEqualTo("v1");
+        assertThat(actual.getBody()).isEqualTo("first");
+        assertThat(jsResponseCacheService.getValidatedResponse("second").getBody()).isEqualTo("second");
+        assertThat(jsResponseCacheService.getValidatedResponse("unknown")).isNull();
+    }
+
+    @Test
+    void shouldDeleteOldestOverflowFilesWhenDirectoryIsFull(@TempDir Path overflowDirectory) {
+        applicationProperties.getJs().getHttp().setRevalidationMaxEntries(1);
+        applicationProperties.getJs().getHttp().setRevalidationOverflowDirectory(overflowDirectory.toString());
+        applicationProperties.getJs().getHttp().setRevalidationOverflowMaxEntries(1);
+        jsResponseCacheService.init();
+
+        jsResponseCacheService.putValidatedResponse("first",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v1"), "first"));
+        jsResponseCacheService.putValidatedResponse("second",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v2"), "second"));
+        jsResponseCacheService.putValidatedResponse("third",
+            new JsResponseCacheService.CachedResponse(200, Headers.of("ETag", "v3"), "third"));
+
+        assertThat(overflowDirectory.toFile().list()).hasSize(1);
+        assertThat(jsResponseCacheService.getValidatedResponse("first")).isNull();
+        assertThat(jsResponseCacheService.getValidatedResponse("second").getBody()).isEqualTo("second");
+    }
+
+    @Test
+    void shouldRegisterMetrics() {
+        jsResponseCacheService.init();
+        jsResponseCacheService.put("key", new JsResponseCacheService.CachedResponse(200, Headers.of(), "body"), 60);
+        jsResponseCacheService.get("key", 60);
+        jsResponseCacheService.get("unknownKey", 60);
+
+        assertThat(meterRegistry.get("suricate.js.http.cache.hits").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.http.cache.misses").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("suricate.js.http.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("suricate.js.http.cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldGetTimeToLive() {
+        applicationProperties.getJs().getHttp().setCacheTtl(10);
+
+        assertThat(jsResponseCacheService.getTimeToLive()).isEqualTo(10);
+
+        JsEndpointsContext context = new JsEndpointsContext();
+        JsEndpointsContext.set(context);
+
+        assertThat(jsResponseCacheService.getTimeToLive()).isEqualTo(10);
+
+        context.setCacheTtl(30L);
+
+        assertThat(jsResponseCacheService.getTimeToLive()).isEqualTo(30);
+
+        context.setCacheTtl(0L);
+
+        assertThat(jsResponseCacheService.getTimeToLive()).isZero();
+    }
+
+    @Test
+    void shouldGetKey() {
+        assertThat(JsResponseCacheService.getKey("GET", "https://mocked.com/", null, null))
+            .isEqualTo("GET https://mocked.com/");
+        assertThat(JsResponseCacheService.getKey("GET", "https://mocked.com/", "Authorization", "token"))
+            .startsWith("GET https://mocked.com/ authorization ")
+            .doesNotContain("token")
+            .isEqualTo(JsResponseCacheService.getKey("GET", "https://mocked.com/", "AUTHORIZATION", "token"))
+            .isNotEqualTo(JsResponseCacheService.getKey("GET", "https://mocked.com/", "Authorization", "other"));
+    }
+}
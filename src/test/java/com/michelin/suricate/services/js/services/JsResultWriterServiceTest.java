@@ -0,0 +1,229 @@
+package com.michelin.suricate.services.js.services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.michelin.suricate.model.dto.api.projectwidget.ProjectWidgetResponseDto;
+import com.michelin.suricate.model.dto.js.JsExecutionDto;
+import com.michelin.suricate.model.entities.ProjectWidget;
+import com.michelin.suricate.model.enums.WidgetStateEnum;
+import com.michelin.suricate.properties.ApplicationProperties;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+class JsResultWriterServiceTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private JsResultWriterService jsResultWriterService;
+
+    @AfterEach
+    void tearDown() {
+        jsResultWriterService.close();
+    }
+
+    @Test
+    void shouldKeepLatestWritePerWidgetInstance() {
+        applicationProperties.getJs().getWriteBehind().setFlushInterval(60000);
+        jsResultWriterService.init();
+
+        Date firstDate = Date.from(Instant.parse("2000-01-01T01:00:00.00Z"));
+        Date secondDate = Date.from(Instant.parse("2000-01-01T01:01:00.00Z"));
+        final Date thirdDate = Date.from(Instant.parse("2000-01-01T01:02:00.00Z"));
+
+        jsResultWriterService.writeSucceededExecution(firstDate, "log", "{}", 1L, WidgetStateEnum.RUNNING);
+        jsResultWriterService.writeFailedExecution(secondDate, "error", 1L, WidgetStateEnum.WARNING);
+        jsResultWriterService.writeState(WidgetStateEnum.STOPPED, 2L, null);
+        jsResultWriterService.writeUnchangedExecution(thirdDate, 3L);
+
+        JsResultWriterService.PendingWrite actual = jsResultWriterService.getPendingWrite(1L);
+
+        assertThat(jsResultWriterService.countPendingWrites()).isEqualTo(3);
+        assertThat(jsResultWriterService.getPendingWrite(3L).getLastSuccessDate()).isEqualTo(thirdDate);
+        assertThat(jsResultWriterService.getPendingWrite(3L).getData()).isNull();
+        assertThat(actual.getLastExecutionDate()).isEqualTo(secondDate);
+        assertThat(actual.getLastSuccessDate()).isEqualTo(firstDate);
+        assertThat(actual.getState()).isEqualTo(WidgetStateEnum.WARNING);
+        assertThat(actual.getLog()).isEqualTo("error");
+        assertThat(actual.getData()).isEqualTo("{}");
+
+        jsResultWriterService.flush();
+
+        assertThat(jsResultWriterService.countPendingWrites()).isZero();
+        verify(jdbcTemplate)
+            .batchUpdate(anyString(), argThat((List<Object[]> batchArgs) -> batchArgs.size() == 3
+                && batchArgs.get(0)[2].equals("WARNING") && batchArgs.get(0)[5].equals(1L)
+                && batchArgs.get(1)[2].equals("STOPPED") && batchArgs.get(1)[4] == null), any(int[].class));
+        verify(transactionManager)
+            .commit(any());
+    }
+
+    @Test
+    void shouldSplitFlushInBatches() {
+        applicationProperties.getJs().getWriteBehind().setFlushInterval(60000);
+        applicationProperties.getJs().getWriteBehind().setBatchSize(2);
+        jsResultWriterService.init();
+
+        jsResultWriterService.writeState(WidgetStateEnum.RUNNING, 1L, null);
+        jsResultWriterService.writeState(WidgetStateEnum.RUNNING, 2L, null);
+        jsResultWriterService.writeState(WidgetStateEnum.RUNNING, 3L, null);
+
+        verify(jdbcTemplate, timeout(1000))
+            .batchUpdate(anyString(), argThat((List<Object[]> batchArgs) -> batchArgs.size() == 2),
+                any(int[].class));
+
+        jsResultWriterService.flush();
+
+        assertThat(jsResultWriterService.countPendingWrites()).isZero();
+    }
+
+    @Test
+    void shouldWriteImmediatelyWhenDisabled() {
+        applicationProperties.getJs().getWriteBehind().setEnabled(false);
+        jsResultWriterService.init();
+
+        jsResultWriterService.writeState(WidgetStateEnum.STOPPED, 1L, new Date());
+
+        assertThat(jsResultWriterService.countPendingWrites()).isZero();
+        verify(jdbcTemplate)
+            .batchUpdate(anyString(), argThat((List<Object[]> batchArgs) -> batchArgs.size() == 1),
+                any(int[].class));
+    }
+
+    @Test
+    void shouldNotWaitForRunningFlushWhenDisabled() throws Exception {
+        applicationProperties.getJs().getWriteBehind().setEnabled(false);
+        jsResultWriterService.init();
+
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class), any(int[].class)))
+            .thenAnswer(invocation -> {
+                flushing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return new int[] {1};
+            })
+            .thenReturn(new int[] {1});
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            final Future<?> firstWrite = executor.submit(() ->
+                jsResultWriterService.writeState(WidgetStateEnum.RUNNING, 1L, new Date()));
+            assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // The caller may hold a connection, it must not wait for the flush in progress
+            jsResultWriterService.writeState(WidgetStateEnum.STOPPED, 2L, new Date());
+            assertThat(jsResultWriterService.getPendingWrite(2L).getState()).isEqualTo(WidgetStateEnum.STOPPED);
+
+            release.countDown();
+            firstWrite.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(jsResultWriterService.countPendingWrites()).isZero();
+        verify(jdbcTemplate, times(2))
+            .batchUpdate(anyString(), any(List.class), any(int[].class));
+    }
+
+    @Test
+    void shouldKeepWritesOfFailedFlush() {
+        applicationProperties.getJs().getWriteBehind().setFlushInterval(60000);
+        jsResultWriterService.init();
+
+        when(jdbcTemplate.batchUpdate(anyString(), any(List.class), any(int[].class)))
+            .thenThrow(new DataAccessResourceFailureException("error"))
+            .thenReturn(new int[] {1});
+
+        jsResultWriterService.writeSucceededExecution(new Date(), "log", "{}", 1L, WidgetStateEnum.RUNNING);
+        jsResultWriterService.flush();
+
+        assertThat(jsResultWriterService.countPendingWrites()).isEqualTo(1);
+        assertThat(jsResultWriterService.getPendingWrite(1L).getData()).isEqualTo("{}");
+
+        jsResultWriterService.flush();
+
+        assertThat(jsResultWriterService.countPendingWrites()).isZero();
+        verify(transactionManager)
+            .rollback(any());
+        verify(jdbcTemplate, times(2))
+            .batchUpdate(anyString(), any(List.class), any(int[].class));
+    }
+
+    @Test
+    void shouldFlushOnClose() {
+        applicationProperties.getJs().getWriteBehind().setFlushInterval(60000);
+        jsResultWriterService.init();
+
+        jsResultWriterService.writeState(WidgetStateEnum.RUNNING, 1L, null);
+        jsResultWriterService.close();
+
+        assertThat(jsResultWriterService.countPendingWrites()).isZero();
+        verify(jdbcTemplate)
+            .batchUpdate(anyString(), any(List.class), any(int[].class));
+    }
+
+    @Test
+    void shouldApplyPendingWrite() {
+        Date date = Date.from(Instant.parse("2000-01-01T01:00:00.00Z"));
+        JsResultWriterService.PendingWrite pendingWrite =
+            new JsResultWriterService.PendingWrite(date, date, WidgetStateEnum.RUNNING, null, "{\"value\":1}");
+
+        ProjectWidget projectWidget = new ProjectWidget();
+        projectWidget.setLog("log");
+        pendingWrite.applyTo(projectWidget);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        pendingWrite.applyTo(jsExecutionDto);
+
+        ProjectWidgetResponseDto projectWidgetResponseDto = new ProjectWidgetResponseDto();
+        projectWidgetResponseDto.setLog("log");
+        pendingWrite.applyTo(projectWidgetResponseDto);
+
+        assertThat(projectWidget.getData()).isEqualTo("{\"value\":1}");
+        assertThat(projectWidget.getLog()).isEqualTo("log");
+        assertThat(projectWidget.getLastExecutionDate()).isEqualTo(date);
+        assertThat(projectWidget.getLastSuccessDate()).isEqualTo(date);
+        assertThat(projectWidget.getState()).isEqualTo(WidgetStateEnum.RUNNING);
+        assertThat(jsExecutionDto.getPreviousData()).isEqualTo("{\"value\":1}");
+        assertThat(jsExecutionDto.getLastSuccessDate()).isEqualTo(date);
+        assertThat(jsExecutionDto.isAlreadySuccess()).isTrue();
+        assertThat(jsExecutionDto.getWidgetState()).isEqualTo(WidgetStateEnum.RUNNING);
+        assertThat(projectWidgetResponseDto.getData()).isEqualTo("{\"value\":1}");
+        assertThat(projectWidgetResponseDto.getLog()).isEqualTo("log");
+        assertThat(projectWidgetResponseDto.getLastSuccessDate()).isEqualTo(date);
+        assertThat(projectWidgetResponseDto.getState()).isEqualTo(WidgetStateEnum.RUNNING);
+    }
+}
@@ -1,27 +1,85 @@
 package com.michelin.suricate.services.js.tasks;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.model.dto.js.WidgetVariableResponseDto;
 import com.michelin.suricate.model.enums.DataTypeEnum;
 import com.michelin.suricate.model.enums.JsExecutionErrorTypeEnum;
+import com.michelin.suricate.properties.ApplicationProperties;
+import com.michelin.suricate.services.js.script.JsEndpointsContext;
+import com.michelin.suricate.services.js.services.JsCircuitBreakerService;
+import com.michelin.suricate.services.js.services.JsEngineService;
+import com.michelin.suricate.services.js.services.JsExecutionMemoService;
+import com.michelin.suricate.services.js.services.JsHttpClientService;
+import com.michelin.suricate.services.js.services.JsHttpLimiterService;
+import com.michelin.suricate.services.js.services.JsResponseCacheService;
+import com.michelin.suricate.utils.SpringContextUtils;
 import com.michelin.suricate.utils.exceptions.js.FatalException;
 import com.michelin.suricate.utils.exceptions.js.RemoteException;
+import com.michelin.suricate.utils.http.OkHttpClientUtils;
+import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.ConnectException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import okhttp3.Call;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Timeout;
 import org.jasypt.encryption.pbe.PooledPBEStringEncryptor;
 import org.jasypt.encryption.pbe.config.SimpleStringPBEConfig;
 import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.mockito.InjectMocks;
+import org.mockito.MockedStatic;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationContext;
 
+@ExtendWith(MockitoExtension.class)
 class JsExecutionAsyncTaskTest {
+    @Spy
+    private ApplicationProperties applicationProperties = new ApplicationProperties();
+
+    @InjectMocks
+    private JsEngineService jsEngineService;
+
+    @BeforeEach
+    void setUp() {
+        jsEngineService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jsEngineService.close();
+    }
+
     @ParameterizedTest
     @CsvSource({"badScript,ReferenceError: badScript is not defined",
         "function test() {},No run function defined",
@@ -36,7 +94,8 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript(script);
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList());
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.isFatal()).isTrue();
@@ -56,7 +115,8 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setAlreadySuccess(true);
         jsExecutionDto.setScript(script);
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList());
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.getError()).isEqualTo(JsExecutionErrorTypeEnum.ERROR);
@@ -72,7 +132,8 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList());
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.getError()).isNull();
@@ -110,7 +171,8 @@ class JsExecutionAsyncTaskTest {
             "function run () { print('title='+SURI_TITLE); "
                 + "print('notRequiredTitle='+NOT_REQUIRED_SURI_TITLE); return '{}' }");
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, widgetParameters);
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, widgetParameters, jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.getError()).isNull();
@@ -131,7 +193,8 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { print('This is a log'); return '{}'; }");
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, null);
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.getError()).isNull();
@@ -151,7 +214,8 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { print(Packages.btoa('test')); return '{}'}");
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList());
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.getError()).isNull();
@@ -162,6 +226,185 @@ class JsExecutionAsyncTaskTest {
         assertThat(actual.getLog()).isEqualTo("dGVzdA==");
     }
 
+    @Test
+    void shouldBindEndpointsContextDuringExecution() throws IOException {
+        try (MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            OkHttpClient client = mock(OkHttpClient.class);
+            Call call = mock(Call.class);
+            AtomicReference<JsEndpointsContext> context = new AtomicReference<>();
+
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenAnswer(invocation -> {
+                context.set(JsEndpointsContext.get());
+                return call;
+            });
+            when(call.timeout()).thenReturn(new Timeout());
+            when(call.execute()).thenReturn(new Response.Builder()
+                .code(200)
+                .request(new Request.Builder().url("https://mocked.com").build())
+                .body(ResponseBody.create("{}", MediaType.get("application/json")))
+                .protocol(Protocol.HTTP_1_1)
+                .message("OK")
+                .build());
+
+            JsExecutionDto jsExecutionDto = new JsExecutionDto();
+            jsExecutionDto.setProjectId(1L);
+            jsExecutionDto.setProjectWidgetId(1L);
+            jsExecutionDto.setWidgetTechnicalName("widget");
+            jsExecutionDto.setDelay(0L);
+            jsExecutionDto.setProperties("SURI_HTTP_CACHE_TTL=30");
+            jsExecutionDto.setScript("function run() { return Packages.get('https://mocked.com'); }");
+
+            JsExecutionAsyncTask task =
+                new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
+            JsResultDto actual = task.call();
+
+            assertThat(actual.getError()).isNull();
+            assertThat(actual.getData()).isEqualTo("{}");
+            assertThat(context.get().getProjectWidgetId()).isEqualTo(1L);
+            assertThat(context.get().getWidgetTechnicalName()).isEqualTo("widget");
+            assertThat(context.get().getCacheTtl()).isEqualTo(30L);
+            assertThat(context.get().getDeadline()).isGreaterThan(System.currentTimeMillis());
+            assertThat(JsEndpointsContext.get()).isNull();
+
+            task.cancelCalls();
+
+            verify(call).cancel();
+        }
+    }
+
+    @Test
+    void shouldGetAllFromScript() throws IOException, RemoteException {
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        JsHttpClientService jsHttpClientService = mock(JsHttpClientService.class);
+        JsHttpLimiterService jsHttpLimiterService = mock(JsHttpLimiterService.class);
+        JsCircuitBreakerService jsCircuitBreakerService = mock(JsCircuitBreakerService.class);
+        JsResponseCacheService jsResponseCacheService = mock(JsResponseCacheService.class);
+        OkHttpClient client = mock(OkHttpClient.class);
+        Call call = mock(Call.class);
+
+        when(applicationContext.getBean(JsHttpClientService.class)).thenReturn(jsHttpClientService);
+        when(jsHttpClientService.getClient()).thenReturn(client);
+        when(jsHttpClientService.getProperties()).thenReturn(new ApplicationProperties.Http());
+        when(applicationContext.getBean(JsHttpLimiterService.class)).thenReturn(jsHttpLimiterService);
+        when(jsHttpLimiterService.acquire(any())).thenReturn(() -> { });
+        when(applicationContext.getBean(JsCircuitBreakerService.class)).thenReturn(jsCircuitBreakerService);
+        when(jsCircuitBreakerService.attempt(any())).thenReturn(JsCircuitBreakerService.Attempt.NONE);
+        when(applicationContext.getBean(JsResponseCacheService.class)).thenReturn(jsResponseCacheService);
+        when(client.newCall(any())).thenReturn(call);
+        when(call.timeout()).thenReturn(new Timeout());
+        when(call.execute()).thenReturn(new Response.Builder()
+            .code(200)
+            .request(new Request.Builder().url("https://mocked.com").build())
+            .body(ResponseBody.create("{\"value\": 1}", MediaType.get("application/json")))
+            .protocol(Protocol.HTTP_1_1)
+            .message("OK")
+            .build());
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setScript("function run() { "
+            + "var responses = Packages.getAll([{url: 'https://mocked.com', headerName: 'Authorization', "
+            + "headerValue: 'token'}]); "
+            + "return JSON.stringify({body: JSON.parse(responses[0].body), error: responses[0].error}); }");
+
+        ApplicationContext previousApplicationContext = SpringContextUtils.getApplicationContext();
+        new SpringContextUtils().setApplicationContext(applicationContext);
+
+        try {
+            JsExecutionAsyncTask task =
+                new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
+            JsResultDto actual = task.call();
+
+            assertThat(actual.getError()).isNull();
+            assertThat(actual.getData()).isEqualTo("{\"body\":{\"value\":1},\"error\":null}");
+            verify(client).newCall(argThat(request -> "token".equals(request.header("Authorization"))));
+        } finally {
+            new SpringContextUtils().setApplicationContext(previousApplicationContext);
+        }
+    }
+
+    @Test
+    void shouldReportCallAbortedByDeadlineAsError() throws IOException {
+        try (MockedStatic<OkHttpClientUtils> mocked = mockStatic(OkHttpClientUtils.class)) {
+            OkHttpClient client = mock(OkHttpClient.class);
+            Call call = mock(Call.class);
+
+            mocked.when(OkHttpClientUtils::getUnsafeOkHttpClient).thenReturn(client);
+            when(client.newCall(any())).thenReturn(call);
+            when(call.timeout()).thenReturn(new Timeout());
+            when(call.request()).thenReturn(new Request.Builder().url("https://mocked.com").build());
+            when(call.execute()).thenThrow(new InterruptedIOException("timeout"));
+            when(call.isCanceled()).thenReturn(true);
+
+            JsExecutionDto jsExecutionDto = new JsExecutionDto();
+            jsExecutionDto.setProjectId(1L);
+            jsExecutionDto.setProjectWidgetId(1L);
+            jsExecutionDto.setDelay(0L);
+            jsExecutionDto.setScript("function run() { return Packages.get('https://mocked.com'); }");
+
+            JsResultDto actual =
+                new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+
+            assertThat(actual.getError()).isEqualTo(JsExecutionErrorTypeEnum.ERROR);
+            assertThat(actual.getLog()).isEqualTo("The request /GET https://mocked.com/ has been aborted, "
+                + "the timeout of the widget execution is exceeded.");
+        }
+    }
+
+    @Test
+    void shouldReuseMemoizedResult() {
+        final JsExecutionMemoService jsExecutionMemoService = mock(JsExecutionMemoService.class);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setScript("function run() { throw new Error('evaluated'); }");
+
+        JsResultDto memoizedResult = new JsResultDto();
+        memoizedResult.setData("{\"value\":1}");
+        memoizedResult.setLog("log");
+
+        when(jsExecutionMemoService.isEnabled(any())).thenReturn(true);
+        when(jsExecutionMemoService.getMemoizedResult(eq(jsExecutionDto), any(), any())).thenReturn(memoizedResult);
+
+        JsResultDto actual =
+            new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, jsExecutionMemoService).call();
+
+        assertThat(actual.getError()).isNull();
+        assertThat(actual.getData()).isEqualTo("{\"value\":1}");
+        assertThat(actual.getLog()).isEqualTo("log");
+        assertThat(actual.getProjectWidgetId()).isEqualTo(1L);
+
+        verify(jsExecutionMemoService, times(0))
+            .memoize(any(), any(), any(), any());
+    }
+
+    @Test
+    void shouldMemoizeResult() {
+        final JsExecutionMemoService jsExecutionMemoService = mock(JsExecutionMemoService.class);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setScript("function run() { return '{}'; }");
+
+        when(jsExecutionMemoService.isEnabled(any())).thenReturn(true);
+
+        JsResultDto actual =
+            new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, jsExecutionMemoService).call();
+
+        assertThat(actual.getData()).isEqualTo("{}");
+
+        verify(jsExecutionMemoService)
+            .memoize(eq(jsExecutionDto), any(), argThat(JsEndpointsContext::isMemoization),
+                argThat(jsResultDto -> "{}".equals(jsResultDto.getData())));
+    }
+
     @Test
     void shouldSuccessWithEncryptedVars() {
         WidgetVariableResponseDto widgetParameter = new WidgetVariableResponseDto();
@@ -183,7 +426,8 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setProperties("SURI_SECRET=" + encryptor.encrypt("encrypted string"));
         jsExecutionDto.setScript("function run () { print(SURI_SECRET); return '{}'}");
 
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, encryptor, widgetParameters);
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, encryptor, widgetParameters, jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.getError()).isNull();
@@ -214,17 +458,108 @@ class JsExecutionAsyncTaskTest {
         jsExecutionDto.setScript("function run () { print(SURI_SECRET); return '{}'}");
 
         PooledPBEStringEncryptor encryptor = getPooledPbeStringEncryptor();
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, encryptor, widgetParameters);
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, encryptor, widgetParameters, jsEngineService, null);
         JsResultDto actual = task.call();
 
         assertThat(actual.isFatal()).isTrue();
         assertThat(actual.getLog()).isEqualTo("org.jasypt.exceptions.EncryptionOperationNotPossibleException");
     }
 
+    @Test
+    void shouldNotLeakGlobalsBetweenPooledExecutions() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setWidgetTechnicalName("widget");
+        jsExecutionDto.setProperties("SURI_TITLE=title");
+        jsExecutionDto.setScript("var count; function run() { print(typeof SURI_TITLE + ' ' + typeof leaked + ' ' "
+            + "+ count); leaked = true; count = (count || 0) + 1; return '{}'; }");
+
+        JsResultDto first = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+
+        jsExecutionDto.setProjectWidgetId(2L);
+        jsExecutionDto.setProperties(null);
+
+        JsResultDto second = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+        JsResultDto third = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+
+        assertThat(first.getLog()).isEqualTo("string undefined undefined");
+        assertThat(second.getLog()).isEqualTo("undefined undefined undefined");
+        assertThat(third.getLog()).isEqualTo("undefined undefined undefined");
+        assertThat(jsEngineService.getContextPoolHits()).hasValue(2);
+        assertThat(jsEngineService.getContextPoolMisses()).hasValue(1);
+    }
+
+    @Test
+    void shouldExecuteScriptWithGlobalLexicalDeclarationsTwice() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setWidgetTechnicalName("widget");
+        jsExecutionDto.setScript("const result = '{}'; function run() { return result; }");
+
+        JsResultDto first = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+        JsResultDto second = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+        JsResultDto third = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+
+        assertThat(first.getData()).isEqualTo("{}");
+        assertThat(second.getData()).isEqualTo("{}");
+        assertThat(third.getData()).isEqualTo("{}");
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldFailWhenStatementLimitIsExceeded() {
+        applicationProperties.getJs().setStatementLimit(1000);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setScript("function run() { while (true) {} }");
+
+        JsResultDto actual = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null).call();
+
+        assertThat(actual.isFatal()).isTrue();
+        assertThat(actual.getLog()).isEqualTo("Statement count limit of 1000 exceeded. Statements executed 1001.");
+        assertThat(jsEngineService.countIdleContexts()).isZero();
+    }
+
+    @Test
+    void shouldInterruptUnmodifiedScript() throws Exception {
+        applicationProperties.getJs().setStatementLimit(0);
+
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setProjectId(1L);
+        jsExecutionDto.setProjectWidgetId(1L);
+        jsExecutionDto.setDelay(0L);
+        jsExecutionDto.setScript("function run() { while (true) {} }");
+
+        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, null, jsEngineService, null);
+
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            Future<JsResultDto> future = executorService.submit(task);
+            Thread.sleep(500);
+            future.cancel(true);
+            task.cancelCalls();
+
+            executorService.shutdown();
+            assertThat(executorService.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+            assertThat(jsEngineService.countIdleContexts()).isZero();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test
     void shouldBeFatalErrorOrNot() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
-        JsExecutionAsyncTask task = new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList());
+        JsExecutionAsyncTask task =
+            new JsExecutionAsyncTask(jsExecutionDto, null, Collections.emptyList(), jsEngineService, null);
 
         assertThat(task.isFatalError(new Exception(""), new Exception(""))).isTrue();
         assertThat(task.isFatalError(new Exception("Error on server"), new Exception("Error on server"))).isTrue();
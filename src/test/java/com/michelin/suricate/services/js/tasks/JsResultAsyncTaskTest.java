@@ -2,21 +2,18 @@ package com.michelin.suricate.services.js.tasks;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.anyBoolean;
-import static org.mockito.Mockito.anyLong;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verifyNoInteractions;
 
 import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.js.JsResultDto;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.js.services.DashboardScheduleService;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -32,10 +29,27 @@ class JsResultAsyncTaskTest {
     private DashboardScheduleService dashboardScheduleService;
 
     @Mock
-    private ScheduledFuture<JsResultDto> scheduledFuture;
+    private Future<JsResultDto> scheduledFuture;
 
     @Test
-    void shouldSuccess() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldGetDefaultTimeout() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setTimeout(30L);
+
+        assertThat(JsResultAsyncTask.getTimeout(new JsExecutionDto())).isEqualTo(60);
+        assertThat(JsResultAsyncTask.getTimeout(jsExecutionDto)).isEqualTo(60);
+    }
+
+    @Test
+    void shouldGetTimeout() {
+        JsExecutionDto jsExecutionDto = new JsExecutionDto();
+        jsExecutionDto.setTimeout(120L);
+
+        assertThat(JsResultAsyncTask.getTimeout(jsExecutionDto)).isEqualTo(120);
+    }
+
+    @Test
+    void shouldSuccess() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
@@ -46,26 +60,22 @@ class JsResultAsyncTaskTest {
         JsResultDto jsResultDto = new JsResultDto();
         jsResultDto.setProjectId(1L);
 
-        when(scheduledFuture.get(anyLong(), any())).thenReturn(jsResultDto);
-
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
+        task.accept(jsResultDto, null);
 
         verify(dashboardScheduleService)
             .processJsResult(jsResultDto, jsExecutionScheduler);
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
+        verifyNoInteractions(scheduledFuture);
     }
 
     @Test
-    void shouldSuccessWithRetryOnce() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldSuccessWithRetryOnce() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
         jsExecutionDto.setDelay(0L);
-        jsExecutionDto.setTimeout(120L);
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
@@ -75,26 +85,22 @@ class JsResultAsyncTaskTest {
         doThrow(new RuntimeException("Error"))
             .doNothing()
             .when(dashboardScheduleService).processJsResult(any(), any());
-        when(scheduledFuture.get(anyLong(), any())).thenReturn(jsResultDto);
 
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
+        task.accept(jsResultDto, null);
 
         verify(dashboardScheduleService, times(2))
             .processJsResult(jsResultDto, jsExecutionScheduler);
-        verify(scheduledFuture)
-            .get(120, TimeUnit.SECONDS);
     }
 
     @Test
-    void shouldRescheduleWhenAllRetriesPerformed() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldRescheduleWhenAllRetriesPerformed() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
         jsExecutionDto.setDelay(0L);
-        jsExecutionDto.setTimeout(30L);
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
@@ -103,23 +109,20 @@ class JsResultAsyncTaskTest {
 
         doThrow(new RuntimeException("Error"))
             .when(dashboardScheduleService).processJsResult(any(), any());
-        when(scheduledFuture.get(anyLong(), any())).thenReturn(jsResultDto);
 
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
+        task.accept(jsResultDto, null);
 
         verify(dashboardScheduleService, times(10))
             .processJsResult(jsResultDto, jsExecutionScheduler);
         verify(jsExecutionScheduler)
             .schedule(jsExecutionDto, false);
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
     }
 
     @Test
-    void shouldCatchInterruptedException() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldIgnoreCancellation() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
@@ -127,79 +130,19 @@ class JsResultAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
-        JsResultDto jsResultDto = new JsResultDto();
-        jsResultDto.setProjectId(1L);
-
-        when(scheduledFuture.get(anyLong(), any())).thenThrow(new InterruptedException("error"));
-
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
-
-        assertThat(Thread.currentThread().isInterrupted()).isTrue();
-
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
-    }
-
-    @Test
-    void shouldCatchCancellationException() throws ExecutionException, InterruptedException, TimeoutException {
-        JsExecutionDto jsExecutionDto = new JsExecutionDto();
-        jsExecutionDto.setProjectId(1L);
-        jsExecutionDto.setProjectWidgetId(1L);
-        jsExecutionDto.setDelay(0L);
-        jsExecutionDto.setPreviousData(null);
-        jsExecutionDto.setScript("function run() { return '{}'; }");
-
-        JsResultDto jsResultDto = new JsResultDto();
-        jsResultDto.setProjectId(1L);
-
-        scheduledFuture.cancel(true);
+        task.accept(null, new CancellationException("error"));
 
-        when(scheduledFuture.get(anyLong(), any()))
-            .thenThrow(new CancellationException("error"));
-
-        JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
-            jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
-
-        task.call();
-
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
-    }
-
-    @Test
-    void shouldCatchCancellationExceptionAndCancelImmediately()
-        throws ExecutionException, InterruptedException, TimeoutException {
-        JsExecutionDto jsExecutionDto = new JsExecutionDto();
-        jsExecutionDto.setProjectId(1L);
-        jsExecutionDto.setProjectWidgetId(1L);
-        jsExecutionDto.setDelay(0L);
-        jsExecutionDto.setPreviousData(null);
-        jsExecutionDto.setScript("function run() { return '{}'; }");
-
-        JsResultDto jsResultDto = new JsResultDto();
-        jsResultDto.setProjectId(1L);
-
-        scheduledFuture.cancel(true);
-
-        when(scheduledFuture.isCancelled())
-            .thenReturn(true);
-        when(scheduledFuture.get(anyLong(), any()))
-            .thenThrow(new CancellationException("error"));
-
-        JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
-            jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
-
-        task.call();
-
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
+        verifyNoInteractions(dashboardScheduleService);
+        verifyNoInteractions(jsExecutionScheduler);
+        verify(scheduledFuture, never())
+            .cancel(true);
     }
 
     @Test
-    void shouldCatchTimeoutException() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldCancelWhenTimeout() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
@@ -207,28 +150,19 @@ class JsResultAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
-        JsResultDto jsResultDto = new JsResultDto();
-        jsResultDto.setProjectId(1L);
-
-        when(scheduledFuture.get(anyLong(), any())).thenThrow(new TimeoutException("error"));
-        when(scheduledFuture.cancel(anyBoolean())).thenReturn(true);
-
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
+        task.accept(null, new TimeoutException());
 
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
         verify(scheduledFuture)
             .cancel(true);
         verify(dashboardScheduleService)
-            .updateWidgetInstanceNoJsResult("The JavaScript execution exceeded the timeout defined by the widget", 1L,
-                1L);
+            .updateWidgetInstanceNoJsResult("The JavaScript execution exceeded the timeout defined by the widget", 1L);
     }
 
     @Test
-    void shouldCatchException() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldCancelWhenException() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
@@ -236,27 +170,19 @@ class JsResultAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
-        JsResultDto jsResultDto = new JsResultDto();
-        jsResultDto.setProjectId(1L);
-
-        when(scheduledFuture.get(anyLong(), any())).thenThrow(new RuntimeException("Error"));
-        when(scheduledFuture.cancel(anyBoolean())).thenReturn(true);
-
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
+        task.accept(null, new RuntimeException("Error"));
 
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
         verify(scheduledFuture)
             .cancel(true);
         verify(dashboardScheduleService)
-            .updateWidgetInstanceNoJsResult("java.lang.RuntimeException: Error", 1L, 1L);
+            .updateWidgetInstanceNoJsResult("java.lang.RuntimeException: Error", 1L);
     }
 
     @Test
-    void shouldRescheduleWhenExceptionOnUpdate() throws ExecutionException, InterruptedException, TimeoutException {
+    void shouldRescheduleWhenExceptionOnUpdate() {
         JsExecutionDto jsExecutionDto = new JsExecutionDto();
         jsExecutionDto.setProjectId(1L);
         jsExecutionDto.setProjectWidgetId(1L);
@@ -264,25 +190,18 @@ class JsResultAsyncTaskTest {
         jsExecutionDto.setPreviousData(null);
         jsExecutionDto.setScript("function run() { return '{}'; }");
 
-        JsResultDto jsResultDto = new JsResultDto();
-        jsResultDto.setProjectId(1L);
-
-        when(scheduledFuture.get(anyLong(), any())).thenThrow(new RuntimeException("Error"));
-        when(scheduledFuture.cancel(anyBoolean())).thenReturn(true);
         doThrow(new RuntimeException()).when(dashboardScheduleService)
-            .updateWidgetInstanceNoJsResult(any(), any(), any());
+            .updateWidgetInstanceNoJsResult(any(), any());
 
         JsResultAsyncTask task = new JsResultAsyncTask(scheduledFuture,
             jsExecutionDto, jsExecutionScheduler, dashboardScheduleService);
 
-        task.call();
+        task.accept(null, new RuntimeException("Error"));
 
-        verify(scheduledFuture)
-            .get(60, TimeUnit.SECONDS);
         verify(scheduledFuture)
             .cancel(true);
         verify(dashboardScheduleService)
-            .updateWidgetInstanceNoJsResult("java.lang.RuntimeException: Error", 1L, 1L);
+            .updateWidgetInstanceNoJsResult("java.lang.RuntimeException: Error", 1L);
         verify(jsExecutionScheduler)
             .schedule(jsExecutionDto, false);
     }
@@ -16,6 +16,7 @@ import com.michelin.suricate.model.dto.js.JsExecutionDto;
 import com.michelin.suricate.model.dto.websocket.UpdateEvent;
 import com.michelin.suricate.model.dto.websocket.WebsocketClient;
 import com.michelin.suricate.model.entities.Project;
+import com.michelin.suricate.model.entities.ProjectGrid;
 import com.michelin.suricate.services.api.ProjectService;
 import com.michelin.suricate.services.js.scheduler.JsExecutionScheduler;
 import com.michelin.suricate.services.js.services.JsExecutionService;
@@ -25,6 +26,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -161,7 +163,7 @@ class DashboardWebSocketServiceTest {
         verify(jsExecutionService)
             .getJsExecutionsByProject(project);
         verify(jsExecutionScheduler)
-            .scheduleJsRequests(jsExecutionDtos, true);
+            .scheduleJsRequestsOnSubscription(jsExecutionDtos);
     }
 
     @Test
@@ -188,7 +190,7 @@ class DashboardWebSocketServiceTest {
         verify(jsExecutionService)
             .getJsExecutionsByProject(project);
         verify(jsExecutionScheduler)
-            .scheduleJsRequests(jsExecutionDtos, true);
+            .scheduleJsRequestsOnSubscription(jsExecutionDtos);
     }
 
     @Test
@@ -215,7 +217,7 @@ class DashboardWebSocketServiceTest {
         verify(jsExecutionService)
             .getJsExecutionsByProject(project);
         verify(jsExecutionScheduler)
-            .scheduleJsRequests(jsExecutionDtos, true);
+            .scheduleJsRequestsOnSubscription(jsExecutionDtos);
     }
 
     @Test
@@ -301,7 +303,7 @@ class DashboardWebSocketServiceTest {
         verify(jsExecutionService)
             .getJsExecutionsByProject(project);
         verify(jsExecutionScheduler)
-            .scheduleJsRequests(jsExecutionDtos, true);
+            .scheduleJsRequestsOnSubscription(jsExecutionDtos);
         verify(projectService)
             .getOneByToken("token");
         verify(jsExecutionScheduler)
@@ -346,11 +348,142 @@ class DashboardWebSocketServiceTest {
         verify(jsExecutionService)
             .getJsExecutionsByProject(project);
         verify(jsExecutionScheduler)
-            .scheduleJsRequests(jsExecutionDtos, true);
+            .scheduleJsRequestsOnSubscription(jsExecutionDtos);
+        verify(projectService)
+            .getOneByToken("token");
+        verify(jsExecutionScheduler, times(0))
+            .cancelWidgetsExecutionByProject(any());
+    }
+
+    @Test
+    void shouldUpdateDisplayedGridsWhenRemovingClient() {
+        WebsocketClient websocketClient = new WebsocketClient();
+        websocketClient.setProjectToken("token");
+        websocketClient.setSessionId("session");
+        websocketClient.setSubscriptionId("subscription");
+        websocketClient.setDisplayedGridId(1L);
+
+        WebsocketClient websocketClient2 = new WebsocketClient();
+        websocketClient2.setProjectToken("token");
+        websocketClient2.setSessionId("session2");
+        websocketClient2.setSubscriptionId("subscription2");
+        websocketClient2.setDisplayedGridId(2L);
+
+        Project project = new Project();
+        project.setId(1L);
+        project.setToken("token");
+
+        when(projectService.getOneByToken(any())).thenReturn(Optional.of(project));
+
+        dashboardWebSocketService.addClientToProject(project, websocketClient);
+        dashboardWebSocketService.addClientToProject(project, websocketClient2);
+        dashboardWebSocketService.removeClientFromProject(websocketClient);
+
+        verify(jsExecutionScheduler)
+            .updateDisplayedGrids(project, Set.of(1L, 2L));
+        verify(jsExecutionScheduler)
+            .updateDisplayedGrids(project, Set.of(2L));
+        verify(jsExecutionScheduler, times(0))
+            .cancelWidgetsExecutionByProject(any());
+    }
+
+    @Test
+    void shouldUpdateDisplayedGrid() {
+        WebsocketClient websocketClient = new WebsocketClient();
+        websocketClient.setProjectToken("token");
+        websocketClient.setSessionId("session");
+        websocketClient.setSubscriptionId("subscription");
+        websocketClient.setScreenCode("screen");
+
+        ProjectGrid projectGrid = new ProjectGrid();
+        projectGrid.setId(1L);
+
+        ProjectGrid projectGrid2 = new ProjectGrid();
+        projectGrid2.setId(2L);
+
+        Project project = new Project();
+        project.setId(1L);
+        project.setToken("token");
+        project.getGrids().add(projectGrid);
+        project.getGrids().add(projectGrid2);
+
+        when(projectService.getOneByToken(any())).thenReturn(Optional.of(project));
+
+        dashboardWebSocketService.addClientToProject(project, websocketClient);
+        dashboardWebSocketService.updateDisplayedGrid("session", "token", "screen", 2L);
+
+        assertThat(websocketClient.getDisplayedGridId()).isEqualTo(2L);
+
+        verify(jsExecutionScheduler)
+            .updateDisplayedGrids(project, Set.of(2L));
+        verify(jsExecutionScheduler)
+            .prewarmNextGrid(project, 2L);
+    }
+
+    @Test
+    void shouldDisplayEveryGridWhenClientDoesNotReportDisplayedGrid() {
+        WebsocketClient websocketClient = new WebsocketClient();
+        websocketClient.setProjectToken("token");
+        websocketClient.setSessionId("session");
+        websocketClient.setScreenCode("screen");
+
+        WebsocketClient websocketClient2 = new WebsocketClient();
+        websocketClient2.setProjectToken("token");
+        websocketClient2.setSessionId("session2");
+        websocketClient2.setScreenCode("screen2");
+
+        ProjectGrid projectGrid = new ProjectGrid();
+        projectGrid.setId(1L);
+
+        Project project = new Project();
+        project.setId(1L);
+        project.setToken("token");
+        project.getGrids().add(projectGrid);
+
+        when(projectService.getOneByToken(any())).thenReturn(Optional.of(project));
+
+        dashboardWebSocketService.addClientToProject(project, websocketClient);
+        dashboardWebSocketService.addClientToProject(project, websocketClient2);
+        dashboardWebSocketService.updateDisplayedGrid("session", "token", "screen", 1L);
+
+        verify(jsExecutionScheduler, times(2))
+            .updateDisplayedGrids(project, null);
+        verify(jsExecutionScheduler)
+            .prewarmNextGrid(project, 1L);
+    }
+
+    @Test
+    void shouldNotUpdateDisplayedGridOfUnknownClient() {
+        dashboardWebSocketService.updateDisplayedGrid("session", "token", "screen", 1L);
+
         verify(projectService, times(0))
             .getOneByToken(any());
         verify(jsExecutionScheduler, times(0))
-            .cancelWidgetsExecutionByProject(any());
+            .updateDisplayedGrids(any(), any());
+    }
+
+    @Test
+    void shouldNotUpdateDisplayedGridNotBelongingToProject() {
+        WebsocketClient websocketClient = new WebsocketClient();
+        websocketClient.setProjectToken("token");
+        websocketClient.setSessionId("session");
+        websocketClient.setScreenCode("screen");
+
+        Project project = new Project();
+        project.setId(1L);
+        project.setToken("token");
+
+        when(projectService.getOneByToken(any())).thenReturn(Optional.of(project));
+
+        dashboardWebSocketService.addClientToProject(project, websocketClient);
+        dashboardWebSocketService.updateDisplayedGrid("session", "token", "screen", 1L);
+
+        assertThat(websocketClient.getDisplayedGridId()).isNull();
+
+        verify(jsExecutionScheduler, times(0))
+            .updateDisplayedGrids(any(), any());
+        verify(jsExecutionScheduler, times(0))
+            .prewarmNextGrid(any(), any());
     }
 
     @Test
@@ -389,7 +522,7 @@ class DashboardWebSocketServiceTest {
         verify(jsExecutionService)
             .getJsExecutionsByProject(project);
         verify(jsExecutionScheduler)
-            .scheduleJsRequests(jsExecutionDtos, true);
+            .scheduleJsRequestsOnSubscription(jsExecutionDtos);
         verify(simpMessagingTemplate)
             .convertAndSendToUser(eq("token"), eq("/queue/live"), argThat(updateEvent ->
                 ((UpdateEvent) updateEvent).getType().equals(RELOAD)));
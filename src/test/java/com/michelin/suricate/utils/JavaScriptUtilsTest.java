@@ -14,31 +14,20 @@ class JavaScriptUtilsTest {
     }
 
     @Test
-    void shouldInjectInterruptNull() {
-        String actual = JavaScriptUtils.injectInterrupt(null);
+    void shouldPrepareNull() {
+        String actual = JavaScriptUtils.prepare(null);
         assertThat(actual).isEmpty();
     }
 
     @Test
-    void shouldInjectInterruptEmpty() {
-        String actual = JavaScriptUtils.injectInterrupt(StringUtils.EMPTY);
+    void shouldPrepareEmpty() {
+        String actual = JavaScriptUtils.prepare(StringUtils.EMPTY);
         assertThat(actual).isEmpty();
     }
 
     @Test
-    void shouldInjectInterruptNoInject() {
-        String actual = JavaScriptUtils.injectInterrupt("var i = {};");
-        assertThat(actual).isEqualTo("var i = {};");
-    }
-
-    @Test
-    void shouldInjectInterruptLoop() {
-        String actual = JavaScriptUtils.injectInterrupt("function(){};");
-        assertThat(actual).isEqualTo("function(){Packages." + JsEndpoints.class.getName() + ".checkInterrupted();};");
-
-        String actualTwo = JavaScriptUtils.injectInterrupt("function()\n{\nwhile(true)\n{\n}\n};");
-        assertThat(actualTwo).isEqualTo(
-            "function(){Packages." + JsEndpoints.class.getName() + ".checkInterrupted();\nwhile(true){Packages."
-                + JsEndpoints.class.getName() + ".checkInterrupted();\n}\n};");
+    void shouldPrepareWithoutRewritingLoops() {
+        String actual = JavaScriptUtils.prepare("function()\n{\nwhile(true)\n{\n}\n};");
+        assertThat(actual).isEqualTo("function()\n{\nwhile(true)\n{\n}\n};");
     }
 }
@@ -0,0 +1,42 @@
+package com.michelin.suricate.utils.http;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.michelin.suricate.properties.ApplicationProperties;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.junit.jupiter.api.Test;
+
+class OkHttpClientUtilsTest {
+    @Test
+    void shouldGetUnsafeOkHttpClient() {
+        OkHttpClient actual = OkHttpClientUtils.getUnsafeOkHttpClient();
+
+        assertThat(actual.protocols()).containsExactly(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        assertThat(actual.proxySelector()).isInstanceOf(WidgetProxySelector.class);
+    }
+
+    @Test
+    void shouldCreateUnsafeOkHttpClientWithEventListener() {
+        ApplicationProperties.Http properties = new ApplicationProperties.Http();
+        properties.setMaxIdleConnections(10);
+        EventListener.Factory eventListenerFactory = mock(EventListener.Factory.class);
+
+        OkHttpClient actual = OkHttpClientUtils.createUnsafeOkHttpClient(properties, eventListenerFactory);
+
+        assertThat(actual.eventListenerFactory()).isSameAs(eventListenerFactory);
+    }
+
+    @Test
+    void shouldCreateUnsafeOkHttpClientWithoutHttp2() {
+        ApplicationProperties.Http properties = new ApplicationProperties.Http();
+        properties.setHttp2(false);
+
+        OkHttpClient actual = OkHttpClientUtils.createUnsafeOkHttpClient(properties, null);
+
+        assertThat(actual.protocols()).containsExactly(Protocol.HTTP_1_1);
+        assertThat(actual.hostnameVerifier().verify("any", null)).isTrue();
+    }
+}